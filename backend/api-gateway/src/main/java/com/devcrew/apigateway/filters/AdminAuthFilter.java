@@ -1,8 +1,6 @@
 package com.devcrew.apigateway.filters;
 
-import com.devcrew.apigateway.config.ServicesConfig;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -13,19 +11,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.util.Date;
 
 @Component
 public class AdminAuthFilter extends AbstractGatewayFilterFactory<AdminAuthFilter.Config> {
 
-    private final ServicesConfig servicesConfig;
+    private final TokenVerifier tokenVerifier;
 
-    public AdminAuthFilter(ServicesConfig servicesConfig) {
+    public AdminAuthFilter(TokenVerifier tokenVerifier) {
         super(AdminAuthFilter.Config.class);
-        this.servicesConfig = servicesConfig;
+        this.tokenVerifier = tokenVerifier;
     }
 
     @Override
@@ -40,10 +36,7 @@ public class AdminAuthFilter extends AbstractGatewayFilterFactory<AdminAuthFilte
             try {
                 String jwt = authHeader.substring(7);
 
-                Claims claims = Jwts.parser()
-                        .setSigningKey(getKey())
-                        .parseClaimsJws(jwt)
-                        .getBody();
+                Claims claims = tokenVerifier.verify(jwt);
 
                 if (claims.getExpiration().before(new Date())) {
                     return sendErrorResponse(exchange, HttpStatus.UNAUTHORIZED, "JWT token is expired");
@@ -52,7 +45,7 @@ public class AdminAuthFilter extends AbstractGatewayFilterFactory<AdminAuthFilte
                 String role = claims.get("role", String.class);
 
                 if ("ADMIN".equals(role)) {
-                    return chain.filter(exchange);
+                    return chain.filter(tokenVerifier.forwardIdentity(exchange, jwt, claims));
                 } else {
                     return sendErrorResponse(exchange, HttpStatus.FORBIDDEN, "Access denied for role: " + role);
                 }
@@ -62,15 +55,6 @@ public class AdminAuthFilter extends AbstractGatewayFilterFactory<AdminAuthFilte
         };
     }
 
-    private Key getKey() {
-        try {
-            byte[] keyBytes = servicesConfig.getJwtSecretKey().getBytes(StandardCharsets.UTF_8);
-            return new SecretKeySpec(keyBytes, "HmacSHA256");
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating key", e);
-        }
-    }
-
     private Mono<Void> sendErrorResponse(ServerWebExchange exchange, HttpStatus status, String message) {
         return getErrorMessage(exchange, status, message);
     }
@@ -0,0 +1,47 @@
+package com.devcrew.apigateway.filters;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Forwards the verified identity of the token to the routes doing their own authorization.
+ * Requests without a valid token pass through without identity, the service rejects them itself.
+ */
+@Component
+public class IdentityFilter extends AbstractGatewayFilterFactory<IdentityFilter.Config> {
+
+    private final TokenVerifier tokenVerifier;
+
+    public IdentityFilter(TokenVerifier tokenVerifier) {
+        super(Config.class);
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerWebExchange stripped = tokenVerifier.stripIdentity(exchange);
+            String authHeader = stripped.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return chain.filter(stripped);
+            }
+
+            String jwt = authHeader.substring(7);
+            Claims claims;
+            try {
+                claims = tokenVerifier.verify(jwt);
+            } catch (Exception e) {
+                return chain.filter(stripped);
+            }
+            return chain.filter(tokenVerifier.forwardIdentity(stripped, jwt, claims));
+        };
+    }
+
+    public static class Config {
+    }
+}
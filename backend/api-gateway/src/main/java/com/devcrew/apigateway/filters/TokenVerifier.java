@@ -0,0 +1,178 @@
+package com.devcrew.apigateway.filters;
+
+import com.devcrew.apigateway.config.ServicesConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies the JWT tokens at the edge, once per token: the claims of the verified tokens are kept until they expire.
+ * The verified identity is forwarded to the services in headers bound to the token by its hash and signed with
+ * a key derived from the JWT secret, never the internal API key sent in the X-API-Key header,
+ * so they can trust it without verifying the token again.
+ */
+@Component
+public class TokenVerifier {
+
+    public static final String SUBJECT_HEADER = "X-Auth-Subject";
+    public static final String ROLE_HEADER = "X-Auth-Role";
+    public static final String EXPIRATION_HEADER = "X-Auth-Expiration";
+    public static final String SIGNATURE_HEADER = "X-Auth-Signature";
+
+    /**
+     * Label the identity key is derived from the JWT secret with, the same in the services
+     */
+    private static final String IDENTITY_KEY_LABEL = "gateway-identity";
+
+    /**
+     * Key the tokens are signed with, built once from the secret
+     */
+    private final SecretKeySpec key;
+
+    /**
+     * Key the identity headers are signed with
+     */
+    private final SecretKeySpec identityKey;
+
+    /**
+     * Claims of the verified tokens by hash of the token, each entry expiring with its token
+     */
+    private final Cache<String, Claims> verifiedTokens;
+
+    public TokenVerifier(ServicesConfig servicesConfig, @Value("${jwt.verified.cache.size}") long cacheSize) {
+        this.key = new SecretKeySpec(servicesConfig.getJwtSecretKey().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.identityKey = new SecretKeySpec(hmac(key, IDENTITY_KEY_LABEL), "HmacSHA256");
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        long remaining = claims.getExpiration() == null
+                                ? 0
+                                : claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verifies a token, only parsing it the first time it is seen.
+     * @param token JWT token, without the Bearer prefix
+     * @return The claims of the token
+     * @throws RuntimeException if the token is invalid or expired
+     */
+    public Claims verify(String token) {
+        return verifiedTokens.get(hash(token), tokenHash -> Jwts.parser()
+                .setSigningKey(key)
+                .parseClaimsJws(token)
+                .getBody());
+    }
+
+    /**
+     * Replaces the identity headers of the request with the signed identity of a verified token.
+     * @param exchange Exchange of the request
+     * @param token Verified JWT token, without the Bearer prefix
+     * @param claims Claims of the token
+     * @return The exchange forwarding the identity
+     */
+    public ServerWebExchange forwardIdentity(ServerWebExchange exchange, String token, Claims claims) {
+        String subject = claims.getSubject();
+        String role = claims.get("role", String.class);
+        String expiration = String.valueOf(claims.getExpiration().getTime());
+        String signature = sign(token, subject, role, expiration);
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.set(SUBJECT_HEADER, subject);
+                    headers.set(ROLE_HEADER, role == null ? "" : role);
+                    headers.set(EXPIRATION_HEADER, expiration);
+                    headers.set(SIGNATURE_HEADER, signature);
+                })
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    /**
+     * Removes the identity headers sent by the client, the services only trust the ones set here.
+     * @param exchange Exchange of the request
+     * @return The exchange without identity headers
+     */
+    public ServerWebExchange stripIdentity(ServerWebExchange exchange) {
+        if (!exchange.getRequest().getHeaders().containsKey(SIGNATURE_HEADER)) {
+            return exchange;
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(SUBJECT_HEADER);
+                    headers.remove(ROLE_HEADER);
+                    headers.remove(EXPIRATION_HEADER);
+                    headers.remove(SIGNATURE_HEADER);
+                })
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    /**
+     * Signs the identity, bound to the token by its hash.
+     */
+    private String sign(String token, String subject, String role, String expiration) {
+        String signed = identity(hash(token), subject, role == null ? "" : role, expiration);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hmac(identityKey, signed));
+    }
+
+    /**
+     * Encodes the signed fields of an identity, each prefixed with its length so no field can spill into the next.
+     * The services encode it the same way to check the signature.
+     */
+    static String identity(String... fields) {
+        StringBuilder identity = new StringBuilder();
+        for (String field : fields) {
+            identity.append(field.length()).append(':').append(field);
+        }
+        return identity.toString();
+    }
+
+    private static byte[] hmac(SecretKeySpec key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error signing the identity", e);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
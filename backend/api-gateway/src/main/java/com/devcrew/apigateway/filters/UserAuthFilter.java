@@ -1,8 +1,6 @@
 package com.devcrew.apigateway.filters;
 
-import com.devcrew.apigateway.config.ServicesConfig;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
@@ -11,9 +9,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.util.Date;
 
 import static com.devcrew.apigateway.filters.AdminAuthFilter.getErrorMessage;
@@ -21,11 +16,11 @@ import static com.devcrew.apigateway.filters.AdminAuthFilter.getErrorMessage;
 @Component
 public class UserAuthFilter extends AbstractGatewayFilterFactory<UserAuthFilter.Config> {
 
-    private final ServicesConfig servicesConfig;
+    private final TokenVerifier tokenVerifier;
 
-    public UserAuthFilter(ServicesConfig servicesConfig) {
+    public UserAuthFilter(TokenVerifier tokenVerifier) {
         super(Config.class);
-        this.servicesConfig = servicesConfig;
+        this.tokenVerifier = tokenVerifier;
     }
 
     @Override
@@ -38,10 +33,8 @@ public class UserAuthFilter extends AbstractGatewayFilterFactory<UserAuthFilter.
             }
 
             try {
-                Claims claims = Jwts.parser()
-                        .setSigningKey(getKey())
-                        .parseClaimsJws(authHeader.replace("Bearer ", ""))
-                        .getBody();
+                String jwt = authHeader.replace("Bearer ", "");
+                Claims claims = tokenVerifier.verify(jwt);
 
                 if (claims.getExpiration().before(new Date())) {
                     return sendErrorResponse(exchange, HttpStatus.UNAUTHORIZED, "JWT token is expired");
@@ -50,7 +43,7 @@ public class UserAuthFilter extends AbstractGatewayFilterFactory<UserAuthFilter.
                 String role = claims.get("role", String.class);
 
                 if ("USER".equals(role) || "ADMIN".equals(role)) {
-                    return chain.filter(exchange);
+                    return chain.filter(tokenVerifier.forwardIdentity(exchange, jwt, claims));
                 } else {
                     return sendErrorResponse(exchange, HttpStatus.FORBIDDEN, "Access denied for role: " + role);
                 }
@@ -60,15 +53,6 @@ public class UserAuthFilter extends AbstractGatewayFilterFactory<UserAuthFilter.
         };
     }
 
-    private Key getKey() {
-        try {
-            byte[] keyBytes = servicesConfig.getJwtSecretKey().getBytes(StandardCharsets.UTF_8);
-            return new SecretKeySpec(keyBytes, "HmacSHA256");
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating key", e);
-        }
-    }
-
     private Mono<Void> sendErrorResponse(ServerWebExchange exchange, HttpStatus status, String message) {
         return getErrorMessage(exchange, status, message);
     }
@@ -0,0 +1,109 @@
+package com.devcrew.apigateway.filters;
+
+import com.devcrew.apigateway.config.ServicesConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The TokenVerifierTest class is responsible for testing the verification of the tokens at the edge
+ * and the identity forwarded to the services.
+ */
+class TokenVerifierTest {
+
+	private static final String SECRET = "jwt-secret-of-the-tests-long-enough";
+	private static final String API_KEY = "internal-key";
+
+	private final TokenVerifier tokenVerifier = new TokenVerifier(servicesConfig(), 100);
+
+	/**
+	 * A verified token is only parsed once, and its identity is forwarded in headers signed with a key derived
+	 * from the JWT secret, not with the internal API key sent to the services.
+	 */
+	@Test
+	void verifyAndForwardIdentity() throws Exception {
+		String token = token(SECRET, new Date(System.currentTimeMillis() + 60000));
+
+		Claims claims = tokenVerifier.verify(token);
+		assertSame(claims, tokenVerifier.verify(token));
+
+		ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/user")
+				.header(TokenVerifier.SIGNATURE_HEADER, "forged")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+		HttpHeaders headers = tokenVerifier.forwardIdentity(exchange, token, claims).getRequest().getHeaders();
+
+		String expiration = String.valueOf(claims.getExpiration().getTime());
+		assertEquals("Ma123", headers.getFirst(TokenVerifier.SUBJECT_HEADER));
+		assertEquals("ADMIN", headers.getFirst(TokenVerifier.ROLE_HEADER));
+		assertEquals(expiration, headers.getFirst(TokenVerifier.EXPIRATION_HEADER));
+		// Each field prefixed with its length, the encoding the services check the signature with
+		String identity = "44:" + hash(token) + "5:Ma1235:ADMIN" + expiration.length() + ":" + expiration;
+		assertEquals(encode(hmac(hmac(SECRET.getBytes(StandardCharsets.UTF_8), "gateway-identity"), identity)),
+				headers.getFirst(TokenVerifier.SIGNATURE_HEADER));
+		assertNotEquals(encode(hmac(API_KEY.getBytes(StandardCharsets.UTF_8), identity)),
+				headers.getFirst(TokenVerifier.SIGNATURE_HEADER));
+	}
+
+	/**
+	 * Tokens signed with another secret or expired are rejected, and identity headers sent by clients are removed.
+	 */
+	@Test
+	void rejectInvalidTokens() {
+		assertThrows(RuntimeException.class,
+				() -> tokenVerifier.verify(token("another-secret-long-enough-for-hmac", new Date(System.currentTimeMillis() + 60000))));
+		assertThrows(RuntimeException.class,
+				() -> tokenVerifier.verify(token(SECRET, new Date(System.currentTimeMillis() - 1000))));
+
+		ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/user")
+				.header(TokenVerifier.SUBJECT_HEADER, "Ma123")
+				.header(TokenVerifier.SIGNATURE_HEADER, "forged"));
+		HttpHeaders headers = tokenVerifier.stripIdentity(exchange).getRequest().getHeaders();
+		assertFalse(headers.containsKey(TokenVerifier.SUBJECT_HEADER));
+		assertFalse(headers.containsKey(TokenVerifier.SIGNATURE_HEADER));
+	}
+
+	private static String token(String secret, Date expiration) {
+		return Jwts.builder()
+				.setSubject("Ma123")
+				.claim("role", "ADMIN")
+				.setExpiration(expiration)
+				.signWith(SignatureAlgorithm.HS256, new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+				.compact();
+	}
+
+	private static byte[] hmac(byte[] key, String value) throws Exception {
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(key, "HmacSHA256"));
+		return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String encode(byte[] signature) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+	}
+
+	private static String hash(String token) throws Exception {
+		return Base64.getEncoder().encodeToString(
+				MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static ServicesConfig servicesConfig() {
+		ServicesConfig servicesConfig = new ServicesConfig();
+		servicesConfig.setJwtSecretKey(SECRET);
+		servicesConfig.setApiKey(API_KEY);
+		return servicesConfig;
+	}
+}
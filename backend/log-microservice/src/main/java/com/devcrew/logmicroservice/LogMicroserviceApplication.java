@@ -3,14 +3,17 @@ package com.devcrew.logmicroservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * This class is the main class of the LogMicroservice application.
  * It is used to run the application.
  * It is annotated with @SpringBootApplication to enable a Spring Boot application.
  * It is annotated with @EnableDiscoveryClient to enable service registration and discovery.
+ * It is annotated with @EnableScheduling to run the log retention job.
  */
 @EnableDiscoveryClient
+@EnableScheduling
 @SpringBootApplication
 public class LogMicroserviceApplication {
 
@@ -2,6 +2,7 @@ package com.devcrew.logmicroservice.config;
 
 import com.devcrew.logmicroservice.model.*;
 import com.devcrew.logmicroservice.repository.*;
+import com.devcrew.logmicroservice.service.LogDictionaryService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -39,11 +40,12 @@ public class InitialDataConfig {
      * @param actionRepository The repository for the Action entity
      * @param appEntityRepository The repository for the AppEntity entity
      * @param moduleRepository The repository for the Module entity
+     * @param logDictionaryService The in-memory dictionary used by log ingestion, preloaded once the data is saved
      * @return CommandLineRunner object that is used to populate the database with the list of actions, modules, and tables
      */
     // Just to test the application
     @Bean
-    CommandLineRunner commandLineRunner(ActionRepository actionRepository, AppEntityRepository appEntityRepository, ModuleRepository moduleRepository) {
+    CommandLineRunner commandLineRunner(ActionRepository actionRepository, AppEntityRepository appEntityRepository, ModuleRepository moduleRepository, LogDictionaryService logDictionaryService) {
         return args -> {
             List<Action> actions = new ArrayList<>(
                     List.of(
@@ -73,6 +75,7 @@ public class InitialDataConfig {
             );
             moduleRepository.saveAll(modules);
             appEntityRepository.saveAll(getTables());
+            logDictionaryService.refresh();
         };
     }
 
@@ -2,7 +2,11 @@ package com.devcrew.logmicroservice.config;
 
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -13,6 +17,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitConfig {
 
@@ -25,9 +32,67 @@ public class RabbitConfig {
     @Value("${rabbitmq.routing.key}")
     private String routingKey;
 
+    // Exchange and queue receiving the log messages that can't be processed
+    @Value("${rabbitmq.dead-letter.exchange.name}")
+    private String deadLetterExchangeName;
+
+    @Value("${rabbitmq.dead-letter.queue.name}")
+    private String deadLetterQueueName;
+
+    // Deliveries of a message that keeps failing before the broker dead-letters it
+    @Value("${rabbitmq.queue.delivery.limit}")
+    private Integer deliveryLimit;
+
+    // Number of queues the log messages are sharded across by user, must be the same in both services
+    @Value("${rabbitmq.queue.shards}")
+    private Integer shards;
+
+    // Maximum number of log messages handed to the listener in one batch
+    @Value("${rabbitmq.listener.batch.size}")
+    private Integer batchSize;
+
+    // Maximum time in milliseconds spent filling a batch before it is delivered
+    @Value("${rabbitmq.listener.batch.timeout}")
+    private Long batchTimeout;
+
+    // Both services declare the queue, so its arguments must be the same in both RabbitConfig classes
     @Bean
     public Queue logQueue() {
-        return new Queue(queueName, false);
+        // A quorum queue is durable, replicated and keeps its messages on disk, so a broker restart loses nothing
+        return QueueBuilder.durable(queueName)
+                .quorum()
+                .deliveryLimit(deliveryLimit)
+                .deadLetterExchange(deadLetterExchangeName)
+                .build();
+    }
+
+    // Messages are routed to logQueue.<shard> by the shard of their user, each shard has one active consumer
+    // so the messages of a user are saved in the order they were published, and the shards are saved in parallel.
+    // logQueue keeps receiving the messages published with the plain routing key.
+    @Bean
+    public Declarables logShardQueues() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            Queue queue = QueueBuilder.durable(shardQueueName(queueName, shard))
+                    .quorum()
+                    .singleActiveConsumer()
+                    .deliveryLimit(deliveryLimit)
+                    .deadLetterExchange(deadLetterExchangeName)
+                    // Dead-lettered messages land in the dead-letter queue whatever their shard
+                    .deadLetterRoutingKey(routingKey)
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange()).with(shardRoutingKey(routingKey, shard)));
+        }
+        return new Declarables(declarables);
+    }
+
+    public static String shardQueueName(String queueName, int shard) {
+        return queueName + "." + shard;
+    }
+
+    public static String shardRoutingKey(String routingKey, int shard) {
+        return routingKey + "." + shard;
     }
 
     @Bean
@@ -36,8 +101,24 @@ public class RabbitConfig {
     }
 
     @Bean
-    public Binding binding(Queue queue, TopicExchange exchange) {
-        return BindingBuilder.bind(queue).to(exchange).with(routingKey);
+    public Binding binding() {
+        return BindingBuilder.bind(logQueue()).to(exchange()).with(routingKey);
+    }
+
+    @Bean
+    public Queue logDeadLetterQueue() {
+        return QueueBuilder.durable(deadLetterQueueName).quorum().build();
+    }
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(deadLetterExchangeName);
+    }
+
+    // Dead-lettered messages keep their routing key
+    @Bean
+    public Binding deadLetterBinding() {
+        return BindingBuilder.bind(logDeadLetterQueue()).to(deadLetterExchange()).with(routingKey);
     }
 
     @Bean
@@ -59,6 +140,12 @@ public class RabbitConfig {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setBatchReceiveTimeout(batchTimeout);
+        // Prefetch at least a full batch so the consumer never waits on the broker mid-batch
+        factory.setPrefetchCount(batchSize);
         factory.setErrorHandler(t -> System.err.println("Error in listener: " + t.getCause().getMessage()));
         return factory;
     }
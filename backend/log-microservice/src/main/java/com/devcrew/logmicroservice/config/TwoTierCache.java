@@ -0,0 +1,141 @@
+package com.devcrew.logmicroservice.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache with a bounded in-process tier in front of a shared remote tier.
+ * Reads are served from the local tier when possible and fall back to the remote one.
+ * Writes go to both tiers and are announced, so other instances drop their local copy of the key.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+
+    /**
+     * In-process tier, keyed by the string form of the cache key
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache;
+
+    /**
+     * Shared tier, the source of truth between instances
+     */
+    private final Cache remoteCache;
+
+    /**
+     * Announces a changed key, or a cleared cache when the key is null, to the other instances
+     */
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache,
+                        Cache remoteCache,
+                        BiConsumer<String, String> invalidationPublisher) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> getLocalCache() {
+        return localCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+        value = remoteCache.get(key);
+        if (value != null) {
+            localCache.put(localKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object cached = value.get();
+        if (cached != null && type != null && !type.isInstance(cached)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + cached);
+        }
+        return (T) cached;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        // Only fills the local tier: the shared value is unchanged or was missing, so no instance holds a stale copy
+        T loaded = remoteCache.get(key, valueLoader);
+        localCache.put(localKey(key), new SimpleValueWrapper(loaded));
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(localKey(key), new SimpleValueWrapper(value));
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(localKey(key));
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drops a key from the local tier only, after another instance changed it.
+     * @param localKey String form of the cache key
+     */
+    public void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    /**
+     * Drops every key from the local tier only, after another instance cleared the cache.
+     */
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,118 @@
+package com.devcrew.logmicroservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Cache manager that puts a Caffeine tier in front of every Redis cache.
+ * Changed keys are published on a Redis channel, and every instance listening on it evicts them from its local tier.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final RedisCacheManager redisCacheManager;
+
+    /**
+     * Resolves the Caffeine spec (size and TTL) of the local tier of a cache
+     */
+    private final Function<String, String> localSpecs;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String channel;
+
+    /**
+     * Identifies this instance, so it ignores its own invalidation messages
+     */
+    private final String origin = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for TwoTierCacheManager.
+     * The caches already known by the Redis cache manager are created right away, so their metrics get bound at startup.
+     * @param redisCacheManager Initialized Redis cache manager providing the remote tier
+     * @param localSpecs Resolves the Caffeine spec of the local tier of a cache by name
+     * @param redisTemplate Template used to publish invalidations
+     * @param channel Redis channel the invalidations are published on
+     */
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager,
+                               Function<String, String> localSpecs,
+                               StringRedisTemplate redisTemplate,
+                               String channel) {
+        this.redisCacheManager = redisCacheManager;
+        this.localSpecs = localSpecs;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        redisCacheManager.getCacheNames().forEach(this::getCache);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        Set<String> names = new LinkedHashSet<>(redisCacheManager.getCacheNames());
+        names.addAll(caches.keySet());
+        return names;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 2 || origin.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 2) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache remoteCache = redisCacheManager.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> localCache = Caffeine.from(localSpecs.apply(name))
+                .recordStats()
+                .build();
+        return new TwoTierCache(name, localCache, remoteCache, this::publishInvalidation);
+    }
+
+    /**
+     * Publishes a changed key, or a cleared cache when the key is null.
+     * @param cacheName Name of the cache
+     * @param key String form of the changed key
+     */
+    private void publishInvalidation(String cacheName, String key) {
+        String message = origin + SEPARATOR + cacheName + (key == null ? "" : SEPARATOR + key);
+        redisTemplate.convertAndSend(channel, message);
+    }
+}
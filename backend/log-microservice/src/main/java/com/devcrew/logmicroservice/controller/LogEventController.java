@@ -1,14 +1,21 @@
 package com.devcrew.logmicroservice.controller;
 
+import com.devcrew.logmicroservice.dto.CursorLogsResponse;
 import com.devcrew.logmicroservice.dto.LogEventDTO;
 import com.devcrew.logmicroservice.dto.LogEventFilter;
 import com.devcrew.logmicroservice.dto.PaginatedLogsResponse;
 import com.devcrew.logmicroservice.service.LogEventService;
+import com.devcrew.logmicroservice.service.LogPayloadMigrationService;
+import com.devcrew.logmicroservice.service.LogRetentionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -25,13 +32,29 @@ public class LogEventController {
      */
     private final LogEventService logEventService;
 
+    /**
+     * The LogPayloadMigrationService instance compressing the payloads of the existing logs.
+     */
+    private final LogPayloadMigrationService logPayloadMigrationService;
+
+    /**
+     * The LogRetentionService instance purging the expired logs.
+     */
+    private final LogRetentionService logRetentionService;
+
     /**
      * Constructor for the LogEventController.
      * @param logEventService The LogEventService instance to perform the business logic.
+     * @param logPayloadMigrationService The LogPayloadMigrationService instance compressing the payloads of the existing logs.
+     * @param logRetentionService The LogRetentionService instance purging the expired logs.
      */
     @Autowired
-    public LogEventController(LogEventService logEventService) {
+    public LogEventController(LogEventService logEventService,
+                              LogPayloadMigrationService logPayloadMigrationService,
+                              LogRetentionService logRetentionService) {
         this.logEventService = logEventService;
+        this.logPayloadMigrationService = logPayloadMigrationService;
+        this.logRetentionService = logRetentionService;
     }
 
     /**
@@ -61,6 +84,38 @@ public class LogEventController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get a keyset page of logs, starting after the given cursor.
+     * Unlike get-paginated-logs it doesn't count the logs, so deep pages are as fast as the first one.
+     * @param cursor The cursor returned with the previous page, omitted for the first page.
+     * @param size The size of the page.
+     * @param filter The filter to apply to the logs.
+     * @param sortDirection The direction to sort the logs.
+     * @return The logs of the page and the cursor of the next one.
+     */
+    @GetMapping("/get-logs-by-cursor")
+    public ResponseEntity<CursorLogsResponse> getLogsByCursor(@RequestParam(required = false) String cursor,
+                                                              @RequestParam Integer size,
+                                                              @RequestBody(required = false) LogEventFilter filter,
+                                                              @RequestParam String sortDirection) {
+        CursorLogsResponse response = logEventService.getLogsByCursor(cursor, size, filter, sortDirection);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Export the logs matching the filter as newline-delimited JSON, oldest first.
+     * The logs are streamed straight to the response, so it is safe to use on tables of any size.
+     * @param filter The filter to apply to the logs, omitted to export every log.
+     * @return The response entity streaming one log per line.
+     */
+    @GetMapping("/export-logs")
+    public ResponseEntity<StreamingResponseBody> exportLogs(@RequestBody(required = false) LogEventFilter filter) {
+        StreamingResponseBody body = outputStream -> logEventService.exportLogs(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /**
      * Get the log with the given id.
      * @param id The id of the log.
@@ -92,4 +147,47 @@ public class LogEventController {
         logEventService.deleteLogs();
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Delete the logs matching the filter, chunk by chunk.
+     * The progress is streamed as newline-delimited JSON, the last line holds the total and done set to true.
+     * @param filter The filter of the logs to delete, it must not be empty.
+     * @return The response entity streaming the progress of the delete.
+     */
+    @DeleteMapping("/delete-logs-by-filter")
+    public ResponseEntity<StreamingResponseBody> deleteLogsByFilter(@RequestBody LogEventFilter filter) {
+        logRetentionService.checkDeleteFilter(filter);
+        StreamingResponseBody body = outputStream -> logRetentionService.deleteLogs(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Delete the logs created before the given date, in the background.
+     * @param before The logs created before this date, in ISO format, are deleted.
+     * @return 202 if the purge started, 409 if a purge or the partitioning is already running.
+     */
+    @DeleteMapping("/purge-logs")
+    public ResponseEntity<Void> purgeLogs(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        return ResponseEntity.status(logRetentionService.startPurgeLogsBefore(before) ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Compress the payloads of the logs still stored as text, in the background.
+     * @return 202 if the migration started, 409 if one is already running.
+     */
+    @PostMapping("/compress-payloads")
+    public ResponseEntity<Void> compressPayloads() {
+        return ResponseEntity.status(logPayloadMigrationService.startCompressPayloads() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Partition the LOG_EVENT table by creation date, once, when log.partitioning.enabled is set, in the background.
+     * @return 202 if the partitioning started, 409 if a purge or the partitioning is already running.
+     */
+    @PostMapping("/partition-logs")
+    public ResponseEntity<Void> partitionLogs() {
+        return ResponseEntity.status(logRetentionService.startPartitionLogEvents() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
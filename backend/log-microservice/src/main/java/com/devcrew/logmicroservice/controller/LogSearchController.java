@@ -0,0 +1,55 @@
+package com.devcrew.logmicroservice.controller;
+
+import com.devcrew.logmicroservice.dto.LogSearchResponse;
+import com.devcrew.logmicroservice.service.LogSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller class for the full-text search of the logs.
+ * Handles the HTTP requests and responses.
+ * Call the LogSearchService, which answers from its index without reading the logs.
+ */
+@RestController
+@RequestMapping("/log/search")
+public class LogSearchController {
+
+    /**
+     * The LogSearchService instance to perform the business logic.
+     */
+    private final LogSearchService logSearchService;
+
+    /**
+     * Constructor for the LogSearchController.
+     * @param logSearchService The LogSearchService instance to perform the business logic.
+     */
+    @Autowired
+    public LogSearchController(LogSearchService logSearchService) {
+        this.logSearchService = logSearchService;
+    }
+
+    /**
+     * Search the descriptions and payloads of the logs.
+     * @param query The query, in the Lucene syntax, e.g. after.email:"hola@mail.com".
+     * @param page The page number, starting at 0.
+     * @param size The number of IDs per page, at most 100.
+     * @return The IDs of the matching logs, best match first, and the total number of matches.
+     */
+    @GetMapping
+    public ResponseEntity<LogSearchResponse> searchLogs(@RequestParam String query,
+                                                        @RequestParam(defaultValue = "0") Integer page,
+                                                        @RequestParam(defaultValue = "20") Integer size) {
+        return ResponseEntity.ok(logSearchService.search(query, page, size));
+    }
+
+    /**
+     * Rebuild the search index from the database in the background.
+     * @return 202 if the reindex started, 409 if one is already running.
+     */
+    @PostMapping("/reindex")
+    public ResponseEntity<Void> reindex() {
+        return ResponseEntity.status(logSearchService.reindex() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.devcrew.logmicroservice.controller;
+
+import com.devcrew.logmicroservice.dto.LogStatsBucket;
+import com.devcrew.logmicroservice.dto.LogStatsTopItem;
+import com.devcrew.logmicroservice.service.LogStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controller class for the log statistics.
+ * Handles the HTTP requests and responses.
+ * Call the LogStatsService, which answers from the hourly rollups without reading the logs.
+ */
+@RestController
+@RequestMapping("/log/stats")
+public class LogStatsController {
+
+    /**
+     * The LogStatsService instance to perform the business logic.
+     */
+    private final LogStatsService logStatsService;
+
+    /**
+     * Constructor for the LogStatsController.
+     * @param logStatsService The LogStatsService instance to perform the business logic.
+     */
+    @Autowired
+    public LogStatsController(LogStatsService logStatsService) {
+        this.logStatsService = logStatsService;
+    }
+
+    /**
+     * Get the number of logs per hour or day.
+     * @param from The start of the range, in ISO format.
+     * @param to The end of the range, excluded, in ISO format.
+     * @param interval hour or day.
+     * @param moduleId The module counted, omitted for every module.
+     * @param actionId The action counted, omitted for every action.
+     * @param entityId The entity counted, omitted for every entity.
+     * @param userId The user counted, omitted for every user.
+     * @return The number of logs of every hour or day that has some.
+     */
+    @GetMapping("/histogram")
+    public ResponseEntity<List<LogStatsBucket>> getHistogram(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                             @RequestParam(defaultValue = "hour") String interval,
+                                                             @RequestParam(required = false) Integer moduleId,
+                                                             @RequestParam(required = false) Integer actionId,
+                                                             @RequestParam(required = false) Integer entityId,
+                                                             @RequestParam(required = false) Integer userId) {
+        return ResponseEntity.ok(logStatsService.getHistogram(from, to, interval, moduleId, actionId, entityId, userId));
+    }
+
+    /**
+     * Get the users, modules, actions or entities with the most logs.
+     * @param from The start of the range, in ISO format.
+     * @param to The end of the range, excluded, in ISO format.
+     * @param dimension user, module, action or entity.
+     * @param limit The maximum number of rows.
+     * @return The users, modules, actions or entities and their number of logs, highest first.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<LogStatsTopItem>> getTop(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                        @RequestParam String dimension,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(logStatsService.getTop(from, to, dimension, limit));
+    }
+}
@@ -0,0 +1,44 @@
+package com.devcrew.logmicroservice.controller;
+
+import com.devcrew.logmicroservice.dto.LogEventFilter;
+import com.devcrew.logmicroservice.service.LogTailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controller class for the live tail of the logs.
+ * Handles the HTTP requests and responses.
+ * Call the LogTailService, which pushes the new logs as they are saved without reading the logs.
+ */
+@RestController
+@RequestMapping("/log")
+public class LogTailController {
+
+    /**
+     * The LogTailService instance to perform the business logic.
+     */
+    private final LogTailService logTailService;
+
+    /**
+     * Constructor for the LogTailController.
+     * @param logTailService The LogTailService instance to perform the business logic.
+     */
+    @Autowired
+    public LogTailController(LogTailService logTailService) {
+        this.logTailService = logTailService;
+    }
+
+    /**
+     * Stream the new logs as Server-Sent Events.
+     * Every log is sent as a log event, and a dropped event tells how many logs were skipped when the client falls behind.
+     * The filter is read from the query parameters, e.g. userId.id=3&amp;module.name_module=User, as browsers can't send a body.
+     * @param filter The filter to apply to the logs, omitted to receive every log.
+     * @return The emitter streaming the logs.
+     */
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailLogs(@ModelAttribute LogEventFilter filter) {
+        return logTailService.subscribe(filter);
+    }
+}
@@ -0,0 +1,17 @@
+package com.devcrew.logmicroservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BulkDeleteProgress is a DTO class used to report the progress of a bulk delete of log events.
+ * One is sent after every chunk with the number of logs deleted so far, the last one has done set to true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteProgress {
+    private int deleted;
+    private boolean done;
+}
@@ -0,0 +1,19 @@
+package com.devcrew.logmicroservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CursorLogsResponse is a DTO class used to return a keyset page of log events.
+ * It contains the logs of the page and the cursor of the next one, which is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorLogsResponse {
+    private List<LogEventDTO> logs;
+    private String nextCursor;
+}
@@ -0,0 +1,48 @@
+package com.devcrew.logmicroservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * LogEventCursor is the position of the last log of a keyset page, its creation date and id.
+ * Clients receive it as an opaque string and send it back to get the next page.
+ */
+@Data
+@AllArgsConstructor
+public class LogEventCursor {
+    private LocalDateTime creationDate;
+    private Integer id;
+
+    /**
+     * Encodes the cursor as an opaque, URL safe string.
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        String value = creationDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously returned by encode.
+     * @param cursor The encoded cursor.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static LogEventCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new LogEventCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Integer.valueOf(value.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+}
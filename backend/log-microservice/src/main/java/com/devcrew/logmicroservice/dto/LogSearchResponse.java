@@ -0,0 +1,19 @@
+package com.devcrew.logmicroservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * LogSearchResponse is a DTO class used to return a page of full-text search results.
+ * It contains the IDs of the matching log events, best match first, and the total number of matches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogSearchResponse {
+    private List<Integer> ids;
+    private long totalHits;
+}
@@ -0,0 +1,19 @@
+package com.devcrew.logmicroservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * LogStatsBucket is a DTO class used to return one bar of a log events histogram.
+ * It contains the start of the hour or day and the number of log events created in it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogStatsBucket {
+    private LocalDateTime bucket;
+    private Long count;
+}
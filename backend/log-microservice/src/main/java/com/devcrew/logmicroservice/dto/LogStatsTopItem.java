@@ -0,0 +1,18 @@
+package com.devcrew.logmicroservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * LogStatsTopItem is a DTO class used to return one row of a top N of users, modules, actions or entities.
+ * It contains the id and name of the user, module, action or entity and its number of log events.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogStatsTopItem {
+    private Integer id;
+    private String name;
+    private Long count;
+}
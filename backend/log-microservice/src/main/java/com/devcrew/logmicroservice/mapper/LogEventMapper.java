@@ -11,6 +11,7 @@ public class LogEventMapper {
 
     /**
      * This method is used to map the LogEvent entity to the LogEventDTO.
+     * Compressed payloads are decompressed, so the DTO is the same however the log is stored.
      * @param logEvent The LogEvent entity.
      * @return The LogEventDTO.
      */
@@ -18,8 +19,8 @@ public class LogEventMapper {
         return new LogEventDTO(
                 logEvent.getId(),
                 logEvent.getDescription(),
-                logEvent.getJsonBefore(),
-                logEvent.getJsonAfter(),
+                LogPayloadCodec.jsonBefore(logEvent),
+                LogPayloadCodec.jsonAfter(logEvent),
                 ActionMapper.toDTO(logEvent.getActionId()),
                 AppEntityMapper.toDTO(logEvent.getEntityId()),
                 AppModuleMapper.toDTO(logEvent.getModuleId()),
@@ -0,0 +1,86 @@
+package com.devcrew.logmicroservice.mapper;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class is used to compress and decompress the JSON payloads of the LogEvent entity.
+ * Payloads are stored as GZIP of their UTF-8 bytes, the format of the COMPRESS and DECOMPRESS functions of SQL Server,
+ * so they can still be read in the database with CAST(DECOMPRESS(json_before_gz) AS varchar(max)).
+ */
+public class LogPayloadCodec {
+
+    /**
+     * This method is used to move the payloads of a log event from the text columns to the compressed ones.
+     * @param logEvent The LogEvent entity, changed in place.
+     * @return The LogEvent entity.
+     */
+    public static LogEvent compress(LogEvent logEvent) {
+        if (logEvent.getJsonBefore() != null) {
+            logEvent.setJsonBeforeCompressed(compress(logEvent.getJsonBefore()));
+            logEvent.setJsonBefore(null);
+        }
+        if (logEvent.getJsonAfter() != null) {
+            logEvent.setJsonAfterCompressed(compress(logEvent.getJsonAfter()));
+            logEvent.setJsonAfter(null);
+        }
+        return logEvent;
+    }
+
+    /**
+     * This method is used to read the state before the action, whichever way it was stored.
+     * @param logEvent The LogEvent entity.
+     * @return The state of the entity before the action was performed.
+     */
+    public static String jsonBefore(LogEvent logEvent) {
+        return read(logEvent.getJsonBefore(), logEvent.getJsonBeforeCompressed());
+    }
+
+    /**
+     * This method is used to read the state after the action, whichever way it was stored.
+     * @param logEvent The LogEvent entity.
+     * @return The state of the entity after the action was performed.
+     */
+    public static String jsonAfter(LogEvent logEvent) {
+        return read(logEvent.getJsonAfter(), logEvent.getJsonAfterCompressed());
+    }
+
+    /**
+     * This method is used to compress a payload.
+     * @param json The payload.
+     * @return The GZIP of the UTF-8 bytes of the payload.
+     */
+    public static byte[] compress(String json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(32, json.length() / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compress log payload: " + e.getMessage(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * This method is used to decompress a payload.
+     * @param compressed The GZIP of the UTF-8 bytes of the payload.
+     * @return The payload.
+     */
+    public static String decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decompress log payload: " + e.getMessage(), e);
+        }
+    }
+
+    private static String read(String text, byte[] compressed) {
+        return text != null || compressed == null ? text : decompress(compressed);
+    }
+}
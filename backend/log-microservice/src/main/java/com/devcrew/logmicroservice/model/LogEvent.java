@@ -18,7 +18,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table (
         name = "LOG_EVENT",
-        schema = "dbo"
+        schema = "dbo",
+        // Serves date bounded queries and the creation date ordering of paginated logs
+        indexes = @Index(name = "ix_log_event_creation_date_id", columnList = "creation_date, id")
 )
 @Data
 @Builder
@@ -29,6 +31,11 @@ public class LogEvent implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Number of IDs reserved by each value of the log_event_sequence, the value being the last one of its block.
+     */
+    public static final int ID_ALLOCATION_SIZE = 5;
+
     /**
      * The id of the log event.
      */
@@ -36,7 +43,7 @@ public class LogEvent implements Serializable {
     @SequenceGenerator(
             name = "log_event_sequence",
             sequenceName = "log_event_sequence",
-            allocationSize = 5
+            allocationSize = ID_ALLOCATION_SIZE
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -93,18 +100,30 @@ public class LogEvent implements Serializable {
 
     /**
      * The state of the entity before the action was performed.
+     * Null when the state is stored compressed, read it with LogPayloadCodec.jsonBefore.
      */
     @Column(name = "json_Before")
-    @NotNull
     private String jsonBefore;
 
     /**
      * The state of the entity after the action was performed.
+     * Null when the state is stored compressed, read it with LogPayloadCodec.jsonAfter.
      */
     @Column(name = "json_After")
-    @NotNull
     private String jsonAfter;
 
+    /**
+     * The state of the entity before the action was performed, GZIP compressed.
+     */
+    @Column(name = "json_Before_gz", columnDefinition = "varbinary(max)")
+    private byte[] jsonBeforeCompressed;
+
+    /**
+     * The state of the entity after the action was performed, GZIP compressed.
+     */
+    @Column(name = "json_After_gz", columnDefinition = "varbinary(max)")
+    private byte[] jsonAfterCompressed;
+
     public LogEvent(Action actionId,
                     AppModule moduleId,
                     AppEntity entityId,
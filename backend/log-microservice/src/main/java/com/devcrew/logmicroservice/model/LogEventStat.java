@@ -0,0 +1,44 @@
+package com.devcrew.logmicroservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * This class represents the LogEventStat entity, the number of log events per hour, module, action, entity and user.
+ * The counts are incremented as the log events are saved, so statistics are read without scanning LOG_EVENT.
+ * They count the log events received, deleting log events doesn't change them.
+ */
+@Entity
+@Table (
+        name = "LOG_EVENT_STAT",
+        schema = "dbo",
+        // Serves the time range of every statistics query
+        indexes = @Index(name = "ix_log_event_stat_bucket", columnList = "bucket")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogEventStat implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The hour, module, action, entity and user of the counted log events.
+     */
+    @EmbeddedId
+    private LogEventStatId id;
+
+    /**
+     * The number of log events.
+     */
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+}
@@ -0,0 +1,54 @@
+package com.devcrew.logmicroservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Key of the LogEventStat entity: the hour and the module, action, entity and user the log events are counted for.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogEventStatId implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Start of the hour the log events were created in.
+     */
+    @Column(name = "bucket")
+    private LocalDateTime bucket;
+
+    /**
+     * Id of the module that was affected.
+     */
+    @Column(name = "module_id")
+    private Integer moduleId;
+
+    /**
+     * Id of the action that was performed.
+     */
+    @Column(name = "action_id")
+    private Integer actionId;
+
+    /**
+     * Id of the entity that was affected.
+     */
+    @Column(name = "entity_id")
+    private Integer entityId;
+
+    /**
+     * Id of the user that performed the action.
+     */
+    @Column(name = "user_id")
+    private Integer userId;
+}
@@ -0,0 +1,33 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for writing LogEvent rows in bulk.
+ * It bypasses the entity manager so a whole batch of logs costs a single JDBC round trip.
+ */
+public interface LogEventBatchRepository {
+
+    /**
+     * Insert the given log events using a single JDBC batch statement.
+     * The action, module, entity and user of every log event must already have their IDs resolved.
+     * The IDs of the log events are allocated with one query before the insert and set on the given log events.
+     *
+     * @param logEvents the log events to insert
+     * @return the number of rows affected by each statement of the batch
+     */
+    int[] batchInsert(List<LogEvent> logEvents);
+
+    /**
+     * Compress the payloads of the oldest log events still stored as text, after the given ID.
+     * The scan seeks past the log events already converted by the previous calls,
+     * so a full migration reads every row of the table once.
+     *
+     * @param afterId the last ID returned by the previous call, 0 for the first one
+     * @param batchSize the maximum number of log events compressed by this call
+     * @return the IDs of the log events compressed, in ascending order, empty once every payload is compressed
+     */
+    List<Integer> compressPayloads(int afterId, int batchSize);
+}
@@ -0,0 +1,145 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.mapper.LogPayloadCodec;
+import com.devcrew.logmicroservice.model.LogEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC implementation of the LogEventBatchRepository fragment.
+ * IDs are taken straight from the log_event_sequence, so they never collide with the ones allocated by Hibernate.
+ * Like Hibernate's pooled optimizer, every sequence value reserves the block of IDs ending with it,
+ * and the IDs are handed out in ascending order, following the order of the log events.
+ * They are fetched before the insert, so the inserted log events can be indexed and published with their IDs.
+ */
+public class LogEventBatchRepositoryImpl implements LogEventBatchRepository {
+
+    private static final String INSERT_LOG_EVENT = """
+            INSERT INTO dbo.LOG_EVENT (id, action_id, module_id, entity_id, user_id, creation_date, description,
+                                       json_before, json_after, json_before_gz, json_after_gz)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // One sequence value, so one block of IDs, per row of the VALUES list
+    private static final String SELECT_NEXT_VALUES = """
+            SELECT NEXT VALUE FOR dbo.log_event_sequence
+            FROM (VALUES %s) AS ids (n)
+            """;
+
+    /**
+     * Maximum number of sequence values fetched per query
+     */
+    private static final int MAX_VALUES_PER_QUERY = 1000;
+
+    private static final String SELECT_TEXT_PAYLOADS = """
+            SELECT TOP (?) id, json_before, json_after
+            FROM dbo.LOG_EVENT
+            WHERE id > ? AND (json_before IS NOT NULL OR json_after IS NOT NULL)
+            ORDER BY id
+            """;
+
+    private static final String UPDATE_COMPRESSED_PAYLOADS = """
+            UPDATE dbo.LOG_EVENT
+            SET json_before = NULL, json_after = NULL, json_before_gz = ?, json_after_gz = ?
+            WHERE id = ?
+            """;
+
+    /**
+     * JdbcTemplate bound to the current JPA transaction.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for LogEventBatchRepositoryImpl.
+     * @param jdbcTemplate JdbcTemplate used to run the batch insert
+     */
+    @Autowired
+    public LogEventBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] batchInsert(List<LogEvent> logEvents) {
+        allocateIds(logEvents);
+        return jdbcTemplate.batchUpdate(INSERT_LOG_EVENT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LogEvent logEvent = logEvents.get(i);
+                ps.setInt(1, logEvent.getId());
+                ps.setInt(2, logEvent.getActionId().getId());
+                ps.setInt(3, logEvent.getModuleId().getId());
+                ps.setInt(4, logEvent.getEntityId().getId());
+                ps.setInt(5, logEvent.getUserId().getId());
+                ps.setTimestamp(6, Timestamp.valueOf(logEvent.getCreationDate()));
+                ps.setString(7, logEvent.getDescription());
+                ps.setString(8, logEvent.getJsonBefore());
+                ps.setString(9, logEvent.getJsonAfter());
+                ps.setBytes(10, logEvent.getJsonBeforeCompressed());
+                ps.setBytes(11, logEvent.getJsonAfterCompressed());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return logEvents.size();
+            }
+        });
+    }
+
+    @Override
+    public List<Integer> compressPayloads(int afterId, int batchSize) {
+        List<LogEvent> logEvents = jdbcTemplate.query(SELECT_TEXT_PAYLOADS, (rs, rowNum) -> {
+            LogEvent logEvent = new LogEvent();
+            logEvent.setId(rs.getInt("id"));
+            logEvent.setJsonBefore(rs.getString("json_before"));
+            logEvent.setJsonAfter(rs.getString("json_after"));
+            return LogPayloadCodec.compress(logEvent);
+        }, batchSize, afterId);
+        if (logEvents.isEmpty()) {
+            return List.of();
+        }
+        jdbcTemplate.batchUpdate(UPDATE_COMPRESSED_PAYLOADS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LogEvent logEvent = logEvents.get(i);
+                ps.setBytes(1, logEvent.getJsonBeforeCompressed());
+                ps.setBytes(2, logEvent.getJsonAfterCompressed());
+                ps.setInt(3, logEvent.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return logEvents.size();
+            }
+        });
+        return logEvents.stream().map(LogEvent::getId).toList();
+    }
+
+    private void allocateIds(List<LogEvent> logEvents) {
+        List<Integer> ids = new ArrayList<>(logEvents.size() + LogEvent.ID_ALLOCATION_SIZE);
+        while (ids.size() < logEvents.size()) {
+            int missing = logEvents.size() - ids.size();
+            int count = Math.min(MAX_VALUES_PER_QUERY, (missing + LogEvent.ID_ALLOCATION_SIZE - 1) / LogEvent.ID_ALLOCATION_SIZE);
+            String rows = String.join(", ", Collections.nCopies(count, "(0)"));
+            List<Integer> values = new ArrayList<>(jdbcTemplate.queryForList(SELECT_NEXT_VALUES.formatted(rows), Integer.class));
+            // The rows of the VALUES list get their sequence values in no particular order
+            Collections.sort(values);
+            for (int value : values) {
+                // The first value of a new sequence has no block below it
+                for (int id = Math.max(1, value - LogEvent.ID_ALLOCATION_SIZE + 1); id <= value; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        for (int i = 0; i < logEvents.size(); i++) {
+            logEvents.get(i).setId(ids.get(i));
+        }
+    }
+}
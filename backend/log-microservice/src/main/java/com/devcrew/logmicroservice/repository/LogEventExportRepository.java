@@ -0,0 +1,23 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Custom repository fragment for reading LogEvent rows as a forward-only stream.
+ */
+public interface LogEventExportRepository {
+
+    /**
+     * Stream every log event matching the specification, oldest first.
+     * Rows are fetched from the database in chunks and detached once read, so memory use stays flat.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @param specification the filter to apply
+     * @param fetchSize the number of rows fetched per round trip
+     * @return the matching log events
+     */
+    Stream<LogEvent> streamAll(Specification<LogEvent> specification, int fetchSize);
+}
@@ -0,0 +1,42 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * JPA implementation of the LogEventExportRepository fragment.
+ */
+public class LogEventExportRepositoryImpl implements LogEventExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<LogEvent> streamAll(Specification<LogEvent> specification, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LogEvent> query = cb.createQuery(LogEvent.class);
+        Root<LogEvent> root = query.from(LogEvent.class);
+        // Fetch the associations in the same query instead of one extra select per row
+        root.fetch("actionId");
+        root.fetch("moduleId");
+        root.fetch("entityId");
+        root.fetch("userId");
+        query.select(root)
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("creationDate")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+}
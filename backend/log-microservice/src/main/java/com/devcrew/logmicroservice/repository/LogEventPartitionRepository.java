@@ -0,0 +1,133 @@
+package com.devcrew.logmicroservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Repository managing the partitions of the LOG_EVENT table on SQL Server.
+ * The table is partitioned by range of creation_date with the partition function pf_log_event and the scheme ps_log_event,
+ * RANGE RIGHT, so the partition ending at a boundary holds the rows created strictly before it.
+ * The primary key and the creation date index are aligned on the scheme, which lets whole partitions be truncated.
+ */
+@Repository
+public class LogEventPartitionRepository {
+
+    private static final String PARTITION_FUNCTION = "pf_log_event";
+
+    private static final String PARTITION_SCHEME = "ps_log_event";
+
+    private static final DateTimeFormatter BOUNDARY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final String SELECT_PARTITIONED = """
+            SELECT COUNT(*)
+            FROM sys.indexes i
+            JOIN sys.partition_schemes ps ON ps.data_space_id = i.data_space_id
+            WHERE i.object_id = OBJECT_ID('dbo.LOG_EVENT') AND i.index_id = 1
+            """;
+
+    private static final String SELECT_PRIMARY_KEY = """
+            SELECT name FROM sys.key_constraints
+            WHERE parent_object_id = OBJECT_ID('dbo.LOG_EVENT') AND type = 'PK'
+            """;
+
+    private static final String SELECT_BOUNDARIES = """
+            SELECT CAST(prv.value AS datetime2) AS boundary
+            FROM sys.partition_range_values prv
+            JOIN sys.partition_functions pf ON pf.function_id = prv.function_id
+            WHERE pf.name = '%s'
+            ORDER BY prv.boundary_id
+            """.formatted(PARTITION_FUNCTION);
+
+    /**
+     * JdbcTemplate running the DDL statements.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for LogEventPartitionRepository.
+     * @param jdbcTemplate JdbcTemplate running the DDL statements
+     */
+    @Autowired
+    public LogEventPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Check whether the LOG_EVENT table is stored on the partition scheme.
+     * @return true if the clustered index of the table is partitioned
+     */
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(SELECT_PARTITIONED, Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Create the partition function and scheme, then rebuild the LOG_EVENT table on them.
+     * The primary key becomes (id, creation_date), as every unique index of a partitioned table must contain the partition column.
+     * IDs are still unique, they all come from log_event_sequence.
+     * @param boundaries the first boundaries of the partitions, in ascending order
+     */
+    public void partition(List<LocalDateTime> boundaries) {
+        String values = String.join(", ", boundaries.stream().map(LogEventPartitionRepository::literal).toList());
+        String primaryKey = jdbcTemplate.queryForObject(SELECT_PRIMARY_KEY, String.class);
+
+        jdbcTemplate.execute("IF NOT EXISTS (SELECT 1 FROM sys.partition_functions WHERE name = '" + PARTITION_FUNCTION + "') "
+                + "CREATE PARTITION FUNCTION " + PARTITION_FUNCTION + " (datetime2(6)) AS RANGE RIGHT FOR VALUES (" + values + ")");
+        jdbcTemplate.execute("IF NOT EXISTS (SELECT 1 FROM sys.partition_schemes WHERE name = '" + PARTITION_SCHEME + "') "
+                + "CREATE PARTITION SCHEME " + PARTITION_SCHEME + " AS PARTITION " + PARTITION_FUNCTION + " ALL TO ([PRIMARY])");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS ix_log_event_creation_date_id ON dbo.LOG_EVENT");
+        jdbcTemplate.execute("ALTER TABLE dbo.LOG_EVENT DROP CONSTRAINT [" + primaryKey + "]");
+        jdbcTemplate.execute("ALTER TABLE dbo.LOG_EVENT ALTER COLUMN creation_date datetime2(6) NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE dbo.LOG_EVENT ADD CONSTRAINT pk_log_event PRIMARY KEY CLUSTERED (id, creation_date) "
+                + "ON " + PARTITION_SCHEME + " (creation_date)");
+        jdbcTemplate.execute("CREATE INDEX ix_log_event_creation_date_id ON dbo.LOG_EVENT (creation_date, id) "
+                + "ON " + PARTITION_SCHEME + " (creation_date)");
+    }
+
+    /**
+     * Get the boundaries of the partitions.
+     * @return the boundaries in ascending order, empty if the partition function doesn't exist
+     */
+    public List<LocalDateTime> boundaries() {
+        return jdbcTemplate.query(SELECT_BOUNDARIES, (rs, rowNum) -> rs.getTimestamp("boundary").toLocalDateTime());
+    }
+
+    /**
+     * Add a boundary after the last one, so rows created from it on land in a new, empty partition.
+     * @param boundary the new boundary
+     */
+    public void addBoundary(LocalDateTime boundary) {
+        jdbcTemplate.execute("ALTER PARTITION SCHEME " + PARTITION_SCHEME + " NEXT USED [PRIMARY]");
+        jdbcTemplate.execute("ALTER PARTITION FUNCTION " + PARTITION_FUNCTION + "() SPLIT RANGE (" + literal(boundary) + ")");
+    }
+
+    /**
+     * Empty the partitions holding only rows created before the given boundary, then merge them into the first one.
+     * Truncating a partition deallocates its pages instead of deleting its rows one by one.
+     * The last expired boundary is kept, so every merge joins two empty partitions and moves no row.
+     * @param boundary the rows created before this date are deleted, if they fill whole partitions
+     * @return the number of partitions truncated
+     */
+    public int dropPartitionsBefore(LocalDateTime boundary) {
+        List<LocalDateTime> expired = boundaries().stream().filter(b -> !b.isAfter(boundary)).toList();
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        // Partition n holds the rows created before the n-th boundary
+        jdbcTemplate.execute("TRUNCATE TABLE dbo.LOG_EVENT WITH (PARTITIONS (1 TO " + expired.size() + "))");
+        for (LocalDateTime expiredBoundary : expired.subList(0, expired.size() - 1)) {
+            jdbcTemplate.execute("ALTER PARTITION FUNCTION " + PARTITION_FUNCTION + "() MERGE RANGE (" + literal(expiredBoundary) + ")");
+        }
+        return expired.size();
+    }
+
+    // Boundaries are generated by the service, never taken from a request
+    private static String literal(LocalDateTime boundary) {
+        return "'" + boundary.format(BOUNDARY_FORMAT) + "'";
+    }
+}
@@ -0,0 +1,75 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.model.LogEventStatId;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Custom repository fragment for deleting LogEvent rows with set-based statements.
+ * Rows are never loaded as entities, so the cost of a purge doesn't depend on the persistence context.
+ */
+public interface LogEventPurgeRepository {
+
+    /**
+     * Maximum number of IDs deleteByIds accepts, under the 2100 parameters SQL Server allows per statement.
+     */
+    int MAX_IDS_PER_DELETE = 2000;
+
+    /**
+     * Delete every log event with a single TRUNCATE statement.
+     */
+    void truncate();
+
+    /**
+     * Delete a log event without loading it first.
+     *
+     * @param id the id of the log event
+     * @return the number of log events deleted, 0 if it doesn't exist
+     */
+    int deleteLogById(Integer id);
+
+    /**
+     * Delete the log events with the given IDs with a single statement.
+     * The list is sent as one parameter per ID, so it can't hold more than MAX_IDS_PER_DELETE of them.
+     *
+     * @param ids the IDs of the log events
+     * @return the number of log events deleted
+     * @throws IllegalArgumentException if there are more than MAX_IDS_PER_DELETE IDs
+     */
+    int deleteByIds(List<Integer> ids);
+
+    /**
+     * Find the statistics keys of the log events with the given IDs, one per log event still present.
+     * Read before deleting the log events, so the statistics can be decremented in the same transaction.
+     * The list is sent as one parameter per ID, so it can't hold more than MAX_IDS_PER_DELETE of them.
+     *
+     * @param ids the IDs of the log events
+     * @return the hour, module, action, entity and user of each log event found
+     * @throws IllegalArgumentException if there are more than MAX_IDS_PER_DELETE IDs
+     */
+    List<LogEventStatId> findStatIds(List<Integer> ids);
+
+    /**
+     * Delete the oldest log events created before the given date, at most batchSize of them.
+     * Bounded batches keep the locks and the transaction log of each statement small.
+     *
+     * @param before the log events created before this date are deleted
+     * @param batchSize the maximum number of log events deleted by this call
+     * @return the number of log events deleted, less than batchSize once none is left
+     */
+    int deleteCreatedBefore(LocalDateTime before, int batchSize);
+
+    /**
+     * Find the IDs of the next log events matching the specification, in ascending order.
+     * Only the IDs are read, so a bulk delete never loads the log events it removes.
+     *
+     * @param specification the log events to find
+     * @param afterId only the IDs greater than this one are returned, null to start from the first log event
+     * @param limit the maximum number of IDs returned
+     * @return the IDs found, in ascending order
+     */
+    List<Integer> findIdsAfter(Specification<LogEvent> specification, Integer afterId, int limit);
+}
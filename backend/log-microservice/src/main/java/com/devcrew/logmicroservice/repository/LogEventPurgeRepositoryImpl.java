@@ -0,0 +1,120 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.model.LogEventStatId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC and JPA implementation of the LogEventPurgeRepository fragment.
+ */
+public class LogEventPurgeRepositoryImpl implements LogEventPurgeRepository {
+
+    private static final String TRUNCATE_LOG_EVENT = "TRUNCATE TABLE dbo.LOG_EVENT";
+
+    private static final String DELETE_BY_ID = "DELETE FROM dbo.LOG_EVENT WHERE id = ?";
+
+    private static final String DELETE_BY_IDS = "DELETE FROM dbo.LOG_EVENT WHERE id IN (%s)";
+
+    private static final String SELECT_STAT_IDS = """
+            SELECT creation_date, module_id, action_id, entity_id, user_id
+            FROM dbo.LOG_EVENT WHERE id IN (%s)
+            """;
+
+    // Served by ix_log_event_creation_date_id, oldest rows go first
+    private static final String DELETE_CREATED_BEFORE = """
+            DELETE TOP (?) FROM dbo.LOG_EVENT
+            WHERE creation_date < ?
+            """;
+
+    /**
+     * JdbcTemplate bound to the current JPA transaction.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor for LogEventPurgeRepositoryImpl.
+     * @param jdbcTemplate JdbcTemplate used to run the deletes
+     */
+    @Autowired
+    public LogEventPurgeRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void truncate() {
+        jdbcTemplate.execute(TRUNCATE_LOG_EVENT);
+    }
+
+    @Override
+    public int deleteLogById(Integer id) {
+        return jdbcTemplate.update(DELETE_BY_ID, id);
+    }
+
+    @Override
+    public int deleteByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_BY_IDS.formatted(placeholders(ids)), ids.toArray());
+    }
+
+    @Override
+    public List<LogEventStatId> findStatIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_STAT_IDS.formatted(placeholders(ids)), (rs, rowNum) -> new LogEventStatId(
+                rs.getTimestamp("creation_date").toLocalDateTime().truncatedTo(ChronoUnit.HOURS),
+                rs.getInt("module_id"),
+                rs.getInt("action_id"),
+                rs.getInt("entity_id"),
+                rs.getInt("user_id")
+        ), ids.toArray());
+    }
+
+    @Override
+    public int deleteCreatedBefore(LocalDateTime before, int batchSize) {
+        return jdbcTemplate.update(DELETE_CREATED_BEFORE, batchSize, Timestamp.valueOf(before));
+    }
+
+    @Override
+    public List<Integer> findIdsAfter(Specification<LogEvent> specification, Integer afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<LogEvent> root = query.from(LogEvent.class);
+        Path<Integer> id = root.get("id");
+        Specification<LogEvent> ids = afterId == null ? specification
+                : specification.and((r, q, b) -> b.greaterThan(r.get("id"), afterId));
+        query.select(id)
+                .where(ids.toPredicate(root, query, cb))
+                .orderBy(cb.asc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String placeholders(List<Integer> ids) {
+        if (ids.size() > MAX_IDS_PER_DELETE) {
+            throw new IllegalArgumentException("At most " + MAX_IDS_PER_DELETE + " logs can be deleted per statement");
+        }
+        return String.join(", ", Collections.nCopies(ids.size(), "?"));
+    }
+}
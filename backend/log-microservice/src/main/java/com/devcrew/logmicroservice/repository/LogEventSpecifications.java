@@ -0,0 +1,136 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.dto.*;
+import com.devcrew.logmicroservice.model.LogEvent;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications used to filter LogEvent rows in the database.
+ * Every attribute of the filter that is not null becomes a predicate of the WHERE clause.
+ */
+public final class LogEventSpecifications {
+
+    private LogEventSpecifications() {
+    }
+
+    /**
+     * Build a specification from a LogEventFilter.
+     * The date range is exclusive on both ends, and either end can be left open.
+     *
+     * @param filter the filter sent by the client
+     * @return the specification matching every non-null attribute of the filter
+     */
+    public static Specification<LogEvent> fromFilter(LogEventFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter == null) {
+                return cb.and();
+            }
+            if (filter.getId() != null) {
+                predicates.add(cb.equal(root.get("id"), filter.getId()));
+            }
+            ActionDTO action = filter.getAction();
+            if (action != null) {
+                addEquals(predicates, cb, root.get("actionId").get("id"), action.getIdentifier());
+                addEquals(predicates, cb, root.get("actionId").get("name"), action.getName_action());
+            }
+            AppModuleDTO module = filter.getModule();
+            if (module != null) {
+                addEquals(predicates, cb, root.get("moduleId").get("id"), module.getIdentifier());
+                addEquals(predicates, cb, root.get("moduleId").get("name"), module.getName_module());
+            }
+            AppEntityDTO entity = filter.getEntity();
+            if (entity != null) {
+                addEquals(predicates, cb, root.get("entityId").get("id"), entity.getIdentifier());
+                addEquals(predicates, cb, root.get("entityId").get("name"), entity.getName_entity());
+            }
+            LogUserDTO user = filter.getUserId();
+            if (user != null) {
+                addEquals(predicates, cb, root.get("userId").get("id"), user.getId());
+                addEquals(predicates, cb, root.get("userId").get("username"), user.getUsername());
+                addEquals(predicates, cb, root.get("userId").get("email"), user.getEmail());
+            }
+            if (filter.getStartDate() != null) {
+                predicates.add(cb.greaterThan(root.get("creationDate"), LocalDateTime.parse(filter.getStartDate())));
+            }
+            if (filter.getEndDate() != null) {
+                predicates.add(cb.lessThan(root.get("creationDate"), LocalDateTime.parse(filter.getEndDate())));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Check if a filter would build a specification without any predicate, matching every log.
+     * Nested objects without any attribute set, like {"action":{}}, don't add a predicate either.
+     *
+     * @param filter the filter sent by the client
+     * @return true if fromFilter would not restrict the logs
+     */
+    public static boolean isEmpty(LogEventFilter filter) {
+        if (filter == null) {
+            return true;
+        }
+        ActionDTO action = filter.getAction();
+        AppModuleDTO module = filter.getModule();
+        AppEntityDTO entity = filter.getEntity();
+        LogUserDTO user = filter.getUserId();
+        return filter.getId() == null
+                && (action == null || allNull(action.getIdentifier(), action.getName_action()))
+                && (module == null || allNull(module.getIdentifier(), module.getName_module()))
+                && (entity == null || allNull(entity.getIdentifier(), entity.getName_entity()))
+                && (user == null || allNull(user.getId(), user.getUsername(), user.getEmail()))
+                && filter.getStartDate() == null
+                && filter.getEndDate() == null;
+    }
+
+    /**
+     * Build the keyset predicate that seeks past the given cursor in the (creation_date, id) order.
+     *
+     * @param cursor the position of the last log of the previous page
+     * @param direction the sort direction of the pages
+     * @return the specification matching every log after the cursor
+     */
+    public static Specification<LogEvent> after(LogEventCursor cursor, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> creationDate = root.get("creationDate");
+            Path<Integer> id = root.get("id");
+            if (direction.isAscending()) {
+                return cb.or(
+                        cb.greaterThan(creationDate, cursor.getCreationDate()),
+                        cb.and(cb.equal(creationDate, cursor.getCreationDate()), cb.greaterThan(id, cursor.getId()))
+                );
+            }
+            return cb.or(
+                    cb.lessThan(creationDate, cursor.getCreationDate()),
+                    cb.and(cb.equal(creationDate, cursor.getCreationDate()), cb.lessThan(id, cursor.getId()))
+            );
+        };
+    }
+
+    private static void addEquals(List<Predicate> predicates,
+                                  CriteriaBuilder cb,
+                                  Path<Object> path,
+                                  Object value) {
+        if (value != null) {
+            predicates.add(cb.equal(path, value));
+        }
+    }
+
+    private static boolean allNull(Object... values) {
+        for (Object value : values) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogEventStatId;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Custom repository fragment for maintaining the LogEventStat counts in bulk.
+ */
+public interface LogEventStatBatchRepository {
+
+    /**
+     * Add the given counts to the statistics, creating the rows that don't exist yet, using a single JDBC batch statement.
+     * Keys are upserted in the order of the map, callers should sort them so concurrent batches lock rows in the same order.
+     *
+     * @param counts the number of new log events per key
+     * @return the number of rows affected by each statement of the batch
+     */
+    int[] batchIncrement(Map<LogEventStatId, Long> counts);
+
+    /**
+     * Subtract the given counts from the statistics, deleting the rows that drop to zero, using JDBC batch statements.
+     * Keys are updated in the order of the map, callers should sort them so concurrent batches lock rows in the same order.
+     *
+     * @param counts the number of deleted log events per key
+     */
+    void batchDecrement(Map<LogEventStatId, Long> counts);
+
+    /**
+     * Delete every statistic with a single TRUNCATE statement.
+     */
+    void truncate();
+
+    /**
+     * Delete the statistics of the hours before the given date.
+     *
+     * @param before the statistics of the hours starting before this date are deleted
+     * @return the number of rows deleted
+     */
+    int deleteBucketsBefore(LocalDateTime before);
+}
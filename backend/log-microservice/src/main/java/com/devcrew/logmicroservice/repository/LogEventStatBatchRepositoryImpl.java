@@ -0,0 +1,107 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogEventStatId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * JDBC implementation of the LogEventStatBatchRepository fragment.
+ */
+public class LogEventStatBatchRepositoryImpl implements LogEventStatBatchRepository {
+
+    // %s is the HOLDLOCK hint on SQL Server, which keeps two batches from inserting the same new key at once
+    private static final String MERGE_LOG_EVENT_STAT = """
+            MERGE INTO dbo.LOG_EVENT_STAT %s AS target
+            USING (VALUES (?, ?, ?, ?, ?, ?)) AS source (bucket, module_id, action_id, entity_id, user_id, event_count)
+            ON target.bucket = source.bucket AND target.module_id = source.module_id AND target.action_id = source.action_id
+                AND target.entity_id = source.entity_id AND target.user_id = source.user_id
+            WHEN MATCHED THEN UPDATE SET event_count = target.event_count + source.event_count
+            WHEN NOT MATCHED THEN INSERT (bucket, module_id, action_id, entity_id, user_id, event_count)
+                VALUES (source.bucket, source.module_id, source.action_id, source.entity_id, source.user_id, source.event_count);
+            """;
+
+    private static final String DECREMENT_LOG_EVENT_STAT = """
+            UPDATE dbo.LOG_EVENT_STAT SET event_count = event_count - ?
+            WHERE bucket = ? AND module_id = ? AND action_id = ? AND entity_id = ? AND user_id = ?
+            """;
+
+    private static final String DELETE_EMPTY_LOG_EVENT_STAT = """
+            DELETE FROM dbo.LOG_EVENT_STAT
+            WHERE bucket = ? AND module_id = ? AND action_id = ? AND entity_id = ? AND user_id = ? AND event_count <= 0
+            """;
+
+    private static final String TRUNCATE_LOG_EVENT_STAT = "TRUNCATE TABLE dbo.LOG_EVENT_STAT";
+
+    private static final String DELETE_BUCKETS_BEFORE = "DELETE FROM dbo.LOG_EVENT_STAT WHERE bucket < ?";
+
+    /**
+     * JdbcTemplate bound to the current JPA transaction.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The upsert statement, with the lock hint when the database supports it.
+     */
+    private volatile String mergeStatement;
+
+    /**
+     * Constructor for LogEventStatBatchRepositoryImpl.
+     * @param jdbcTemplate JdbcTemplate used to run the upsert
+     */
+    @Autowired
+    public LogEventStatBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] batchIncrement(Map<LogEventStatId, Long> counts) {
+        int[][] rows = jdbcTemplate.batchUpdate(mergeStatement(), counts.entrySet(), counts.size(), (ps, count) -> {
+            setKey(ps, 1, count.getKey());
+            ps.setLong(6, count.getValue());
+        });
+        return rows.length == 0 ? new int[0] : rows[0];
+    }
+
+    @Override
+    public void batchDecrement(Map<LogEventStatId, Long> counts) {
+        jdbcTemplate.batchUpdate(DECREMENT_LOG_EVENT_STAT, counts.entrySet(), counts.size(), (ps, count) -> {
+            ps.setLong(1, count.getValue());
+            setKey(ps, 2, count.getKey());
+        });
+        jdbcTemplate.batchUpdate(DELETE_EMPTY_LOG_EVENT_STAT, counts.keySet(), counts.size(), (ps, key) -> setKey(ps, 1, key));
+    }
+
+    @Override
+    public void truncate() {
+        jdbcTemplate.execute(TRUNCATE_LOG_EVENT_STAT);
+    }
+
+    private static void setKey(PreparedStatement ps, int first, LogEventStatId key) throws SQLException {
+        ps.setTimestamp(first, Timestamp.valueOf(key.getBucket()));
+        ps.setInt(first + 1, key.getModuleId());
+        ps.setInt(first + 2, key.getActionId());
+        ps.setInt(first + 3, key.getEntityId());
+        ps.setInt(first + 4, key.getUserId());
+    }
+
+    private String mergeStatement() {
+        if (mergeStatement == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            boolean sqlServer = product != null && product.contains("SQL Server");
+            mergeStatement = MERGE_LOG_EVENT_STAT.formatted(sqlServer ? "WITH (HOLDLOCK)" : "");
+        }
+        return mergeStatement;
+    }
+
+    @Override
+    public int deleteBucketsBefore(LocalDateTime before) {
+        return jdbcTemplate.update(DELETE_BUCKETS_BEFORE, Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,119 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.dto.LogStatsBucket;
+import com.devcrew.logmicroservice.dto.LogStatsTopItem;
+import com.devcrew.logmicroservice.model.LogEventStat;
+import com.devcrew.logmicroservice.model.LogEventStatId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the LogEventStat entity.
+ * Every query reads the hourly rollups of a time range, never LOG_EVENT.
+ */
+@Repository
+public interface LogEventStatRepository extends JpaRepository<LogEventStat, LogEventStatId>, LogEventStatBatchRepository {
+
+    /**
+     * Count the log events per hour, optionally for a single module, action, entity or user.
+     *
+     * @param from the first hour counted
+     * @param to the end of the range, excluded
+     * @param moduleId the module counted, null for every module
+     * @param actionId the action counted, null for every action
+     * @param entityId the entity counted, null for every entity
+     * @param userId the user counted, null for every user
+     * @return the number of log events of every hour that has some, in ascending order
+     */
+    @Query("""
+            SELECT new com.devcrew.logmicroservice.dto.LogStatsBucket(s.id.bucket, SUM(s.eventCount))
+            FROM LogEventStat s
+            WHERE s.id.bucket >= :from AND s.id.bucket < :to
+            AND (:moduleId IS NULL OR s.id.moduleId = :moduleId)
+            AND (:actionId IS NULL OR s.id.actionId = :actionId)
+            AND (:entityId IS NULL OR s.id.entityId = :entityId)
+            AND (:userId IS NULL OR s.id.userId = :userId)
+            GROUP BY s.id.bucket
+            ORDER BY s.id.bucket
+            """)
+    List<LogStatsBucket> countPerHour(@Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("moduleId") Integer moduleId,
+                                      @Param("actionId") Integer actionId,
+                                      @Param("entityId") Integer entityId,
+                                      @Param("userId") Integer userId);
+
+    /**
+     * Find the users with the most log events in a time range.
+     *
+     * @param from the first hour counted
+     * @param to the end of the range, excluded
+     * @param limit the maximum number of users returned
+     * @return the users and their number of log events, most active first
+     */
+    @Query("""
+            SELECT new com.devcrew.logmicroservice.dto.LogStatsTopItem(u.id, u.username, SUM(s.eventCount))
+            FROM LogEventStat s JOIN LogUser u ON u.id = s.id.userId
+            WHERE s.id.bucket >= :from AND s.id.bucket < :to
+            GROUP BY u.id, u.username
+            ORDER BY SUM(s.eventCount) DESC
+            """)
+    List<LogStatsTopItem> topUsers(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    /**
+     * Find the modules with the most log events in a time range.
+     *
+     * @param from the first hour counted
+     * @param to the end of the range, excluded
+     * @param limit the maximum number of modules returned
+     * @return the modules and their number of log events, most active first
+     */
+    @Query("""
+            SELECT new com.devcrew.logmicroservice.dto.LogStatsTopItem(m.id, m.name, SUM(s.eventCount))
+            FROM LogEventStat s JOIN AppModule m ON m.id = s.id.moduleId
+            WHERE s.id.bucket >= :from AND s.id.bucket < :to
+            GROUP BY m.id, m.name
+            ORDER BY SUM(s.eventCount) DESC
+            """)
+    List<LogStatsTopItem> topModules(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    /**
+     * Find the actions with the most log events in a time range.
+     *
+     * @param from the first hour counted
+     * @param to the end of the range, excluded
+     * @param limit the maximum number of actions returned
+     * @return the actions and their number of log events, most frequent first
+     */
+    @Query("""
+            SELECT new com.devcrew.logmicroservice.dto.LogStatsTopItem(a.id, a.name, SUM(s.eventCount))
+            FROM LogEventStat s JOIN Action a ON a.id = s.id.actionId
+            WHERE s.id.bucket >= :from AND s.id.bucket < :to
+            GROUP BY a.id, a.name
+            ORDER BY SUM(s.eventCount) DESC
+            """)
+    List<LogStatsTopItem> topActions(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    /**
+     * Find the entities with the most log events in a time range.
+     *
+     * @param from the first hour counted
+     * @param to the end of the range, excluded
+     * @param limit the maximum number of entities returned
+     * @return the entities and their number of log events, most affected first
+     */
+    @Query("""
+            SELECT new com.devcrew.logmicroservice.dto.LogStatsTopItem(e.id, e.name, SUM(s.eventCount))
+            FROM LogEventStat s JOIN AppEntity e ON e.id = s.id.entityId
+            WHERE s.id.bucket >= :from AND s.id.bucket < :to
+            GROUP BY e.id, e.name
+            ORDER BY SUM(s.eventCount) DESC
+            """)
+    List<LogStatsTopItem> topEntities(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+}
@@ -0,0 +1,20 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogUser;
+
+import java.util.Collection;
+
+/**
+ * Custom repository fragment for writing LogUser rows in bulk.
+ */
+public interface LogUserBatchRepository {
+
+    /**
+     * Insert or update the given users with a single JDBC batch of MERGE statements.
+     * Unlike save, it doesn't need to read the row first, so it can run right before a log event batch insert.
+     *
+     * @param users the users to upsert
+     * @return the number of rows affected by each statement of the batch
+     */
+    int[] batchUpsert(Collection<LogUser> users);
+}
@@ -0,0 +1,61 @@
+package com.devcrew.logmicroservice.repository;
+
+import com.devcrew.logmicroservice.model.LogUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+
+/**
+ * JDBC implementation of the LogUserBatchRepository fragment.
+ */
+public class LogUserBatchRepositoryImpl implements LogUserBatchRepository {
+
+    // %s is the HOLDLOCK hint on SQL Server, which keeps two consumers from inserting the same new user at once
+    private static final String MERGE_LOG_USER = """
+            MERGE INTO dbo.LOG_USER %s AS target
+            USING (VALUES (?, ?, ?)) AS source (id, username, email)
+            ON target.id = source.id
+            WHEN MATCHED THEN UPDATE SET username = source.username, email = source.email
+            WHEN NOT MATCHED THEN INSERT (id, username, email) VALUES (source.id, source.username, source.email);
+            """;
+
+    /**
+     * JdbcTemplate bound to the current JPA transaction.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The upsert statement, with the lock hint when the database supports it.
+     */
+    private volatile String mergeStatement;
+
+    /**
+     * Constructor for LogUserBatchRepositoryImpl.
+     * @param jdbcTemplate JdbcTemplate used to run the upsert
+     */
+    @Autowired
+    public LogUserBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] batchUpsert(Collection<LogUser> users) {
+        int[][] counts = jdbcTemplate.batchUpdate(mergeStatement(), users, users.size(), (ps, user) -> {
+            ps.setInt(1, user.getId());
+            ps.setString(2, user.getUsername());
+            ps.setString(3, user.getEmail());
+        });
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+
+    private String mergeStatement() {
+        if (mergeStatement == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            boolean sqlServer = product != null && product.contains("SQL Server");
+            mergeStatement = MERGE_LOG_USER.formatted(sqlServer ? "WITH (HOLDLOCK)" : "");
+        }
+        return mergeStatement;
+    }
+}
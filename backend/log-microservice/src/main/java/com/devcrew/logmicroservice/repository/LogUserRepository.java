@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface LogUserRepository extends JpaRepository<LogUser, Integer> {
+public interface LogUserRepository extends JpaRepository<LogUser, Integer>, LogUserBatchRepository {
 
     @Query("SELECT l FROM LogUser l WHERE l.username = :username")
     Optional<LogUser> findByUsername(String username);
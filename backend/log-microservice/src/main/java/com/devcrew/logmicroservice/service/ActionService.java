@@ -23,13 +23,20 @@ public class ActionService {
      */
     private final ActionRepository actionRepository;
 
+    /**
+     * Name to id dictionary used by log ingestion.
+     */
+    private final LogDictionaryService logDictionaryService;
+
     /**
      * Constructor for ActionService.
      * @param actionRepository Repository for actions.
+     * @param logDictionaryService Name to id dictionary used by log ingestion.
      */
     @Autowired
-    public ActionService(ActionRepository actionRepository) {
+    public ActionService(ActionRepository actionRepository, LogDictionaryService logDictionaryService) {
         this.actionRepository = actionRepository;
+        this.logDictionaryService = logDictionaryService;
     }
 
     /**
@@ -62,7 +69,7 @@ public class ActionService {
     @Transactional
     public void addAction(ActionDTO actionDTO) {
         Action action = ActionMapper.toEntity(actionDTO);
-        actionRepository.save(action);
+        logDictionaryService.putAction(actionRepository.save(action));
     }
 
     /**
@@ -76,6 +83,7 @@ public class ActionService {
                 () -> new IllegalArgumentException("Action not found")
         );
         actionRepository.deleteById(id);
+        logDictionaryService.removeAction(id);
     }
 
     /**
@@ -90,6 +98,6 @@ public class ActionService {
                 () -> new IllegalArgumentException("Action with id " + id + " not found")
         );
         action.setName(actionName);
-        actionRepository.save(action);
+        logDictionaryService.putAction(actionRepository.save(action));
     }
 }
@@ -23,13 +23,20 @@ public class AppEntityService {
      */
     private final AppEntityRepository appEntityRepository;
 
+    /**
+     * Name to id dictionary used by log ingestion.
+     */
+    private final LogDictionaryService logDictionaryService;
+
     /**
      * Constructor for AppEntityService.
      * @param appEntityRepository Repository for app entities.
+     * @param logDictionaryService Name to id dictionary used by log ingestion.
      */
     @Autowired
-    public AppEntityService(AppEntityRepository appEntityRepository) {
+    public AppEntityService(AppEntityRepository appEntityRepository, LogDictionaryService logDictionaryService) {
         this.appEntityRepository = appEntityRepository;
+        this.logDictionaryService = logDictionaryService;
     }
 
     /**
@@ -74,7 +81,7 @@ public class AppEntityService {
     @Transactional
     public void saveEntity(AppEntityDTO entity) {
         AppEntity appEntity = AppEntityMapper.toEntity(entity);
-        appEntityRepository.save(appEntity);
+        logDictionaryService.putEntity(appEntityRepository.save(appEntity));
     }
 
     /**
@@ -88,6 +95,7 @@ public class AppEntityService {
                 () -> new IllegalArgumentException("Entity with id " + id + " not found")
         );
         appEntityRepository.deleteById(id);
+        logDictionaryService.removeEntity(id);
     }
 
     /**
@@ -102,6 +110,6 @@ public class AppEntityService {
                 () -> new IllegalArgumentException("Entity with id " + id + " not found")
         );
         entity.setName(entityName);
-        appEntityRepository.save(entity);
+        logDictionaryService.putEntity(appEntityRepository.save(entity));
     }
 }
@@ -23,14 +23,21 @@ public class AppModuleService {
      */
     private final ModuleRepository ModuleRepository;
 
+    /**
+     * Name to id dictionary used by log ingestion.
+     */
+    private final LogDictionaryService logDictionaryService;
+
     /**
      * Constructor.
-     * Initializes Module repository.
+     * Initializes Module repository and the log dictionary.
      * @param ModuleRepository Module repository
+     * @param logDictionaryService Name to id dictionary used by log ingestion
      */
     @Autowired
-    public AppModuleService(ModuleRepository ModuleRepository) {
+    public AppModuleService(ModuleRepository ModuleRepository, LogDictionaryService logDictionaryService) {
         this.ModuleRepository = ModuleRepository;
+        this.logDictionaryService = logDictionaryService;
     }
 
     /**
@@ -63,7 +70,7 @@ public class AppModuleService {
     @Transactional
     public void saveModule(AppModuleDTO module) {
         AppModule Module = AppModuleMapper.toEntity(module);
-        ModuleRepository.save(Module);
+        logDictionaryService.putModule(ModuleRepository.save(Module));
     }
 
     /**
@@ -77,6 +84,7 @@ public class AppModuleService {
                 () -> new IllegalArgumentException("Module with id " + id + " not found")
         );
         ModuleRepository.deleteById(id);
+        logDictionaryService.removeModule(id);
     }
 
     /**
@@ -91,6 +99,6 @@ public class AppModuleService {
                 () -> new IllegalArgumentException("Module with id " + id + " not found")
         );
         Module.setName(moduleName);
-        ModuleRepository.save(Module);
+        logDictionaryService.putModule(ModuleRepository.save(Module));
     }
 }
@@ -0,0 +1,253 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.model.Action;
+import com.devcrew.logmicroservice.model.AppEntity;
+import com.devcrew.logmicroservice.model.AppModule;
+import com.devcrew.logmicroservice.repository.ActionRepository;
+import com.devcrew.logmicroservice.repository.AppEntityRepository;
+import com.devcrew.logmicroservice.repository.ModuleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Service class that keeps an in-memory name to id dictionary of actions, modules and entities.
+ * These tables are tiny and almost static, so log ingestion resolves names here instead of querying the database.
+ * The dictionary is preloaded at startup and kept current by ActionService, AppModuleService and AppEntityService.
+ * Changes made through another instance are picked up by the reload every log.dictionary.refresh.interval ms.
+ */
+@Service
+public class LogDictionaryService {
+
+    /**
+     * Repository for Action entity
+     */
+    private final ActionRepository actionRepository;
+
+    /**
+     * Repository for AppModule entity
+     */
+    private final ModuleRepository moduleRepository;
+
+    /**
+     * Repository for AppEntity entity
+     */
+    private final AppEntityRepository appEntityRepository;
+
+    /**
+     * Action name to action id
+     */
+    private final Dictionary actions = new Dictionary();
+
+    /**
+     * Module name to module id
+     */
+    private final Dictionary modules = new Dictionary();
+
+    /**
+     * Entity name to entity id
+     */
+    private final Dictionary entities = new Dictionary();
+
+    /**
+     * Constructor for LogDictionaryService, initializes repositories
+     * @param actionRepository Repository for Action entity
+     * @param moduleRepository Repository for AppModule entity
+     * @param appEntityRepository Repository for AppEntity entity
+     */
+    @Autowired
+    public LogDictionaryService(ActionRepository actionRepository, ModuleRepository moduleRepository, AppEntityRepository appEntityRepository) {
+        this.actionRepository = actionRepository;
+        this.moduleRepository = moduleRepository;
+        this.appEntityRepository = appEntityRepository;
+    }
+
+    /**
+     * Reloads the three dictionaries from the database.
+     * Each dictionary is swapped at once, so readers never see a half loaded one.
+     */
+    public void refresh() {
+        actions.replaceAll(actionRepository::findAll, Action::getName, Action::getId);
+        modules.replaceAll(moduleRepository::findAll, AppModule::getName, AppModule::getId);
+        entities.replaceAll(appEntityRepository::findAll, AppEntity::getName, AppEntity::getId);
+    }
+
+    /**
+     * Reloads the dictionaries periodically, so a row renamed or deleted by another instance stops resolving.
+     * A failed reload keeps the current dictionaries until the next one.
+     */
+    @Scheduled(fixedDelayString = "${log.dictionary.refresh.interval}", initialDelayString = "${log.dictionary.refresh.interval}")
+    public void refreshPeriodically() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            System.err.println("Could not refresh the log dictionary: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the id of the action with the given name.
+     * @param name Action name
+     * @return Action id
+     */
+    public Integer getActionId(String name) {
+        return actions.resolve(name, () -> actionRepository.findByName(name).map(Action::getId))
+                .orElseThrow(() -> new IllegalArgumentException("Action with name " + name + " not found"));
+    }
+
+    /**
+     * Get the id of the module with the given name.
+     * @param name Module name
+     * @return Module id
+     */
+    public Integer getModuleId(String name) {
+        return modules.resolve(name, () -> moduleRepository.findByName(name).map(AppModule::getId))
+                .orElseThrow(() -> new IllegalArgumentException("Module with name " + name + " not found"));
+    }
+
+    /**
+     * Get the id of the entity with the given name.
+     * @param name Entity name
+     * @return Entity id
+     */
+    public Integer getEntityId(String name) {
+        return entities.resolve(name, () -> appEntityRepository.findByName(name).map(AppEntity::getId))
+                .orElseThrow(() -> new IllegalArgumentException("Entity with name " + name + " not found"));
+    }
+
+    /**
+     * Registers a saved or renamed action once the current transaction commits.
+     * @param action Saved action
+     */
+    public void putAction(Action action) {
+        afterCommit(() -> actions.put(action.getName(), action.getId()));
+    }
+
+    /**
+     * Removes an action once the current transaction commits.
+     * @param id Id of the deleted action
+     */
+    public void removeAction(Integer id) {
+        afterCommit(() -> actions.remove(id));
+    }
+
+    /**
+     * Registers a saved or renamed module once the current transaction commits.
+     * @param module Saved module
+     */
+    public void putModule(AppModule module) {
+        afterCommit(() -> modules.put(module.getName(), module.getId()));
+    }
+
+    /**
+     * Removes a module once the current transaction commits.
+     * @param id Id of the deleted module
+     */
+    public void removeModule(Integer id) {
+        afterCommit(() -> modules.remove(id));
+    }
+
+    /**
+     * Registers a saved or renamed entity once the current transaction commits.
+     * @param entity Saved entity
+     */
+    public void putEntity(AppEntity entity) {
+        afterCommit(() -> entities.put(entity.getName(), entity.getId()));
+    }
+
+    /**
+     * Removes an entity once the current transaction commits.
+     * @param id Id of the deleted entity
+     */
+    public void removeEntity(Integer id) {
+        afterCommit(() -> entities.remove(id));
+    }
+
+    /**
+     * Runs the given change after the current transaction commits, or right away if there is no transaction.
+     * A rolled back change never reaches the dictionary.
+     * @param change Change to apply to a dictionary
+     */
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * Thread safe name to id map.
+     * A renamed row is stored by id first, so every name previously mapped to that id is dropped.
+     * A reload, or a lookup after a miss, is discarded if a change was applied while it ran,
+     * as the rows it read may predate that change.
+     */
+    private static final class Dictionary {
+
+        private volatile Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+        private long changes;
+
+        private <T> void replaceAll(Supplier<List<T>> rows, Function<T, String> name, Function<T, Integer> id) {
+            long changesBefore;
+            synchronized (this) {
+                changesBefore = changes;
+            }
+            Map<String, Integer> loaded = new ConcurrentHashMap<>();
+            rows.get().forEach(row -> loaded.put(name.apply(row), id.apply(row)));
+            synchronized (this) {
+                if (changes == changesBefore) {
+                    ids = loaded;
+                }
+            }
+        }
+
+        private Optional<Integer> resolve(String name, Supplier<Optional<Integer>> loader) {
+            if (name == null) {
+                return Optional.empty();
+            }
+            Integer id = ids.get(name);
+            if (id != null) {
+                return Optional.of(id);
+            }
+            // Cache miss: the row may have been added by another instance or match through the DB collation
+            long changesBefore;
+            synchronized (this) {
+                changesBefore = changes;
+            }
+            Optional<Integer> loaded = loader.get();
+            loaded.ifPresent(value -> {
+                synchronized (this) {
+                    if (changes == changesBefore) {
+                        ids.put(name, value);
+                    }
+                }
+            });
+            return loaded;
+        }
+
+        private synchronized void put(String name, Integer id) {
+            remove(id);
+            ids.put(name, id);
+        }
+
+        private synchronized void remove(Integer id) {
+            changes++;
+            ids.values().removeIf(id::equals);
+        }
+    }
+}
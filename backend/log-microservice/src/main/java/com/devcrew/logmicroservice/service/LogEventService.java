@@ -1,5 +1,7 @@
 package com.devcrew.logmicroservice.service;
 
+import com.devcrew.logmicroservice.dto.CursorLogsResponse;
+import com.devcrew.logmicroservice.dto.LogEventCursor;
 import com.devcrew.logmicroservice.dto.LogEventDTO;
 import com.devcrew.logmicroservice.dto.LogEventFilter;
 import com.devcrew.logmicroservice.dto.LogMessage;
@@ -7,16 +9,29 @@ import com.devcrew.logmicroservice.dto.PaginatedLogsResponse;
 import com.devcrew.logmicroservice.mapper.*;
 import com.devcrew.logmicroservice.model.*;
 import com.devcrew.logmicroservice.repository.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service class for LogEvent entity
@@ -26,50 +41,104 @@ import java.util.stream.Collectors;
 @Service
 public class LogEventService {
 
+    /**
+     * Maximum number of logs per keyset page
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     /**
      * Repository for LogEvent entity
      */
     private final LogEventRepository logEventRepository;
 
     /**
-     * Repository for AppEntity entity
+     * Service that writes the users of log events only when they are new or changed
+     */
+    private final LogUserService logUserService;
+
+    /**
+     * Name to id dictionary of actions, modules and entities
      */
-    private final AppEntityRepository appEntityRepository;
+    private final LogDictionaryService logDictionaryService;
 
     /**
-     * Repository for Action entity
+     * Builds the keys of the paginatedLogs cache and invalidates them
      */
-    private final ActionRepository actionRepository;
+    private final LogQueryCacheService logQueryCacheService;
 
     /**
-     * Repository for AppModule entity
+     * Counts the saved and deleted log events in the statistics rollups
      */
-    private final ModuleRepository moduleRepository;
+    private final LogStatsService logStatsService;
 
     /**
-     * Repository for LogUser entity
+     * Pushes the saved log events to the live tail subscribers
      */
-    private final LogUserRepository logUserRepository;
+    private final LogTailService logTailService;
+
+    /**
+     * Indexes the saved log events for the full-text search
+     */
+    private final LogSearchService logSearchService;
+
+    /**
+     * ObjectMapper used to write exported logs
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Number of rows fetched per round trip when exporting logs
+     */
+    private final int exportFetchSize;
+
+    /**
+     * True if the payloads of new log events are stored compressed, false to store them as text
+     */
+    private final boolean compressPayloads;
 
     /**
      * Constructor for LogEventService, initializes repositories
      * @param logEventRepository Repository for LogEvent entity
-     * @param appEntityRepository Repository for AppEntity entity
-     * @param actionRepository Repository for Action entity
-     * @param moduleRepository Repository for AppModule entity
-     * @param logUserRepository Repository for LogUser entity
+     * @param logUserService Service that writes the users of log events only when they are new or changed
+     * @param logDictionaryService Name to id dictionary of actions, modules and entities
+     * @param logQueryCacheService Builds the keys of the paginatedLogs cache and invalidates them
+     * @param logStatsService Counts the saved and deleted log events in the statistics rollups
+     * @param logTailService Pushes the saved log events to the live tail subscribers
+     * @param logSearchService Indexes the saved log events for the full-text search
+     * @param objectMapper ObjectMapper used to write exported logs
+     * @param exportFetchSize Number of rows fetched per round trip when exporting logs
+     * @param payloadStorage compressed to store the payloads of new log events compressed, text to store them as is
      */
     @Autowired
-    public LogEventService(LogEventRepository logEventRepository, AppEntityRepository appEntityRepository, ActionRepository actionRepository, ModuleRepository moduleRepository, LogUserRepository logUserRepository) {
+    public LogEventService(LogEventRepository logEventRepository,
+                           LogUserService logUserService,
+                           LogDictionaryService logDictionaryService,
+                           LogQueryCacheService logQueryCacheService,
+                           LogStatsService logStatsService,
+                           LogTailService logTailService,
+                           LogSearchService logSearchService,
+                           ObjectMapper objectMapper,
+                           @Value("${log.export.fetch.size}") int exportFetchSize,
+                           @Value("${log.payload.storage}") String payloadStorage) {
         this.logEventRepository = logEventRepository;
-        this.appEntityRepository = appEntityRepository;
-        this.actionRepository = actionRepository;
-        this.moduleRepository = moduleRepository;
-        this.logUserRepository = logUserRepository;
+        this.logUserService = logUserService;
+        this.logDictionaryService = logDictionaryService;
+        this.logQueryCacheService = logQueryCacheService;
+        this.logStatsService = logStatsService;
+        this.logTailService = logTailService;
+        this.logSearchService = logSearchService;
+        this.objectMapper = objectMapper;
+        this.exportFetchSize = exportFetchSize;
+        this.compressPayloads = switch (payloadStorage.toLowerCase()) {
+            case "compressed" -> true;
+            case "text" -> false;
+            default -> throw new IllegalArgumentException("Unknown log payload storage " + payloadStorage);
+        };
     }
 
     /**
      * Method for getting all logs
+     * It loads the whole table in memory, prefer exportLogs for anything but small tables
      * @return List of LogEventDTO objects
      */
     @Cacheable(value = "logs")
@@ -78,66 +147,89 @@ public class LogEventService {
         return logs.stream().map(LogEventMapper::toDTO).toList();
     }
 
+    /**
+     * Method for exporting logs as newline-delimited JSON, oldest first
+     * Logs are read through a forward-only cursor and written one by one, so memory use doesn't depend on the row count
+     * @param filter Filter for logs, null to export every log
+     * @param outputStream Stream the logs are written to, left open
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional
+    public void exportLogs(LogEventFilter filter, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(LogEventDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+             Stream<LogEvent> logs = logEventRepository.streamAll(LogEventSpecifications.fromFilter(filter), exportFetchSize)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<LogEvent> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, LogEventMapper.toDTO(iterator.next()));
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
     /**
      * Method for getting paginated logs
+     * Every filter, including the date range, is applied in the database, so pages and totals are exact
+     * Pages are cached under a key built from every argument and the current cache generation
      * @param page Page number
      * @param size Number of logs per page
      * @param filter Filter for logs
      * @param sortDirection Sort direction
      * @return PaginatedLogsResponse object
      */
-    @Cacheable(value = "paginatedLogs")
+    @Cacheable(value = "paginatedLogs", key = "@logQueryCacheService.paginatedLogsKey(#page, #size, #filter, #sortDirection)")
     public PaginatedLogsResponse getPaginatedLogs(Integer page,
                                               Integer size,
                                               LogEventFilter filter,
                                               String sortDirection) {
-        Sort sort = Sort.by("creationDate");
-        sort = sortDirection.equalsIgnoreCase("asc") ? sort.ascending() : sort.descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-
-        LogEvent probe = getProbe(filter);
-
-        ExampleMatcher matcher = ExampleMatcher.matchingAll()
-                .withIgnoreNullValues()
-                .withIgnorePaths("creationDate", "description", "jsonBefore", "jsonAfter");
-
-        Example<LogEvent> example = Example.of(probe, matcher);
-
-        Page<LogEvent> logs;
-        long totalElements;
-
-        if (filter.getStartDate() != null && filter.getEndDate() != null) {
-            LocalDateTime startDate = LocalDateTime.parse(filter.getStartDate());
-            LocalDateTime endDate = LocalDateTime.parse(filter.getEndDate());
-            Page<LogEvent> filteredLogs = logEventRepository.findAll(example, pageable);
-            logs = new PageImpl<>(filteredLogs.stream()
-                    .filter(log -> {
-                        LocalDateTime creationDate = log.getCreationDate();
-                        return creationDate.isAfter(startDate) && creationDate.isBefore(endDate);
-                    })
-                    .collect(Collectors.toList()), pageable, filteredLogs.getTotalElements());
-        } else {
-            logs = logEventRepository.findAll(example, pageable);
-        }
-        totalElements = logs.getTotalElements();
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // id breaks ties between logs created at the same instant, matching the (creation_date, id) index
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, "creationDate", "id"));
+
+        Page<LogEvent> logs = logEventRepository.findAll(LogEventSpecifications.fromFilter(filter), pageable);
 
         Page<LogEventDTO> logEventDTOPage = logs.map(LogEventMapper::toDTO);
-        return new PaginatedLogsResponse(logEventDTOPage, totalElements);
+        return new PaginatedLogsResponse(logEventDTOPage, logs.getTotalElements());
     }
 
     /**
-     * Method for getting a probe for filtering logs
+     * Method for getting a keyset page of logs
+     * It seeks past the cursor through the (creation_date, id) index and never counts rows,
+     * so its cost doesn't grow with the depth of the page
+     * @param cursor Encoded position of the last log of the previous page, null for the first page
+     * @param size Number of logs per page, between 1 and MAX_CURSOR_PAGE_SIZE
      * @param filter Filter for logs
-     * @return LogEvent object with filter parameters
+     * @param sortDirection Sort direction
+     * @return CursorLogsResponse object
      */
-    private static LogEvent getProbe(LogEventFilter filter) {
-        LogEvent probe = new LogEvent();
-        if (filter.getId() != null) probe.setId(filter.getId());
-        if (filter.getAction() != null) probe.setActionId(ActionMapper.toEntity(filter.getAction()));
-        if (filter.getModule() != null) probe.setModuleId(AppModuleMapper.toEntity(filter.getModule()));
-        if (filter.getEntity() != null) probe.setEntityId(AppEntityMapper.toEntity(filter.getEntity()));
-        if (filter.getUserId() != null) probe.setUserId(LogUserMapper.toLogUser(filter.getUserId()));
-        return probe;
+    public CursorLogsResponse getLogsByCursor(String cursor,
+                                              Integer size,
+                                              LogEventFilter filter,
+                                              String sortDirection) {
+        if (size == null || size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Specification<LogEvent> specification = LogEventSpecifications.fromFilter(filter);
+        if (cursor != null) {
+            specification = specification.and(LogEventSpecifications.after(LogEventCursor.decode(cursor), direction));
+        }
+
+        // One extra row tells whether there is a next page without a count query
+        List<LogEvent> logs = logEventRepository.findBy(specification, query -> query
+                .sortBy(Sort.by(direction, "creationDate", "id"))
+                .limit(size + 1)
+                .all());
+
+        String nextCursor = null;
+        if (logs.size() > size) {
+            logs = logs.subList(0, size);
+            LogEvent last = logs.get(size - 1);
+            nextCursor = new LogEventCursor(last.getCreationDate(), last.getId()).encode();
+        }
+        return new CursorLogsResponse(logs.stream().map(LogEventMapper::toDTO).toList(), nextCursor);
     }
 
     /**
@@ -148,7 +240,74 @@ public class LogEventService {
     public void saveLogEvent(LogMessage logMessage) {
         LogEvent logEvent = LogEventMapper.toEntity(logMessage);
         logEvent.setUserId(saveUser(logEvent.getUserId()));
-        logEventRepository.save(mapLogEvent(logEvent));
+        LogEvent saved = logEventRepository.save(storePayloads(mapLogEvent(logEvent)));
+        logStatsService.recordLogEvents(List.of(saved));
+        logQueryCacheService.invalidatePaginatedLogs();
+        logTailService.publishAfterCommit(List.of(saved));
+        logSearchService.indexAfterCommit(List.of(saved));
+    }
+
+    /**
+     * Method for saving a batch of log events received from RabbitMQ in a single transaction.
+     * New or changed users are upserted first, then every log event is written with one JDBC batch insert.
+     * Messages whose action, module or entity can't be resolved are left out so they don't block the rest of the batch.
+     * Every log event gets its own creation date, increasing in the order of the messages like their IDs,
+     * so the (creation_date, id) order of the logs is the order they arrived in.
+     * @param logMessages LogMessage objects received from RabbitMQ
+     * @return Messages that were left out of the batch
+     */
+    @Transactional
+    public List<LogMessage> saveLogEvents(List<LogMessage> logMessages) {
+        LocalDateTime creationDate = null;
+        Map<Integer, LogUser> users = new LinkedHashMap<>();
+        List<LogEvent> logEvents = new ArrayList<>(logMessages.size());
+        List<LogMessage> rejected = new ArrayList<>();
+        for (LogMessage logMessage : logMessages) {
+            try {
+                LogEvent logEvent = storePayloads(mapLogEvent(LogEventMapper.toEntity(logMessage)));
+                LogUser user = logEvent.getUserId();
+                if (user.getId() == null) {
+                    throw new IllegalArgumentException("User is required to save log event.");
+                }
+                users.put(user.getId(), user);
+                creationDate = nextCreationDate(creationDate);
+                logEvent.setCreationDate(creationDate);
+                logEvents.add(logEvent);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Rejecting log message: " + e.getMessage());
+                rejected.add(logMessage);
+            }
+        }
+        if (logEvents.isEmpty()) {
+            return rejected;
+        }
+        logUserService.saveUsers(users.values());
+        logEventRepository.batchInsert(logEvents);
+        logStatsService.recordLogEvents(logEvents);
+        logQueryCacheService.invalidatePaginatedLogs();
+        logTailService.publishAfterCommit(logEvents);
+        logSearchService.indexAfterCommit(logEvents);
+        return rejected;
+    }
+
+    /**
+     * Returns the creation date of the next log event of a batch, the current time truncated to the precision
+     * of the creation_date column, or just after the previous log event when the clock hasn't moved since
+     * @param previous Creation date of the previous log event of the batch, null for the first one
+     * @return Creation date after the previous one
+     */
+    private static LocalDateTime nextCreationDate(LocalDateTime previous) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return previous == null || now.isAfter(previous) ? now : previous.plus(1, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Compresses the payloads of a log event when they are stored compressed
+     * @param logEvent Log event about to be saved
+     * @return The log event
+     */
+    private LogEvent storePayloads(LogEvent logEvent) {
+        return compressPayloads ? LogPayloadCodec.compress(logEvent) : logEvent;
     }
 
     @Transactional
@@ -156,7 +315,7 @@ public class LogEventService {
         if (user == null) {
             throw new IllegalArgumentException("User is required to save log event.");
         }
-        return logUserRepository.save(user);
+        return logUserService.saveUser(user);
     }
 
     /**
@@ -174,43 +333,37 @@ public class LogEventService {
 
     /**
      * Method for extracting entity from log event and setting its ID and name
+     * The ID is resolved through the in-memory dictionary, so a cache hit doesn't touch the database
      * @param logEvent LogEvent object
      * @return AppEntity object
      */
     private AppEntity extractEntity(LogEvent logEvent) {
         AppEntity entity = logEvent.getEntityId();
-        Integer id = appEntityRepository.findByName(entity.getName()).orElseThrow(
-                () -> new IllegalArgumentException("Entity with name " + entity.getName() + " not found")
-        ).getId();
-        entity.setId(id);
+        entity.setId(logDictionaryService.getEntityId(entity.getName()));
         return entity;
     }
 
     /**
      * Method for extracting module from log event and setting its ID and name
+     * The ID is resolved through the in-memory dictionary, so a cache hit doesn't touch the database
      * @param logEvent LogEvent object
      * @return AppModule object
      */
     private AppModule extractModules(LogEvent logEvent) {
         AppModule module = logEvent.getModuleId();
-        Integer id = moduleRepository.findByName(module.getName()).orElseThrow(
-                () -> new IllegalArgumentException("Module with name " + module.getName() + " not found")
-        ).getId();
-        module.setId(id);
+        module.setId(logDictionaryService.getModuleId(module.getName()));
         return module;
     }
 
     /**
      * Method for extracting action from log event and setting its ID and name
+     * The ID is resolved through the in-memory dictionary, so a cache hit doesn't touch the database
      * @param logEvent LogEvent object
      * @return Action object
      */
     private Action extractActions(LogEvent logEvent) {
         Action action = logEvent.getActionId();
-        Integer id = actionRepository.findByName(logEvent.getActionId().getName()).orElseThrow(
-                () -> new IllegalArgumentException("Action with name " + logEvent.getActionId().getName() + " not found")
-        ).getId();
-        action.setId(id);
+        action.setId(logDictionaryService.getActionId(action.getName()));
         return action;
     }
 
@@ -232,21 +385,26 @@ public class LogEventService {
      */
     @Transactional
     public void deleteLog(Integer id) {
-        logEventRepository.findById(id).orElseThrow(
-                () -> new IllegalArgumentException("Log with id " + id + " not found")
-        );
-        logEventRepository.deleteById(id);
+        List<LogEventStatId> statIds = logEventRepository.findStatIds(List.of(id));
+        // Throwing rolls back the statistics too if another request deleted the log after it was read
+        if (logEventRepository.deleteLogById(id) == 0) {
+            throw new IllegalArgumentException("Log with id " + id + " not found");
+        }
+        logStatsService.forgetLogEvents(statIds);
+        logSearchService.deleteAfterCommit(List.of(id));
+        logQueryCacheService.invalidatePaginatedLogs();
     }
 
     /**
      * Method for deleting all logs from the database
+     * The table and its statistics are truncated, no log is loaded
      */
-    @Caching(evict = {
-            @CacheEvict(value = "logs", allEntries = true),
-            @CacheEvict(value = "paginatedLogs", allEntries = true)
-    })
+    @CacheEvict(value = "logs", allEntries = true)
     @Transactional
     public void deleteLogs() {
-        logEventRepository.deleteAll();
+        logEventRepository.truncate();
+        logStatsService.deleteAllStats();
+        logSearchService.deleteAllAfterCommit();
+        logQueryCacheService.invalidatePaginatedLogs();
     }
 }
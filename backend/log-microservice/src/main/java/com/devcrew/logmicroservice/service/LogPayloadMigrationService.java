@@ -0,0 +1,118 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service class that compresses the payloads of the log events stored as text before compression was enabled.
+ * Log events are converted oldest first, one batch per transaction, so locks are short
+ * and an interrupted migration resumes where it stopped.
+ * Each batch starts after the last log event of the previous one, so the rows already converted aren't scanned again.
+ * The cached DTOs stay valid, a log reads the same before and after its payloads are compressed.
+ * Requested through the API, the migration runs in the background, one at a time.
+ */
+@Service
+public class LogPayloadMigrationService {
+
+    /**
+     * Repository for LogEvent entity
+     */
+    private final LogEventRepository logEventRepository;
+
+    /**
+     * Runs each batch in its own transaction
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Number of log events compressed per transaction
+     */
+    private final int batchSize;
+
+    /**
+     * Thread running the migrations requested through the API
+     */
+    private final ExecutorService migrator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-payload-migrator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * True while a migration requested through the API runs
+     */
+    private final AtomicBoolean migrating = new AtomicBoolean();
+
+    /**
+     * Constructor for LogPayloadMigrationService
+     * @param logEventRepository Repository for LogEvent entity
+     * @param transactionManager Transaction manager of the log events
+     * @param batchSize Number of log events compressed per transaction
+     */
+    @Autowired
+    public LogPayloadMigrationService(LogEventRepository logEventRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${log.payload.migration.batch.size}") int batchSize) {
+        this.logEventRepository = logEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Method for compressing the payloads of every log event still stored as text in the background
+     * @return true if the migration started, false if one is already running
+     */
+    public boolean startCompressPayloads() {
+        if (!migrating.compareAndSet(false, true)) {
+            return false;
+        }
+        migrator.execute(() -> {
+            try {
+                compressPayloads();
+            } catch (RuntimeException e) {
+                System.err.println("Could not compress the log payloads: " + e.getMessage());
+            } finally {
+                migrating.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Method for checking whether a migration requested through the API runs
+     * @return true while it runs
+     */
+    public boolean isCompressingPayloads() {
+        return migrating.get();
+    }
+
+    /**
+     * Method for compressing the payloads of every log event still stored as text
+     * @return Number of log events compressed
+     */
+    public int compressPayloads() {
+        int total = 0;
+        int lastId = 0;
+        while (true) {
+            int afterId = lastId;
+            List<Integer> ids = transactionTemplate.execute(status -> logEventRepository.compressPayloads(afterId, batchSize));
+            if (ids == null || ids.isEmpty()) {
+                return total;
+            }
+            total += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+}
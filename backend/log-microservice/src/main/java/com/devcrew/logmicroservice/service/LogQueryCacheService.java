@@ -0,0 +1,186 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class that builds the keys of the paginatedLogs cache.
+ * Every key embeds a generation number that is bumped whenever logs are written or deleted,
+ * so stale pages are never read again and simply expire, without flushing the cache.
+ * With Redis caching the generation lives in Redis and is shared by every instance,
+ * each instance reads it again at most every log.query.cache.generation.ttl ms.
+ */
+@Service
+public class LogQueryCacheService {
+
+    /**
+     * Redis key holding the current generation of the paginatedLogs cache
+     */
+    private static final String GENERATION_KEY = "paginatedLogs::generation";
+
+    /**
+     * Redis template, only used when the cache is backed by Redis
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Generation used when the cache isn't shared between instances
+     */
+    private final AtomicLong localGeneration = new AtomicLong();
+
+    /**
+     * How long, in ms, the generation read from Redis is reused before reading it again
+     */
+    private final long generationTtl;
+
+    /**
+     * Last generation read from Redis, with the time it was read at
+     */
+    private volatile CachedGeneration cachedGeneration;
+
+    /**
+     * Constructor for LogQueryCacheService
+     * @param redisTemplate Provider of the Redis template
+     * @param cacheType Type of the cache, the generation is kept in Redis when it is redis
+     * @param generationTtl How long, in ms, the generation read from Redis is reused
+     */
+    @Autowired
+    public LogQueryCacheService(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                @Value("${spring.cache.type}") String cacheType,
+                                @Value("${log.query.cache.generation.ttl}") long generationTtl) {
+        this.redisTemplate = "redis".equalsIgnoreCase(cacheType) ? redisTemplate.getIfAvailable() : null;
+        this.generationTtl = generationTtl;
+    }
+
+    /**
+     * Builds the cache key of a page of logs.
+     * Equal queries always produce the same key, whatever the order or the format in which the filter was sent.
+     * @param page Page number
+     * @param size Number of logs per page
+     * @param filter Filter for logs
+     * @param sortDirection Sort direction
+     * @return Cache key of the page for the current generation
+     */
+    public String paginatedLogsKey(Integer page, Integer size, LogEventFilter filter, String sortDirection) {
+        return "g" + currentGeneration()
+                + ":p" + page
+                + ":s" + size
+                + ":" + (sortDirection.equalsIgnoreCase("asc") ? "asc" : "desc")
+                + ":" + normalize(filter);
+    }
+
+    /**
+     * Bumps the generation once the current transaction commits, or right away if there is no transaction.
+     */
+    public void invalidatePaginatedLogs() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpGeneration();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bumpGeneration();
+            }
+        });
+    }
+
+    private long currentGeneration() {
+        if (redisTemplate == null) {
+            return localGeneration.get();
+        }
+        CachedGeneration cached = cachedGeneration;
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.readAt() < generationTtl) {
+            return cached.generation();
+        }
+        String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+        long current = generation == null ? 0 : Long.parseLong(generation);
+        cachedGeneration = new CachedGeneration(current, now);
+        return current;
+    }
+
+    private void bumpGeneration() {
+        if (redisTemplate == null) {
+            localGeneration.incrementAndGet();
+            return;
+        }
+        Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY);
+        // This instance sees its own writes right away, the others within the TTL
+        cachedGeneration = generation == null ? null : new CachedGeneration(generation, System.currentTimeMillis());
+    }
+
+    /**
+     * Writes every attribute of the filter in a fixed order, dates in ISO format.
+     * Each attribute is prefixed with its length, so distinct filters never produce the same key.
+     * @param filter Filter for logs
+     * @return Normalized form of the filter
+     * @throws IllegalArgumentException if a date of the filter is malformed
+     */
+    private static String normalize(LogEventFilter filter) {
+        if (filter == null) {
+            return "";
+        }
+        ActionDTO action = filter.getAction();
+        AppModuleDTO module = filter.getModule();
+        AppEntityDTO entity = filter.getEntity();
+        LogUserDTO user = filter.getUserId();
+        StringBuilder key = new StringBuilder();
+        append(key, filter.getId());
+        append(key, action == null ? null : action.getIdentifier());
+        append(key, action == null ? null : action.getName_action());
+        append(key, module == null ? null : module.getIdentifier());
+        append(key, module == null ? null : module.getName_module());
+        append(key, entity == null ? null : entity.getIdentifier());
+        append(key, entity == null ? null : entity.getName_entity());
+        append(key, user == null ? null : user.getId());
+        append(key, user == null ? null : user.getUsername());
+        append(key, user == null ? null : user.getEmail());
+        append(key, date(filter.getStartDate()));
+        append(key, date(filter.getEndDate()));
+        return key.toString();
+    }
+
+    /**
+     * Appends an attribute as its length and its value, or as "-" when it is null.
+     * @param key Key being built
+     * @param value Attribute of the filter
+     */
+    private static void append(StringBuilder key, Object value) {
+        if (value == null) {
+            key.append('-');
+            return;
+        }
+        String field = value.toString();
+        key.append(field.length()).append(':').append(field);
+    }
+
+    private static String date(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(date).toString();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date " + date);
+        }
+    }
+
+    /**
+     * Generation read from Redis
+     * @param generation Generation of the paginatedLogs cache
+     * @param readAt Time it was read at, in ms
+     */
+    private record CachedGeneration(long generation, long readAt) {
+    }
+}
@@ -1,22 +1,107 @@
 package com.devcrew.logmicroservice.service;
 
+import com.devcrew.logmicroservice.config.RabbitConfig;
 import com.devcrew.logmicroservice.dto.LogMessage;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
+/**
+ * Service class receiving the log messages from RabbitMQ.
+ * Every shard queue gets its own listener container with a single consumer, so the messages of a user,
+ * which all go to the same shard, are saved in order while the shards are saved in parallel.
+ */
 @Service
-public class LogReceiverService {
+public class LogReceiverService implements RabbitListenerConfigurer {
 
     private final LogEventService logEventService;
 
+    private final RabbitTemplate rabbitTemplate;
+
+    private final String deadLetterExchangeName;
+
+    private final String routingKey;
+
+    private final MessageConverter messageConverter;
+
+    private final String queueName;
+
+    private final int shards;
+
     @Autowired
-    public LogReceiverService(LogEventService logEventService) {
+    public LogReceiverService(LogEventService logEventService,
+                              RabbitTemplate rabbitTemplate,
+                              MessageConverter messageConverter,
+                              @Value("${rabbitmq.dead-letter.exchange.name}") String deadLetterExchangeName,
+                              @Value("${rabbitmq.routing.key}") String routingKey,
+                              @Value("${rabbitmq.queue.name}") String queueName,
+                              @Value("${rabbitmq.queue.shards}") int shards) {
         this.logEventService = logEventService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.messageConverter = messageConverter;
+        this.deadLetterExchangeName = deadLetterExchangeName;
+        this.routingKey = routingKey;
+        this.queueName = queueName;
+        this.shards = shards;
+    }
+
+    /**
+     * Registers one batch listener per shard queue, with the default container factory.
+     * @param registrar registrar of the listener endpoints
+     */
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int shard = 0; shard < shards; shard++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("logShardListener." + shard);
+            endpoint.setQueueNames(RabbitConfig.shardQueueName(queueName, shard));
+            endpoint.setBatchListener(true);
+            endpoint.setMessageListener((BatchMessageListener) messages -> receiveLogs(messages.stream()
+                    .map(this::toLogMessage)
+                    .toList()));
+            registrar.registerEndpoint(endpoint);
+        }
+    }
+
+    /**
+     * Converts a message to a LogMessage, whatever type the publisher put in its headers.
+     * @param message message received from a shard queue
+     * @return log message
+     */
+    private LogMessage toLogMessage(Message message) {
+        message.getMessageProperties().setInferredArgumentType(LogMessage.class);
+        return (LogMessage) messageConverter.fromMessage(message);
     }
 
+    /**
+     * Receives the log messages drained from the queue by the batch listener container.
+     * The whole batch is acknowledged only after the transaction that persists it has been committed.
+     * Messages rejected by the service are moved to the dead-letter queue before the batch is acknowledged,
+     * a batch that fails as a whole is redelivered until the queue delivery limit dead-letters it.
+     * The messages published with the plain routing key, before the queue was sharded, are received here too.
+     * @param logMessages batch of log messages, bounded by the configured batch size and timeout
+     */
     @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void receiveLog(LogMessage logMessage) {
-        logEventService.saveLogEvent(logMessage);
+    public void receiveLogs(List<LogMessage> logMessages) {
+        List<LogMessage> rejected = logEventService.saveLogEvents(logMessages);
+        for (LogMessage logMessage : rejected) {
+            // The valid messages are already committed, a failure here must not get the batch redelivered
+            try {
+                rabbitTemplate.convertAndSend(deadLetterExchangeName, routingKey, logMessage);
+            } catch (AmqpException e) {
+                System.err.println("Error dead-lettering log message: " + e.getMessage());
+            }
+        }
     }
-}
\ No newline at end of file
+}
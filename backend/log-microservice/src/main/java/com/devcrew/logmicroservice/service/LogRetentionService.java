@@ -0,0 +1,425 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.BulkDeleteProgress;
+import com.devcrew.logmicroservice.dto.LogEventFilter;
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.model.LogEventStatId;
+import com.devcrew.logmicroservice.repository.LogEventPartitionRepository;
+import com.devcrew.logmicroservice.repository.LogEventPurgeRepository;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import com.devcrew.logmicroservice.repository.LogEventSpecifications;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Service class that deletes logs in bulk: the retention of the logs and the deletes by filter.
+ * When partitioning is enabled the LOG_EVENT table can be partitioned by month or day of creation_date on SQL Server,
+ * once, through POST /log/partition-logs; expired partitions are then truncated whole and partitions are created ahead of time.
+ * The expired rows left, in a partially expired partition or in a table that isn't partitioned,
+ * are deleted with bounded set-based deletes, one transaction per batch.
+ * Deletes by filter read the IDs of the matching logs in chunks and delete each chunk with one statement,
+ * in its own transaction, so locks are short and ingestion keeps running during a large delete.
+ * Each chunk is subtracted from the statistics in the transaction that deletes it.
+ * Purges and partitioning requested through the API run in the background, one at a time.
+ */
+@Service
+public class LogRetentionService {
+
+    /**
+     * Repository for LogEvent entity
+     */
+    private final LogEventRepository logEventRepository;
+
+    /**
+     * Repository managing the partitions of the LOG_EVENT table
+     */
+    private final LogEventPartitionRepository logEventPartitionRepository;
+
+    /**
+     * Builds the keys of the paginatedLogs cache and invalidates them
+     */
+    private final LogQueryCacheService logQueryCacheService;
+
+    /**
+     * Service for the log statistics, expired with the logs
+     */
+    private final LogStatsService logStatsService;
+
+    /**
+     * Service for the full-text search of the logs, deleted logs are removed from its index
+     */
+    private final LogSearchService logSearchService;
+
+    /**
+     * Cache manager holding the logs cache, null when caching is disabled
+     */
+    private final CacheManager cacheManager;
+
+    /**
+     * Writes the progress of the deletes by filter, one JSON object per line
+     */
+    private final ObjectWriter progressWriter;
+
+    /**
+     * Runs each batch in its own transaction
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Number of days logs are kept, 0 to keep them forever
+     */
+    private final int retentionDays;
+
+    /**
+     * Maximum number of rows deleted per statement
+     */
+    private final int deleteBatchSize;
+
+    /**
+     * Maximum number of logs deleted per chunk of a delete by filter
+     */
+    private final int filterDeleteBatchSize;
+
+    /**
+     * True if the LOG_EVENT table is partitioned, only supported on SQL Server
+     */
+    private final boolean partitioningEnabled;
+
+    /**
+     * Time span covered by each partition, days or months
+     */
+    private final ChronoUnit partitionInterval;
+
+    /**
+     * Number of partitions kept ahead of the current one
+     */
+    private final int partitionsAhead;
+
+    /**
+     * Thread running the purges and the partitioning requested through the API
+     */
+    private final ExecutorService maintainer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-retention-maintainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * True while a purge or the partitioning requested through the API runs
+     */
+    private final AtomicBoolean maintaining = new AtomicBoolean();
+
+    /**
+     * Constructor for LogRetentionService
+     * @param logEventRepository Repository for LogEvent entity
+     * @param logEventPartitionRepository Repository managing the partitions of the LOG_EVENT table
+     * @param logQueryCacheService Builds the keys of the paginatedLogs cache and invalidates them
+     * @param logStatsService Service for the log statistics, expired with the logs
+     * @param logSearchService Service for the full-text search of the logs, deleted logs are removed from its index
+     * @param cacheManager Provider of the cache manager holding the logs cache
+     * @param objectMapper ObjectMapper used to write the progress of the deletes by filter
+     * @param transactionManager Transaction manager of the log events
+     * @param retentionDays Number of days logs are kept, 0 to keep them forever
+     * @param deleteBatchSize Maximum number of rows deleted per statement
+     * @param filterDeleteBatchSize Maximum number of logs deleted per chunk of a delete by filter,
+     *                              at most LogEventPurgeRepository.MAX_IDS_PER_DELETE
+     * @param partitioningEnabled True if the LOG_EVENT table is partitioned, only supported on SQL Server
+     * @param partitionInterval Time span covered by each partition, day or month
+     * @param partitionsAhead Number of partitions kept ahead of the current one
+     */
+    @Autowired
+    public LogRetentionService(LogEventRepository logEventRepository,
+                               LogEventPartitionRepository logEventPartitionRepository,
+                               LogQueryCacheService logQueryCacheService,
+                               LogStatsService logStatsService,
+                               LogSearchService logSearchService,
+                               ObjectProvider<CacheManager> cacheManager,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${log.retention.days}") int retentionDays,
+                               @Value("${log.retention.delete.batch.size}") int deleteBatchSize,
+                               @Value("${log.bulk.delete.batch.size}") int filterDeleteBatchSize,
+                               @Value("${log.partitioning.enabled}") boolean partitioningEnabled,
+                               @Value("${log.partitioning.interval}") String partitionInterval,
+                               @Value("${log.partitioning.ahead}") int partitionsAhead) {
+        this.logEventRepository = logEventRepository;
+        this.logEventPartitionRepository = logEventPartitionRepository;
+        this.logQueryCacheService = logQueryCacheService;
+        this.logStatsService = logStatsService;
+        this.logSearchService = logSearchService;
+        this.cacheManager = cacheManager.getIfAvailable();
+        this.progressWriter = objectMapper.writerFor(BulkDeleteProgress.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.deleteBatchSize = deleteBatchSize;
+        if (filterDeleteBatchSize < 1 || filterDeleteBatchSize > LogEventPurgeRepository.MAX_IDS_PER_DELETE) {
+            throw new IllegalArgumentException("log.bulk.delete.batch.size must be between 1 and "
+                    + LogEventPurgeRepository.MAX_IDS_PER_DELETE);
+        }
+        this.filterDeleteBatchSize = filterDeleteBatchSize;
+        this.partitioningEnabled = partitioningEnabled;
+        this.partitionInterval = switch (partitionInterval.toLowerCase()) {
+            case "day" -> ChronoUnit.DAYS;
+            case "month" -> ChronoUnit.MONTHS;
+            default -> throw new IllegalArgumentException("Unknown log partitioning interval " + partitionInterval);
+        };
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    /**
+     * Method for partitioning the LOG_EVENT table, a one-time step run by an administrator
+     * The primary key is rebuilt on the partition scheme, so it should be run while the load is low
+     * @return Number of partition boundaries created, 0 if the table is already partitioned
+     */
+    public int partitionLogEvents() {
+        checkPartitioningEnabled();
+        if (logEventPartitionRepository.isPartitioned()) {
+            return 0;
+        }
+        LocalDateTime first = retentionDays > 0 ? partitionStart(LocalDateTime.now().minusDays(retentionDays))
+                : partitionStart(LocalDateTime.now());
+        List<LocalDateTime> boundaries = new ArrayList<>();
+        for (LocalDateTime boundary = first; !boundary.isAfter(lastBoundary()); boundary = boundary.plus(1, partitionInterval)) {
+            boundaries.add(boundary);
+        }
+        transactionTemplate.executeWithoutResult(status -> logEventPartitionRepository.partition(boundaries));
+        return boundaries.size();
+    }
+
+    /**
+     * Method for partitioning the LOG_EVENT table in the background
+     * @return true if the partitioning started, false if a purge or the partitioning is already running
+     */
+    public boolean startPartitionLogEvents() {
+        checkPartitioningEnabled();
+        return startMaintenance("partition the logs", this::partitionLogEvents);
+    }
+
+    /**
+     * Method for deleting the logs created before the given date in the background
+     * @param before Logs created before this date are deleted
+     * @return true if the purge started, false if a purge or the partitioning is already running
+     */
+    public boolean startPurgeLogsBefore(LocalDateTime before) {
+        checkPurgeDate(before);
+        return startMaintenance("purge the logs", () -> purgeLogsBefore(before));
+    }
+
+    /**
+     * Method for checking whether a purge or the partitioning requested through the API runs
+     * @return true while it runs
+     */
+    public boolean isMaintaining() {
+        return maintaining.get();
+    }
+
+    /**
+     * Scheduled retention job
+     * Creates the partitions ahead of time, then deletes the logs and statistics older than the retention period
+     */
+    @Scheduled(cron = "${log.retention.cron}")
+    public void enforceRetention() {
+        if (partitioningEnabled) {
+            try {
+                addPartitionsAhead();
+            } catch (RuntimeException e) {
+                System.err.println("Could not add LOG_EVENT partitions: " + e.getMessage());
+            }
+        }
+        if (retentionDays > 0) {
+            LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+            purgeLogsBefore(before);
+            transactionTemplate.executeWithoutResult(status -> logStatsService.deleteStatsBefore(before));
+        }
+    }
+
+    /**
+     * Method for deleting the logs created before the given date
+     * Whole expired partitions are truncated, the rows left are deleted batch by batch
+     * @param before Logs created before this date are deleted
+     * @return Number of rows deleted by the batches, truncated partitions aren't counted
+     */
+    public int purgeLogsBefore(LocalDateTime before) {
+        checkPurgeDate(before);
+        if (partitioningEnabled) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> logEventPartitionRepository.dropPartitionsBefore(before));
+            } catch (RuntimeException e) {
+                System.err.println("Could not truncate LOG_EVENT partitions, purging row by row: " + e.getMessage());
+            }
+        }
+        int total = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> logEventRepository.deleteCreatedBefore(before, deleteBatchSize));
+            total += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted == deleteBatchSize);
+
+        logSearchService.deleteCreatedBeforeAfterCommit(before);
+        invalidateCaches();
+        return total;
+    }
+
+    /**
+     * Method for checking that a filter can be used to delete logs
+     * An empty filter would match every log, deleteLogs of LogEventService is meant for that
+     * @param filter Filter for logs
+     */
+    public void checkDeleteFilter(LogEventFilter filter) {
+        if (LogEventSpecifications.isEmpty(filter)) {
+            throw new IllegalArgumentException("A filter is required to delete logs, delete-logs deletes every log");
+        }
+    }
+
+    /**
+     * Method for deleting the logs matching a filter, chunk by chunk
+     * @param filter Filter for logs, must not be empty
+     * @param progress Called after every chunk with the number of logs deleted so far
+     * @return Number of logs deleted
+     */
+    public int deleteLogs(LogEventFilter filter, IntConsumer progress) {
+        checkDeleteFilter(filter);
+        Specification<LogEvent> specification = LogEventSpecifications.fromFilter(filter);
+        int total = 0;
+        Integer lastId = null;
+        try {
+            while (true) {
+                Integer afterId = lastId;
+                List<Integer> ids = transactionTemplate.execute(status -> {
+                    List<Integer> chunk = logEventRepository.findIdsAfter(specification, afterId, filterDeleteBatchSize);
+                    List<LogEventStatId> statIds = logEventRepository.findStatIds(chunk);
+                    if (logEventRepository.deleteByIds(chunk) != statIds.size()) {
+                        // Another request deleted some of these logs after they were read, their statistics are unknown
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    logStatsService.forgetLogEvents(statIds);
+                    return chunk;
+                });
+                if (ids == null) {
+                    continue;
+                }
+                if (ids.isEmpty()) {
+                    break;
+                }
+                logSearchService.deleteAfterCommit(ids);
+                total += ids.size();
+                lastId = ids.get(ids.size() - 1);
+                progress.accept(total);
+                if (ids.size() < filterDeleteBatchSize) {
+                    break;
+                }
+            }
+        } finally {
+            // Chunks already deleted stay deleted if a later one fails
+            if (total > 0) {
+                invalidateCaches();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Method for deleting the logs matching a filter, reporting the progress as newline-delimited JSON
+     * @param filter Filter for logs, must not be empty
+     * @param outputStream Stream the progress is written to, left open
+     * @throws IOException if writing to the stream fails
+     */
+    public void deleteLogs(LogEventFilter filter, OutputStream outputStream) throws IOException {
+        try {
+            int total = deleteLogs(filter, deleted -> writeProgress(outputStream, new BulkDeleteProgress(deleted, false)));
+            writeProgress(outputStream, new BulkDeleteProgress(total, true));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeProgress(OutputStream outputStream, BulkDeleteProgress progress) {
+        try {
+            outputStream.write(progressWriter.writeValueAsBytes(progress));
+            outputStream.write('\n');
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean startMaintenance(String description, Runnable task) {
+        if (!maintaining.compareAndSet(false, true)) {
+            return false;
+        }
+        maintainer.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Could not " + description + ": " + e.getMessage());
+            } finally {
+                maintaining.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void checkPartitioningEnabled() {
+        if (!partitioningEnabled) {
+            throw new IllegalArgumentException("Partitioning is disabled, set log.partitioning.enabled to partition the logs");
+        }
+    }
+
+    private void checkPurgeDate(LocalDateTime before) {
+        if (before == null) {
+            throw new IllegalArgumentException("The purge date is required");
+        }
+    }
+
+    private void invalidateCaches() {
+        Optional.ofNullable(cacheManager).map(manager -> manager.getCache("logs")).ifPresent(Cache::clear);
+        logQueryCacheService.invalidatePaginatedLogs();
+    }
+
+    private void addPartitionsAhead() {
+        List<LocalDateTime> boundaries = logEventPartitionRepository.boundaries();
+        if (boundaries.isEmpty()) {
+            return;
+        }
+        LocalDateTime last = boundaries.get(boundaries.size() - 1);
+        for (LocalDateTime boundary = last.plus(1, partitionInterval); !boundary.isAfter(lastBoundary());
+             boundary = boundary.plus(1, partitionInterval)) {
+            LocalDateTime next = boundary;
+            transactionTemplate.executeWithoutResult(status -> logEventPartitionRepository.addBoundary(next));
+        }
+    }
+
+    private LocalDateTime lastBoundary() {
+        return partitionStart(LocalDateTime.now()).plus(partitionsAhead, partitionInterval);
+    }
+
+    private LocalDateTime partitionStart(LocalDateTime dateTime) {
+        LocalDate date = dateTime.toLocalDate();
+        return (partitionInterval == ChronoUnit.MONTHS ? date.withDayOfMonth(1) : date).atStartOfDay();
+    }
+}
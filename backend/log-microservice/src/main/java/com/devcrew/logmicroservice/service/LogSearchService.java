@@ -0,0 +1,560 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.LogEventFilter;
+import com.devcrew.logmicroservice.dto.LogSearchResponse;
+import com.devcrew.logmicroservice.mapper.LogPayloadCodec;
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import com.devcrew.logmicroservice.repository.LogEventSpecifications;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Service class for the full-text search of the logs
+ * An embedded Lucene index holds the description and every field of the JSON payloads of the logs.
+ * Logs are indexed as their ingestion transaction commits, the whole index is rebuilt from the database in the background.
+ * Payload fields are indexed under their path, e.g. after.email, and together in the payload field.
+ * The index is local to the instance, it is rebuilt when empty and caught up with the last logs on startup,
+ * then periodically, so the logs ingested by the other instances become searchable within the catch-up interval.
+ * Logs deleted by another instance are dropped from the hits, and from the index, when they are found by a search.
+ */
+@Service
+public class LogSearchService {
+
+    private static final String ID = "id";
+
+    private static final String CREATION_DATE = "creation_date";
+
+    private static final String DESCRIPTION = "description";
+
+    private static final String PAYLOAD = "payload";
+
+    /**
+     * Commit user data holding the time of the last commit
+     */
+    private static final String INDEXED_UNTIL = "indexedUntil";
+
+    /**
+     * Logs created this long before the last commit are indexed again on startup,
+     * they may have been saved without being indexed before the instance stopped
+     */
+    private static final long CATCH_UP_MARGIN_MINUTES = 5;
+
+    /**
+     * Logs created this long before the start of the last catch up are indexed again by the periodic catch up,
+     * they may have been committed by another instance after it
+     */
+    private static final long PERIODIC_CATCH_UP_MARGIN_SECONDS = 60;
+
+    /**
+     * Maximum number of results per page
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Maximum rank reachable by paging, deeper pages cost as much as reading every result before them
+     */
+    private static final int MAX_RESULT_WINDOW = 10000;
+
+    /**
+     * Repository for LogEvent entity
+     */
+    private final LogEventRepository logEventRepository;
+
+    /**
+     * ObjectMapper used to flatten the JSON payloads
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Read-only transactions streaming the logs to reindex
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Number of rows fetched per round trip when reindexing
+     */
+    private final int reindexFetchSize;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Directory directory;
+
+    private final IndexWriter indexWriter;
+
+    /**
+     * Searchers over the last refreshed state of the index
+     */
+    private final SearcherManager searcherManager;
+
+    /**
+     * Thread rebuilding the index from the database
+     */
+    private final ExecutorService reindexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-search-reindexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * True while the index is being rebuilt or caught up
+     */
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+
+    /**
+     * Start of the last catch up or reindex, null until the startup catch up has run
+     */
+    private volatile LocalDateTime caughtUpSince;
+
+    /**
+     * Constructor for LogSearchService, opens the index
+     * @param logEventRepository Repository for LogEvent entity
+     * @param objectMapper ObjectMapper used to flatten the JSON payloads
+     * @param transactionManager Transaction manager of the reindex transactions
+     * @param indexPath Directory of the index, empty to keep it in memory
+     * @param reindexFetchSize Number of rows fetched per round trip when reindexing
+     */
+    @Autowired
+    public LogSearchService(LogEventRepository logEventRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${log.search.index.path}") String indexPath,
+                            @Value("${log.search.reindex.fetch.size}") int reindexFetchSize) {
+        this.logEventRepository = logEventRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.reindexFetchSize = reindexFetchSize;
+        try {
+            this.directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+            this.indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            this.searcherManager = new SearcherManager(indexWriter, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the log search index", e);
+        }
+    }
+
+    /**
+     * Rebuilds the index if it is empty, otherwise indexes the logs saved since a little before its last commit
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (!reindexing.compareAndSet(false, true)) {
+            return;
+        }
+        reindexer.execute(() -> {
+            try {
+                LocalDateTime start = LocalDateTime.now();
+                LocalDateTime indexedUntil = indexedUntil();
+                if (indexWriter.getDocStats().numDocs == 0 || indexedUntil == null) {
+                    indexLogs(null);
+                } else {
+                    indexLogs(indexedUntil.minusMinutes(CATCH_UP_MARGIN_MINUTES));
+                }
+                commit();
+                caughtUpSince = start;
+            } catch (RuntimeException | IOException e) {
+                System.err.println("Could not catch up the log search index: " + e.getMessage());
+            } finally {
+                reindexing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Indexes the logs saved since a little before the last catch up, by this instance or by another one
+     * Skipped until the startup catch up has run, and while a reindex or another catch up runs
+     */
+    @Scheduled(fixedDelayString = "${log.search.catch-up.interval}")
+    public void catchUpRecent() {
+        LocalDateTime since = caughtUpSince;
+        if (since == null || !reindexing.compareAndSet(false, true)) {
+            return;
+        }
+        reindexer.execute(() -> {
+            try {
+                LocalDateTime start = LocalDateTime.now();
+                indexLogs(since.minusSeconds(PERIODIC_CATCH_UP_MARGIN_SECONDS));
+                caughtUpSince = start;
+            } catch (RuntimeException e) {
+                System.err.println("Could not catch up the log search index: " + e.getMessage());
+            } finally {
+                reindexing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Method for rebuilding the index from the database in the background
+     * Logs saved meanwhile are indexed as usual, searches see the rebuilt part of the index as it grows
+     * @return true if the reindex started, false if one is already running
+     */
+    public boolean reindex() {
+        if (!reindexing.compareAndSet(false, true)) {
+            return false;
+        }
+        reindexer.execute(() -> {
+            try {
+                LocalDateTime start = LocalDateTime.now();
+                indexWriter.deleteAll();
+                indexLogs(null);
+                commit();
+                caughtUpSince = start;
+            } catch (RuntimeException | IOException e) {
+                System.err.println("Could not reindex the logs: " + e.getMessage());
+            } finally {
+                reindexing.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Method for checking whether the index is being rebuilt
+     * @return true while a reindex or a catch up runs
+     */
+    public boolean isReindexing() {
+        return reindexing.get();
+    }
+
+    /**
+     * Method for indexing saved logs once the current transaction commits, or right away if there is no transaction
+     * Failures are only reported, they never fail the ingestion, a reindex repairs the index
+     * @param logEvents Saved log events, with their IDs
+     */
+    public void indexAfterCommit(List<LogEvent> logEvents) {
+        afterCommit(() -> index(logEvents));
+    }
+
+    /**
+     * Method for searching the logs
+     * The query uses the Lucene syntax, terms without a field are searched in the description and every payload field
+     * @param query Query, e.g. "hola@mail.com" or after.email:"hola@mail.com" AND description:update
+     * @param page Page number, starting at 0
+     * @param size Number of IDs per page, at most 100
+     * @return IDs of the matching logs of the page, best match first, and the total number of matches
+     * Logs deleted by another instance and not yet removed from the index are left out of the page, not of the total
+     */
+    public LogSearchResponse search(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be positive and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Only the first " + MAX_RESULT_WINDOW + " results can be paged through");
+        }
+        Query parsed = parse(query);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(parsed, (page + 1) * size);
+                StoredFields storedFields = searcher.storedFields();
+                List<Integer> ids = new ArrayList<>();
+                ScoreDoc[] hits = topDocs.scoreDocs;
+                for (int i = page * size; i < hits.length; i++) {
+                    ids.add(Integer.valueOf(storedFields.document(hits[i].doc, Set.of(ID)).get(ID)));
+                }
+                long totalHits = topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                        ? topDocs.totalHits.value : searcher.count(parsed);
+                return new LogSearchResponse(existingIds(ids), totalHits);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not search the logs", e);
+        }
+    }
+
+    /**
+     * Method for removing deleted logs from the index once the current transaction commits,
+     * or right away if there is no transaction, so a rolled back delete leaves them searchable
+     * @param ids IDs of the deleted logs
+     */
+    public void deleteAfterCommit(List<Integer> ids) {
+        afterCommit(() -> delete(ids));
+    }
+
+    /**
+     * Method for removing the logs created before the given date from the index once the current transaction commits,
+     * or right away if there is no transaction
+     * @param before Logs created before this date are removed
+     */
+    public void deleteCreatedBeforeAfterCommit(LocalDateTime before) {
+        afterCommit(() -> {
+            try {
+                indexWriter.deleteDocuments(LongPoint.newRangeQuery(CREATION_DATE, Long.MIN_VALUE, toMillis(before) - 1));
+            } catch (IOException e) {
+                System.err.println("Could not remove purged logs from the search index: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Method for emptying the index once the current transaction commits, or right away if there is no transaction
+     */
+    public void deleteAllAfterCommit() {
+        afterCommit(() -> {
+            try {
+                indexWriter.deleteAll();
+            } catch (IOException e) {
+                System.err.println("Could not empty the search index: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Makes the last indexed logs searchable
+     */
+    @Scheduled(fixedDelayString = "${log.search.refresh.interval}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            System.err.println("Could not refresh the log search index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the indexed logs to disk, so they survive a restart
+     */
+    @Scheduled(fixedDelayString = "${log.search.commit.interval}")
+    public void scheduledCommit() {
+        try {
+            commit();
+        } catch (IOException e) {
+            System.err.println("Could not commit the log search index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Commits and closes the index
+     */
+    @PreDestroy
+    public void close() {
+        reindexer.shutdownNow();
+        try {
+            commit();
+            searcherManager.close();
+            indexWriter.close();
+            directory.close();
+        } catch (IOException e) {
+            System.err.println("Could not close the log search index: " + e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void delete(List<Integer> ids) {
+        try {
+            indexWriter.deleteDocuments(ids.stream().map(id -> new Term(ID, id.toString())).toArray(Term[]::new));
+        } catch (IOException e) {
+            System.err.println("Could not remove deleted logs from the search index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps the IDs of the hits whose logs still exist, in their order, and removes the others from the index
+     */
+    private List<Integer> existingIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        Specification<LogEvent> byIds = (root, query, cb) -> root.get("id").in(ids);
+        Set<Integer> existing = new HashSet<>(transactionTemplate.execute(status ->
+                logEventRepository.findIdsAfter(byIds, null, ids.size())));
+        if (existing.size() == ids.size()) {
+            return ids;
+        }
+        List<Integer> deleted = ids.stream().filter(id -> !existing.contains(id)).toList();
+        delete(deleted);
+        return ids.stream().filter(existing::contains).toList();
+    }
+
+    private void index(List<LogEvent> logEvents) {
+        try {
+            for (LogEvent logEvent : logEvents) {
+                indexWriter.updateDocument(new Term(ID, logEvent.getId().toString()), toDocument(logEvent));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not index logs, reindex to repair the search index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes the logs of the database, oldest first
+     * @param from Only the logs created after this date are indexed, null for every log
+     * @return Number of logs indexed
+     */
+    private int indexLogs(LocalDateTime from) {
+        LogEventFilter filter = null;
+        if (from != null) {
+            filter = new LogEventFilter();
+            filter.setStartDate(from.toString());
+        }
+        try {
+            LogEventFilter logFilter = filter;
+            Integer indexed = transactionTemplate.execute(status -> {
+                int count = 0;
+                try (Stream<LogEvent> stream = logEventRepository.streamAll(LogEventSpecifications.fromFilter(logFilter), reindexFetchSize)) {
+                    Iterator<LogEvent> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        LogEvent logEvent = iterator.next();
+                        indexWriter.updateDocument(new Term(ID, logEvent.getId().toString()), toDocument(logEvent));
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            return indexed == null ? 0 : indexed;
+        } finally {
+            refresh();
+        }
+    }
+
+    private Document toDocument(LogEvent logEvent) {
+        Document document = new Document();
+        document.add(new StringField(ID, logEvent.getId().toString(), Field.Store.YES));
+        if (logEvent.getCreationDate() != null) {
+            document.add(new LongPoint(CREATION_DATE, toMillis(logEvent.getCreationDate())));
+        }
+        if (logEvent.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, logEvent.getDescription(), Field.Store.NO));
+        }
+        addPayload(document, "before", LogPayloadCodec.jsonBefore(logEvent));
+        addPayload(document, "after", LogPayloadCodec.jsonAfter(logEvent));
+        return document;
+    }
+
+    private void addPayload(Document document, String prefix, String json) {
+        if (json == null || json.isBlank()) {
+            return;
+        }
+        try {
+            addFields(document, prefix, objectMapper.readTree(json));
+        } catch (JsonProcessingException e) {
+            // Not JSON, searchable as a whole
+            document.add(new TextField(PAYLOAD, json, Field.Store.NO));
+        }
+    }
+
+    /**
+     * Adds every value of a JSON node under its path, array items under the path of the array
+     */
+    private void addFields(Document document, String path, JsonNode node) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                addFields(document, path + "." + field.getKey(), field.getValue());
+            }
+        } else if (node.isArray()) {
+            for (JsonNode item : node) {
+                addFields(document, path, item);
+            }
+        } else if (!node.isNull()) {
+            document.add(new TextField(path, node.asText(), Field.Store.NO));
+            document.add(new TextField(PAYLOAD, node.asText(), Field.Store.NO));
+        }
+    }
+
+    private Query parse(String query) {
+        QueryParser parser = new MultiFieldQueryParser(new String[]{DESCRIPTION, PAYLOAD}, analyzer);
+        try {
+            return parser.parse(query);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query: " + e.getMessage());
+        }
+    }
+
+    private void commit() throws IOException {
+        indexWriter.setLiveCommitData(Map.of(INDEXED_UNTIL, LocalDateTime.now().toString()).entrySet());
+        indexWriter.commit();
+    }
+
+    /**
+     * Time of the last commit of the index, null if it was never committed
+     */
+    private LocalDateTime indexedUntil() {
+        Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (INDEXED_UNTIL.equals(entry.getKey())) {
+                    return LocalDateTime.parse(entry.getValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
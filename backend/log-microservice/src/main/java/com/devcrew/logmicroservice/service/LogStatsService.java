@@ -0,0 +1,176 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.LogStatsBucket;
+import com.devcrew.logmicroservice.dto.LogStatsTopItem;
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.model.LogEventStatId;
+import com.devcrew.logmicroservice.repository.LogEventStatRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service class for the log statistics
+ * The number of log events per hour, module, action, entity and user is incremented as the log events are saved,
+ * in the same transaction, so histograms and top N queries read a few rollup rows instead of LOG_EVENT.
+ * Deleted log events are subtracted the same way, in the transaction that deletes them.
+ */
+@Service
+public class LogStatsService {
+
+    /**
+     * Maximum number of rows of a top N
+     */
+    private static final int MAX_TOP_LIMIT = 100;
+
+    /**
+     * Order in which the rollup rows are upserted, so concurrent batches lock them in the same order
+     */
+    private static final Comparator<LogEventStatId> KEY_ORDER = Comparator.comparing(LogEventStatId::getBucket)
+            .thenComparing(LogEventStatId::getModuleId)
+            .thenComparing(LogEventStatId::getActionId)
+            .thenComparing(LogEventStatId::getEntityId)
+            .thenComparing(LogEventStatId::getUserId);
+
+    /**
+     * Repository for LogEventStat entity
+     */
+    private final LogEventStatRepository logEventStatRepository;
+
+    /**
+     * Constructor for LogStatsService
+     * @param logEventStatRepository Repository for LogEventStat entity
+     */
+    @Autowired
+    public LogStatsService(LogEventStatRepository logEventStatRepository) {
+        this.logEventStatRepository = logEventStatRepository;
+    }
+
+    /**
+     * Method for counting saved log events in the statistics
+     * Must run in the transaction that saves them, the counts are committed or rolled back with the log events
+     * @param logEvents Saved log events, with their action, module, entity and user IDs resolved
+     */
+    public void recordLogEvents(Collection<LogEvent> logEvents) {
+        Map<LogEventStatId, Long> counts = new TreeMap<>(KEY_ORDER);
+        for (LogEvent logEvent : logEvents) {
+            LocalDateTime creationDate = logEvent.getCreationDate() != null ? logEvent.getCreationDate() : LocalDateTime.now();
+            LogEventStatId key = new LogEventStatId(
+                    creationDate.truncatedTo(ChronoUnit.HOURS),
+                    logEvent.getModuleId().getId(),
+                    logEvent.getActionId().getId(),
+                    logEvent.getEntityId().getId(),
+                    logEvent.getUserId().getId()
+            );
+            counts.merge(key, 1L, Long::sum);
+        }
+        if (!counts.isEmpty()) {
+            logEventStatRepository.batchIncrement(counts);
+        }
+    }
+
+    /**
+     * Method for removing deleted log events from the statistics
+     * Must run in the transaction that deletes them, the counts are committed or rolled back with the delete
+     * @param keys Statistics keys of the deleted log events, one per log event, read before deleting them
+     */
+    public void forgetLogEvents(Collection<LogEventStatId> keys) {
+        Map<LogEventStatId, Long> counts = new TreeMap<>(KEY_ORDER);
+        keys.forEach(key -> counts.merge(key, 1L, Long::sum));
+        if (!counts.isEmpty()) {
+            logEventStatRepository.batchDecrement(counts);
+        }
+    }
+
+    /**
+     * Method for deleting every statistic, when every log event is deleted
+     */
+    public void deleteAllStats() {
+        logEventStatRepository.truncate();
+    }
+
+    /**
+     * Method for getting the number of log events per hour or day
+     * @param from Start of the range, rounded down to the hour
+     * @param to End of the range, excluded
+     * @param interval hour or day
+     * @param moduleId Module counted, null for every module
+     * @param actionId Action counted, null for every action
+     * @param entityId Entity counted, null for every entity
+     * @param userId User counted, null for every user
+     * @return Number of log events of every hour or day that has some, in ascending order
+     */
+    public List<LogStatsBucket> getHistogram(LocalDateTime from, LocalDateTime to, String interval,
+                                             Integer moduleId, Integer actionId, Integer entityId, Integer userId) {
+        checkRange(from, to);
+        ChronoUnit unit = switch (interval.toLowerCase()) {
+            case "hour" -> ChronoUnit.HOURS;
+            case "day" -> ChronoUnit.DAYS;
+            default -> throw new IllegalArgumentException("Interval must be hour or day");
+        };
+        List<LogStatsBucket> hours = logEventStatRepository.countPerHour(from.truncatedTo(ChronoUnit.HOURS), to,
+                moduleId, actionId, entityId, userId);
+        if (unit == ChronoUnit.HOURS) {
+            return hours;
+        }
+        // Hours come sorted, so the hours of a day are consecutive
+        List<LogStatsBucket> days = new ArrayList<>();
+        for (LogStatsBucket hour : hours) {
+            LocalDateTime day = hour.getBucket().truncatedTo(ChronoUnit.DAYS);
+            LogStatsBucket last = days.isEmpty() ? null : days.get(days.size() - 1);
+            if (last != null && last.getBucket().equals(day)) {
+                last.setCount(last.getCount() + hour.getCount());
+            } else {
+                days.add(new LogStatsBucket(day, hour.getCount()));
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Method for getting the users, modules, actions or entities with the most log events
+     * @param from Start of the range, rounded down to the hour
+     * @param to End of the range, excluded
+     * @param dimension user, module, action or entity
+     * @param limit Maximum number of rows, at most 100
+     * @return Users, modules, actions or entities and their number of log events, highest first
+     */
+    public List<LogStatsTopItem> getTop(LocalDateTime from, LocalDateTime to, String dimension, int limit) {
+        checkRange(from, to);
+        if (limit < 1 || limit > MAX_TOP_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TOP_LIMIT);
+        }
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        return switch (dimension.toLowerCase()) {
+            case "user" -> logEventStatRepository.topUsers(start, to, Limit.of(limit));
+            case "module" -> logEventStatRepository.topModules(start, to, Limit.of(limit));
+            case "action" -> logEventStatRepository.topActions(start, to, Limit.of(limit));
+            case "entity" -> logEventStatRepository.topEntities(start, to, Limit.of(limit));
+            default -> throw new IllegalArgumentException("Dimension must be user, module, action or entity");
+        };
+    }
+
+    /**
+     * Method for deleting the statistics of the hours before the given date
+     * @param before Statistics of the hours starting before this date are deleted
+     * @return Number of rows deleted
+     */
+    public int deleteStatsBefore(LocalDateTime before) {
+        return logEventStatRepository.deleteBucketsBefore(before);
+    }
+
+    private void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("The start of the range must be before its end");
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.*;
+import com.devcrew.logmicroservice.mapper.LogEventMapper;
+import com.devcrew.logmicroservice.model.LogEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Service class that streams the logs to live tail subscribers over Server-Sent Events.
+ * Logs are pushed as their ingestion transaction commits, so viewers cost no query and don't touch the caches.
+ * Each subscriber has its own filter and a bounded buffer drained by a small pool of sender threads.
+ * When a subscriber reads slower than logs arrive its oldest buffered logs are dropped,
+ * and it is sent a dropped event with the number of logs it missed.
+ * A send blocks its sender thread while the client's socket is full, so sends are bounded:
+ * a subscriber whose send takes longer than log.tail.send.timeout gets nothing more,
+ * and its emitter is completed with an error once the container gives up on the write.
+ * Heartbeats go through the same buffer hand-off, so a subscriber has at most one send queued or in progress.
+ */
+@Service
+public class LogTailService {
+
+    /**
+     * Subscribers currently connected
+     */
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Threads writing the buffered logs to the subscribers
+     */
+    private final ExecutorService senders;
+
+    /**
+     * Maximum number of logs buffered per subscriber
+     */
+    private final int bufferSize;
+
+    /**
+     * Time in milliseconds after which a subscription ends, the client reconnects
+     */
+    private final long timeout;
+
+    /**
+     * Maximum number of subscribers connected at once
+     */
+    private final int maxSubscribers;
+
+    /**
+     * Time in milliseconds a send may take before the subscription is ended
+     */
+    private final long sendTimeout;
+
+    /**
+     * Constructor for LogTailService
+     * @param bufferSize Maximum number of logs buffered per subscriber
+     * @param timeout Time in milliseconds after which a subscription ends, the client reconnects
+     * @param maxSubscribers Maximum number of subscribers connected at once
+     * @param senderThreads Number of threads writing the buffered logs to the subscribers
+     * @param sendTimeout Time in milliseconds a send may take before the subscription is ended
+     */
+    @Autowired
+    public LogTailService(@Value("${log.tail.buffer.size}") int bufferSize,
+                          @Value("${log.tail.timeout}") long timeout,
+                          @Value("${log.tail.max.subscribers}") int maxSubscribers,
+                          @Value("${log.tail.sender.threads}") int senderThreads,
+                          @Value("${log.tail.send.timeout}") long sendTimeout) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.sendTimeout = sendTimeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "log-tail-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method for subscribing to the live tail
+     * @param filter Filter for logs, null or empty to receive every log
+     * @return Emitter sending a log event for every new log matching the filter
+     */
+    public SseEmitter subscribe(LogEventFilter filter) {
+        return subscribe(filter, new SseEmitter(timeout));
+    }
+
+    /**
+     * Method for subscribing an emitter to the live tail
+     * @param filter Filter for logs, null or empty to receive every log
+     * @param emitter Emitter of the subscriber's response
+     * @return The emitter
+     */
+    SseEmitter subscribe(LogEventFilter filter, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, matcher(filter));
+        // Subscribers are removed without the lock, which only makes room, so the check and the add can't exceed the maximum
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live tail subscribers");
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Method for checking whether anyone is watching the live tail
+     * @return true if at least one subscriber is connected
+     */
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Method for publishing saved logs once the current transaction commits, or right away if there is no transaction
+     * Nothing is mapped when no subscriber is connected
+     * @param logEvents Saved log events
+     */
+    public void publishAfterCommit(List<LogEvent> logEvents) {
+        if (!hasSubscribers()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(logEvents.stream().map(LogEventMapper::toDTO).toList());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(logEvents.stream().map(LogEventMapper::toDTO).toList());
+            }
+        });
+    }
+
+    /**
+     * Method for publishing logs to the subscribers whose filter they match
+     * It only buffers the logs, it never waits for a subscriber
+     * @param logs Logs to publish
+     */
+    public void publish(List<LogEventDTO> logs) {
+        for (Subscriber subscriber : subscribers) {
+            boolean offered = false;
+            for (LogEventDTO log : logs) {
+                if (subscriber.filter.test(log)) {
+                    subscriber.offer(log);
+                    offered = true;
+                }
+            }
+            if (offered) {
+                subscriber.schedule();
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber, so proxies don't close idle connections
+     * Subscribers in the middle of a send are skipped, their connection isn't idle
+     */
+    @Scheduled(fixedDelayString = "${log.tail.heartbeat.interval}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sendStartedAt == 0) {
+                subscriber.heartbeat.set(true);
+                subscriber.schedule();
+            }
+        }
+    }
+
+    /**
+     * Drops the subscribers whose send has taken longer than the send timeout
+     * Their emitter is completed with an error once the send returns, they get nothing more meanwhile
+     */
+    @Scheduled(fixedDelayString = "${log.tail.send.timeout}")
+    public void dropStalledSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long sendStartedAt = subscriber.sendStartedAt;
+            if (sendStartedAt > 0 && now - sendStartedAt > sendTimeout) {
+                subscriber.stalled = true;
+                subscribers.remove(subscriber);
+                subscriber.buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Ends every subscription, the clients reconnect to another instance
+     */
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Builds the predicate of a filter, with the same meaning as the filter of the paginated logs
+     * @param filter Filter for logs
+     * @return Predicate matching the logs of the filter
+     */
+    private static Predicate<LogEventDTO> matcher(LogEventFilter filter) {
+        if (filter == null) {
+            return log -> true;
+        }
+        ActionDTO action = filter.getAction();
+        AppModuleDTO module = filter.getModule();
+        AppEntityDTO entity = filter.getEntity();
+        LogUserDTO user = filter.getUserId();
+        LocalDateTime startDate = filter.getStartDate() == null ? null : LocalDateTime.parse(filter.getStartDate());
+        LocalDateTime endDate = filter.getEndDate() == null ? null : LocalDateTime.parse(filter.getEndDate());
+        return log -> matches(filter.getId(), log.getIdentifier())
+                && (action == null || log.getAction() != null
+                        && matches(action.getIdentifier(), log.getAction().getIdentifier())
+                        && matches(action.getName_action(), log.getAction().getName_action()))
+                && (module == null || log.getAppModule() != null
+                        && matches(module.getIdentifier(), log.getAppModule().getIdentifier())
+                        && matches(module.getName_module(), log.getAppModule().getName_module()))
+                && (entity == null || log.getAppEntity() != null
+                        && matches(entity.getIdentifier(), log.getAppEntity().getIdentifier())
+                        && matches(entity.getName_entity(), log.getAppEntity().getName_entity()))
+                && (user == null || log.getUser_identifier() != null
+                        && matches(user.getId(), log.getUser_identifier().getId())
+                        && matches(user.getUsername(), log.getUser_identifier().getUsername())
+                        && matches(user.getEmail(), log.getUser_identifier().getEmail()))
+                && (startDate == null || log.getCreationDate() != null && log.getCreationDate().isAfter(startDate))
+                && (endDate == null || log.getCreationDate() != null && log.getCreationDate().isBefore(endDate));
+    }
+
+    private static boolean matches(Object expected, Object actual) {
+        return expected == null || Objects.equals(expected, actual);
+    }
+
+    /**
+     * A live tail subscriber, its filter and its buffer
+     */
+    private final class Subscriber {
+
+        /**
+         * Emitter of the subscriber's response
+         */
+        private final SseEmitter emitter;
+
+        /**
+         * Logs the subscriber receives
+         */
+        private final Predicate<LogEventDTO> filter;
+
+        /**
+         * Logs waiting to be sent
+         */
+        private final ArrayBlockingQueue<LogEventDTO> buffer;
+
+        /**
+         * Number of logs dropped since the last dropped event
+         */
+        private final AtomicInteger dropped = new AtomicInteger();
+
+        /**
+         * True while a sender thread drains the buffer or is about to
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * True while a heartbeat is due, it is sent by the next drain unless there are logs to send
+         */
+        private final AtomicBoolean heartbeat = new AtomicBoolean();
+
+        /**
+         * Time in epoch milliseconds the send in progress started at, 0 when no send is in progress
+         */
+        private volatile long sendStartedAt;
+
+        /**
+         * True once the subscriber has been dropped for a send taking longer than the send timeout
+         */
+        private volatile boolean stalled;
+
+        private Subscriber(SseEmitter emitter, Predicate<LogEventDTO> filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Buffers a log, dropping the oldest ones if the buffer is full
+         * @param log Log to send
+         */
+        private void offer(LogEventDTO log) {
+            while (!buffer.offer(log)) {
+                if (buffer.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Hands the buffer to a sender thread, unless one already has it
+         */
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Sends the buffered logs, or the heartbeat if there are none, then gives the buffer back
+         */
+        private void drain() {
+            try {
+                int missed = dropped.getAndSet(0);
+                if (heartbeat.getAndSet(false) && missed == 0 && buffer.isEmpty()
+                        && !send(SseEmitter.event().comment("heartbeat"))) {
+                    return;
+                }
+                if (missed > 0 && !send(SseEmitter.event().name("dropped").data(missed))) {
+                    return;
+                }
+                LogEventDTO log;
+                while ((log = buffer.poll()) != null) {
+                    if (!send(SseEmitter.event().name("log").data(log, MediaType.APPLICATION_JSON))) {
+                        return;
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // Logs buffered or a heartbeat due after the last poll but before the flag was cleared
+            if (!buffer.isEmpty() || heartbeat.get()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Sends an event, ending the subscription if the client is gone or the send took too long
+         * @param event Event to send
+         * @return true if the event was sent and the subscription goes on
+         */
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            if (stalled) {
+                return false;
+            }
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                end(e);
+                return false;
+            } finally {
+                sendStartedAt = 0;
+            }
+            if (stalled) {
+                end(new IOException("Live tail send took longer than " + sendTimeout + " ms"));
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Ends the subscription, the client sees the response fail and can reconnect
+         * @param error Cause of the end of the subscription
+         */
+        private void end(Throwable error) {
+            subscribers.remove(this);
+            buffer.clear();
+            emitter.completeWithError(error);
+        }
+    }
+}
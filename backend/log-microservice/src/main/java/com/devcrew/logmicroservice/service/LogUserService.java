@@ -0,0 +1,130 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.model.LogUser;
+import com.devcrew.logmicroservice.repository.LogUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service class that resolves the users of incoming log events.
+ * It keeps a bounded cache of the last known state of each user, so a user is only written
+ * when it is new or its username or email actually changed.
+ */
+@Service
+public class LogUserService {
+
+    /**
+     * Repository for LogUser entity
+     */
+    private final LogUserRepository logUserRepository;
+
+    /**
+     * Last known state of the most recently seen users, keyed by user id and evicted in LRU order
+     */
+    private final Map<Integer, LogUser> knownUsers;
+
+    /**
+     * Constructor for LogUserService
+     * @param logUserRepository Repository for LogUser entity
+     * @param cacheSize Maximum number of users kept in the cache
+     */
+    @Autowired
+    public LogUserService(LogUserRepository logUserRepository, @Value("${log.user.cache.size}") int cacheSize) {
+        this.logUserRepository = logUserRepository;
+        this.knownUsers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LogUser> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Upserts the users that are new or changed, with a single JDBC batch.
+     * Must be called inside the transaction that inserts the log events of these users.
+     * @param users Users referenced by a batch of log events, at most one per id
+     */
+    public void saveUsers(Collection<LogUser> users) {
+        List<LogUser> changed = users.stream().filter(this::isChanged).toList();
+        if (changed.isEmpty()) {
+            return;
+        }
+        logUserRepository.batchUpsert(changed);
+        remember(changed);
+    }
+
+    /**
+     * Saves a single user if it is new or changed.
+     * @param user User referenced by a log event
+     * @return Managed user, or a reference to it when nothing changed
+     */
+    public LogUser saveUser(LogUser user) {
+        if (!isChanged(user)) {
+            return logUserRepository.getReferenceById(user.getId());
+        }
+        LogUser saved = logUserRepository.save(user);
+        remember(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Checks the user against the cache.
+     * @param user User to check
+     * @return true if the user isn't cached or its username or email differ from the cached ones
+     */
+    private boolean isChanged(LogUser user) {
+        LogUser known;
+        synchronized (knownUsers) {
+            known = knownUsers.get(user.getId());
+        }
+        return known == null
+                || !Objects.equals(known.getUsername(), user.getUsername())
+                || !Objects.equals(known.getEmail(), user.getEmail());
+    }
+
+    /**
+     * Caches the written users once the transaction commits.
+     * If it rolls back they are evicted instead, so the next attempt writes them again.
+     * @param users Users written in the current transaction
+     */
+    private void remember(List<LogUser> users) {
+        List<LogUser> snapshots = users.stream()
+                .map(user -> new LogUser(user.getId(), user.getUsername(), user.getEmail()))
+                .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache(snapshots);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    cache(snapshots);
+                } else {
+                    evict(snapshots);
+                }
+            }
+        });
+    }
+
+    private void cache(List<LogUser> snapshots) {
+        synchronized (knownUsers) {
+            snapshots.forEach(user -> knownUsers.put(user.getId(), user));
+        }
+    }
+
+    private void evict(List<LogUser> snapshots) {
+        synchronized (knownUsers) {
+            snapshots.forEach(user -> knownUsers.remove(user.getId()));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.devcrew.logmicroservice.config;
+
+import com.devcrew.logmicroservice.dto.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CompactRedisSerializer.
+ * This class contains round trip tests and a comparison of the stored sizes with the JSON serializer it replaces,
+ * and a benchmark of the encode and decode time that only runs with -DloadTest=true.
+ */
+public class CompactRedisSerializerTest {
+
+    /**
+     * Maximum ratio of the compact serializer time to the JSON serializer time.
+     */
+    private static final int MAX_TIME_FACTOR = 3;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactRedisSerializerTest.class);
+
+    private ObjectMapper objectMapper;
+
+    private RedisSerializer<Object> jsonSerializer;
+
+    private CompactRedisSerializer compactSerializer;
+
+    /**
+     * This method is used to set up both serializers with a mapper configured like the application one.
+     */
+    @BeforeEach
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        jsonSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+        compactSerializer = new CompactRedisSerializer(objectMapper, 1024);
+    }
+
+    /**
+     * Test that small and large values read back as the JSON serializer would read them.
+     */
+    @Test
+    public void testRoundTrip_ReadsLikeJson() {
+        for (Object value : List.of(logs(1), logs(500), paginatedLogs(50))) {
+            Object expected = jsonSerializer.deserialize(jsonSerializer.serialize(value));
+
+            assertEquals(expected, compactSerializer.deserialize(compactSerializer.serialize(value)));
+        }
+    }
+
+    /**
+     * Test that values written by the JSON serializer, before the switch, are still readable.
+     */
+    @Test
+    public void testDeserialize_ReadsJsonValues() {
+        byte[] json = jsonSerializer.serialize(logs(3));
+
+        assertEquals(jsonSerializer.deserialize(json), compactSerializer.deserialize(json));
+        assertEquals("value", compactSerializer.deserialize("\"value\"".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Test that compression is skipped below the threshold and can be disabled.
+     */
+    @Test
+    public void testSerialize_CompressionThreshold() {
+        Object value = logs(500);
+        byte[] plain = new CompactRedisSerializer(objectMapper, -1).serialize(value);
+        byte[] deflated = compactSerializer.serialize(value);
+
+        assertEquals(0, plain[0]);
+        assertEquals(1, deflated[0]);
+        assertTrue(deflated.length < plain.length);
+        assertEquals(0, compactSerializer.serialize(logs(1))[0]);
+        assertNull(compactSerializer.deserialize(compactSerializer.serialize(null)));
+    }
+
+    /**
+     * Test that the cached values take a fraction of the bytes the JSON serializer stores for them,
+     * the larger the value the smaller the fraction.
+     */
+    @Test
+    public void testSerialize_SmallerThanJson() {
+        Map<Object, Double> maxRatios = Map.of(
+                logs(20), 0.15,
+                logs(1000), 0.08,
+                paginatedLogs(100), 0.1
+        );
+        maxRatios.forEach((value, maxRatio) -> {
+            int jsonBytes = jsonSerializer.serialize(value).length;
+            int compactBytes = compactSerializer.serialize(value).length;
+
+            assertTrue(compactBytes <= jsonBytes * maxRatio, compactBytes + " bytes for " + jsonBytes + " bytes of JSON");
+        });
+    }
+
+    /**
+     * Compares the encode and decode time of both serializers for the cached values, after a warm-up.
+     * The times are logged; the compact serializer may cost more CPU than JSON,
+     * which it trades for the bytes sent to Redis, but within a bounded factor.
+     * It takes a while, so it only runs with -DloadTest=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    public void testCompareTimeWithJson() {
+        Map<String, Object> values = Map.of(
+                "logs(20)", logs(20),
+                "logs(1000)", logs(1000),
+                "paginatedLogs(100)", paginatedLogs(100)
+        );
+        values.forEach((name, value) -> {
+            long jsonMicros = time(jsonSerializer, value);
+            long compactMicros = time(compactSerializer, value);
+            String report = "json %d us, compact %d us per encode and decode".formatted(jsonMicros, compactMicros);
+            LOGGER.info("{}: {}", name, report);
+
+            assertTrue(compactMicros <= Math.max(jsonMicros, 1) * MAX_TIME_FACTOR, name + ": " + report);
+        });
+    }
+
+    /**
+     * Times the serializer after a warm-up.
+     * @return Average time of an encode and a decode, in microseconds
+     */
+    private static long time(RedisSerializer<Object> serializer, Object value) {
+        int iterations = 200;
+        for (int i = 0; i < iterations; i++) {
+            serializer.deserialize(serializer.serialize(value));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            serializer.deserialize(serializer.serialize(value));
+        }
+        return (System.nanoTime() - start) / iterations / 1000;
+    }
+
+    private static List<LogEventDTO> logs(int count) {
+        List<LogEventDTO> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(LogEventDTO.builder()
+                    .identifier(i)
+                    .description("User profile updated")
+                    .jsonBefore("{\"username\":\"user" + i + "\",\"email\":\"user" + i + "@mail.com\",\"role\":\"USER\"}")
+                    .jsonAfter("{\"username\":\"user" + i + "\",\"email\":\"new" + i + "@mail.com\",\"role\":\"USER\"}")
+                    .action(new ActionDTO(2, "UPDATE"))
+                    .appEntity(new AppEntityDTO(1, "User"))
+                    .appModule(new AppModuleDTO(1, "UserModule"))
+                    .user_identifier(new LogUserDTO(i % 10, "user" + (i % 10), "user" + (i % 10) + "@mail.com"))
+                    .creationDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i))
+                    .build());
+        }
+        return logs;
+    }
+
+    private static PaginatedLogsResponse paginatedLogs(int size) {
+        PageRequest pageable = PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "creationDate", "id"));
+        return new PaginatedLogsResponse(new PageImpl<>(logs(size), pageable, 10_000), 10_000);
+    }
+}
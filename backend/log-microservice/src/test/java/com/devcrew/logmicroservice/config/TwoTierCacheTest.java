@@ -0,0 +1,95 @@
+package com.devcrew.logmicroservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for TwoTierCache.
+ * This class contains tests for the interaction between the local and the remote tier.
+ */
+public class TwoTierCacheTest {
+
+    private ConcurrentMapCache remoteCache;
+
+    private List<String> invalidations;
+
+    private TwoTierCache cache;
+
+    /**
+     * This method is used to set up a two-tier cache backed by an in-memory remote tier.
+     */
+    @BeforeEach
+    public void setUp() {
+        remoteCache = new ConcurrentMapCache("actions");
+        invalidations = new ArrayList<>();
+        cache = new TwoTierCache("actions", Caffeine.newBuilder().maximumSize(10).build(), remoteCache,
+                (name, key) -> invalidations.add(name + ":" + key));
+    }
+
+    /**
+     * Test that a remote hit is kept in the local tier, so later reads don't reach the remote one.
+     */
+    @Test
+    public void testGet_RemoteHitIsCachedLocally() {
+        remoteCache.put("key", "value");
+
+        assertEquals("value", cache.get("key", String.class));
+        remoteCache.evict("key");
+
+        assertEquals("value", cache.get("key", String.class));
+        assertTrue(invalidations.isEmpty());
+    }
+
+    /**
+     * Test that reads through the loader variant fill the local tier without announcing it,
+     * whether the value was already remote or had to be loaded.
+     */
+    @Test
+    public void testGetWithLoader_IsNotAnnounced() {
+        remoteCache.put("key", "value");
+
+        assertEquals("value", cache.get("key", () -> "loaded"));
+        assertEquals("loaded", cache.get("otherKey", () -> "loaded"));
+        assertEquals("loaded", remoteCache.get("otherKey", String.class));
+        remoteCache.clear();
+
+        assertEquals("value", cache.get("key", () -> "reloaded"));
+        assertEquals("loaded", cache.get("otherKey", () -> "reloaded"));
+        assertTrue(invalidations.isEmpty());
+    }
+
+    /**
+     * Test that writes reach both tiers and are announced to the other instances.
+     */
+    @Test
+    public void testPutAndEvict_AreAnnounced() {
+        cache.put("key", "value");
+        assertEquals("value", remoteCache.get("key", String.class));
+
+        cache.evict("key");
+        assertNull(cache.get("key"));
+        cache.clear();
+
+        assertEquals(List.of("actions:key", "actions:key", "actions:null"), invalidations);
+    }
+
+    /**
+     * Test that an invalidation from another instance only drops the local copy.
+     */
+    @Test
+    public void testEvictLocal() {
+        cache.put("key", "value");
+        remoteCache.put("key", "newValue");
+
+        cache.evictLocal("key");
+
+        assertEquals("newValue", cache.get("key", String.class));
+    }
+}
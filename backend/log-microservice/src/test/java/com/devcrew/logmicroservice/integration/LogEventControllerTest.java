@@ -1,8 +1,10 @@
 package com.devcrew.logmicroservice.integration;
 
+import com.devcrew.logmicroservice.dto.LogMessage;
 import com.devcrew.logmicroservice.model.*;
 import com.devcrew.logmicroservice.repository.LogEventRepository;
 import com.devcrew.logmicroservice.repository.LogUserRepository;
+import com.devcrew.logmicroservice.service.LogEventService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,8 +12,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -48,6 +58,12 @@ public class LogEventControllerTest {
     @Autowired
     private LogUserRepository logUserRepository;
 
+    /**
+     * The LogEventService object is used to save the logs pushed to the live tail.
+     */
+    @Autowired
+    private LogEventService logEventService;
+
     /**
      * This method is used to set up the test environment before each test.
      */
@@ -93,4 +109,71 @@ public class LogEventControllerTest {
                 .andExpect(jsonPath("$[0].appModule.identifier").exists())
                 .andExpect(jsonPath("$[0].appEntity.identifier").exists());
     }
-}
\ No newline at end of file
+
+    /**
+     * This method is used to test that the getLogsByCursor method of the LogEventController class
+     * answers a page size of 0 or negative with a bad request, while there are logs to return.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testGetLogsByCursor_InvalidSize() throws Exception {
+        for (String size : new String[]{"0", "-1"}) {
+            mockMvc.perform(get("/log/get-logs-by-cursor")
+                            .header("X-API-Key", internalApiKey)
+                            .param("size", size)
+                            .param("sortDirection", "desc"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    /**
+     * This method is used to test the exportLogs method of the LogEventController class.
+     * It should stream the log created in setUp as a single line of JSON.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testExportLogs() throws Exception {
+        MvcResult result = mockMvc.perform(get("/log/export-logs")
+                        .header("X-API-Key", internalApiKey))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, body.lines().count());
+        assertTrue(body.contains("\"description\":\"user\""));
+    }
+
+    /**
+     * This method is used to test the tailLogs method of the LogEventController class.
+     * It should push the logs saved after subscribing that match the filter, and only them.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testTailLogs() throws Exception {
+        MvcResult result = mockMvc.perform(get("/log/tail")
+                        .header("X-API-Key", internalApiKey)
+                        .param("userId.id", "7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        logEventService.saveLogEvents(List.of(message(7, "tailed"), message(8, "filtered out")));
+
+        String body = "";
+        for (int i = 0; i < 50 && !body.contains("tailed"); i++) {
+            Thread.sleep(100);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:log"));
+        assertTrue(body.contains("\"description\":\"tailed\""));
+        assertFalse(body.contains("filtered out"));
+        assertFalse(body.contains("\"description\":\"user\""));
+    }
+
+    private static LogMessage message(int userId, String description) {
+        return new LogMessage(null, null, null, "Create", "User", "LOG_USER",
+                userId, "user" + userId, "user" + userId + "@mail.com", description, "{}", "{}");
+    }
+}
@@ -0,0 +1,155 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.model.Action;
+import com.devcrew.logmicroservice.repository.ActionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class is responsible for testing the LogDictionaryService class.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class LogDictionaryServiceTest {
+
+    /**
+     * The ActionRepository instance, used to change the actions as another instance would.
+     */
+    @Autowired
+    private ActionRepository actionRepository;
+
+    /**
+     * The ActionService instance.
+     */
+    @Autowired
+    private ActionService actionService;
+
+    /**
+     * The LogDictionaryService instance.
+     */
+    @Autowired
+    private LogDictionaryService logDictionaryService;
+
+    /**
+     * Transaction manager used to roll back a rename.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Id of the action saved for each test
+     */
+    private Integer archiveId;
+
+    /**
+     * This method is used to save an action named Archive and load it into the dictionary.
+     */
+    @BeforeEach
+    public void setUp() {
+        archiveId = actionRepository.save(Action.builder().name("Archive").build()).getId();
+        logDictionaryService.refresh();
+    }
+
+    /**
+     * This method is used to remove the saved action from the database and the dictionary.
+     */
+    @AfterEach
+    public void tearDown() {
+        actionRepository.findById(archiveId).ifPresent(actionRepository::delete);
+        logDictionaryService.refresh();
+    }
+
+    /**
+     * This method is used to test that the rows saved at startup are preloaded.
+     */
+    @Test
+    public void testPreloadedAtStartup() {
+        assertEquals(1, logDictionaryService.getActionId("Create"));
+        assertEquals(4, logDictionaryService.getActionId("Delete"));
+        assertEquals(1, logDictionaryService.getModuleId("User"));
+    }
+
+    /**
+     * This method is used to test that a loaded name resolves from memory, without reading the database.
+     */
+    @Test
+    public void testHitWithoutDatabase() {
+        actionRepository.deleteById(archiveId);
+
+        assertEquals(archiveId, logDictionaryService.getActionId("Archive"));
+    }
+
+    /**
+     * This method is used to test that a name missing from the dictionary is looked up in the database,
+     * and that a name missing from both is rejected.
+     */
+    @Test
+    public void testMissFallsBackToDatabase() {
+        Integer otherId = actionRepository.save(Action.builder().name("Restore").build()).getId();
+        try {
+            assertEquals(otherId, logDictionaryService.getActionId("Restore"));
+            assertThrows(IllegalArgumentException.class, () -> logDictionaryService.getActionId("Unknown"));
+        } finally {
+            actionRepository.deleteById(otherId);
+        }
+    }
+
+    /**
+     * This method is used to test that a rename drops the old name, and a delete the name.
+     */
+    @Test
+    public void testRenameAndDelete() {
+        actionService.updateAction(archiveId, "Archived");
+
+        assertEquals(archiveId, logDictionaryService.getActionId("Archived"));
+        assertThrows(IllegalArgumentException.class, () -> logDictionaryService.getActionId("Archive"));
+
+        actionService.deleteAction(archiveId);
+
+        assertThrows(IllegalArgumentException.class, () -> logDictionaryService.getActionId("Archived"));
+    }
+
+    /**
+     * This method is used to test that a rolled back rename never reaches the dictionary.
+     */
+    @Test
+    public void testRolledBackRename() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            actionService.updateAction(archiveId, "Archived");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(archiveId, logDictionaryService.getActionId("Archive"));
+        assertThrows(IllegalArgumentException.class, () -> logDictionaryService.getActionId("Archived"));
+    }
+
+    /**
+     * This method is used to test that a rename and a delete made through another instance are picked up by the refresh.
+     */
+    @Test
+    public void testRefreshPicksUpOtherInstanceChanges() {
+        Action action = actionRepository.findById(archiveId).orElseThrow();
+        action.setName("Archived");
+        actionRepository.save(action);
+        assertEquals(archiveId, logDictionaryService.getActionId("Archive"));
+
+        logDictionaryService.refreshPeriodically();
+
+        assertEquals(archiveId, logDictionaryService.getActionId("Archived"));
+        assertThrows(IllegalArgumentException.class, () -> logDictionaryService.getActionId("Archive"));
+
+        actionRepository.deleteById(archiveId);
+        logDictionaryService.refreshPeriodically();
+
+        assertThrows(IllegalArgumentException.class, () -> logDictionaryService.getActionId("Archived"));
+    }
+}
@@ -1,6 +1,10 @@
 package com.devcrew.logmicroservice.service;
 
+import com.devcrew.logmicroservice.dto.CursorLogsResponse;
 import com.devcrew.logmicroservice.dto.LogEventDTO;
+import com.devcrew.logmicroservice.dto.LogEventFilter;
+import com.devcrew.logmicroservice.dto.LogMessage;
+import com.devcrew.logmicroservice.dto.PaginatedLogsResponse;
 import com.devcrew.logmicroservice.model.*;
 import com.devcrew.logmicroservice.repository.LogEventRepository;
 import com.devcrew.logmicroservice.repository.LogUserRepository;
@@ -8,11 +12,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * This class is responsible for testing the LogEventService class.
@@ -36,16 +49,24 @@ public class LogEventServiceTest {
      */
     private final LogUserRepository logUserRepository;
 
+    /**
+     * The LogPayloadMigrationService instance.
+     */
+    private final LogPayloadMigrationService logPayloadMigrationService;
+
     /**
      * This is the constructor of the LogEventServiceTest class.
      * @param logEventRepository - the LogEventRepository instance
      * @param logEventService - the LogEventService instance
+     * @param logPayloadMigrationService - the LogPayloadMigrationService instance
      */
     @Autowired
-    public LogEventServiceTest(LogEventRepository logEventRepository, LogEventService logEventService, LogUserRepository logUserRepository) {
+    public LogEventServiceTest(LogEventRepository logEventRepository, LogEventService logEventService, LogUserRepository logUserRepository,
+                               LogPayloadMigrationService logPayloadMigrationService) {
         this.logEventRepository = logEventRepository;
         this.logEventService = logEventService;
         this.logUserRepository = logUserRepository;
+        this.logPayloadMigrationService = logPayloadMigrationService;
     }
 
     /**
@@ -86,7 +107,8 @@ public class LogEventServiceTest {
 
         assertEquals(1, logEventDTOList.size());
         LogEventDTO logEventDTO = logEventDTOList.get(0);
-        assertEquals(1, logEventDTO.getIdentifier());
+        // Ids come from a sequence that other tests keep advancing
+        assertEquals(logEventRepository.findAll().get(0).getId(), logEventDTO.getIdentifier());
         assertEquals("Create", logEventDTO.getAction().getName_action());
         assertEquals("User", logEventDTO.getAppModule().getName_module());
         assertEquals("ACTION", logEventDTO.getAppEntity().getName_entity());
@@ -94,4 +116,174 @@ public class LogEventServiceTest {
         assertEquals("{}", logEventDTO.getJsonBefore());
         assertEquals("{}", logEventDTO.getJsonAfter());
     }
-}
\ No newline at end of file
+
+    /**
+     * This method is used to test the saveLogEvents method.
+     * Every valid message of the batch should be persisted, while a message with an unknown action is rejected.
+     */
+    @Test
+    public void testSaveLogEvents() {
+        LogMessage logMessage = new LogMessage(null, null, null, "Update", "User", "LOG_USER",
+                2, "batchUser", "batch@mail.com", "batch", "{}", "{}");
+        LogMessage unknownAction = new LogMessage(null, null, null, "Unknown", "User", "LOG_USER",
+                2, "batchUser", "batch@mail.com", "batch", "{}", "{}");
+
+        List<LogMessage> rejected = logEventService.saveLogEvents(List.of(logMessage, logMessage, unknownAction));
+
+        assertEquals(List.of(unknownAction), rejected);
+        assertEquals(3, logEventRepository.findAll().size());
+        assertEquals("batchUser", logUserRepository.findById(2).orElseThrow().getUsername());
+    }
+
+    /**
+     * This method is used to test that the logs of a batch get IDs and creation dates increasing in the order
+     * of the messages, and that the IDs of a batch are contiguous, every ID reserved by the sequence being used.
+     */
+    @Test
+    public void testSaveLogEventsKeepsMessageOrder() {
+        logEventRepository.deleteAll();
+        List<LogMessage> logMessages = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            logMessages.add(new LogMessage(null, null, null, "Update", "User", "LOG_USER",
+                    2, "batchUser", "batch@mail.com", "event " + i, "{}", "{}"));
+        }
+
+        logEventService.saveLogEvents(logMessages);
+
+        List<LogEvent> logs = logEventRepository.findAll(Sort.by("creationDate", "id"));
+        assertEquals(logMessages.stream().map(LogMessage::getDescription).toList(),
+                logs.stream().map(LogEvent::getDescription).toList());
+        for (int i = 1; i < logs.size(); i++) {
+            assertEquals(logs.get(i - 1).getId() + 1, logs.get(i).getId());
+            assertTrue(logs.get(i).getCreationDate().isAfter(logs.get(i - 1).getCreationDate()));
+        }
+    }
+
+    /**
+     * This method is used to test that a known user is written again only when its data changes.
+     */
+    @Test
+    public void testSaveLogEventsUpdatesChangedUser() {
+        LogMessage logMessage = new LogMessage(null, null, null, "Update", "User", "LOG_USER",
+                3, "cachedUser", "old@mail.com", "batch", "{}", "{}");
+        logEventService.saveLogEvents(List.of(logMessage));
+        logMessage.setEmail("new@mail.com");
+        logEventService.saveLogEvents(List.of(logMessage));
+
+        assertEquals("new@mail.com", logUserRepository.findById(3).orElseThrow().getEmail());
+    }
+
+    /**
+     * This method is used to test that the date range of getPaginatedLogs is applied by the query.
+     * Only the log created in the setUp method falls in the first range, and none in the second one.
+     */
+    @Test
+    public void testGetPaginatedLogsFiltersByDate() {
+        LocalDateTime now = LocalDateTime.now();
+        LogEventFilter filter = new LogEventFilter();
+        filter.setStartDate(now.minusHours(1).toString());
+        filter.setEndDate(now.plusHours(1).toString());
+
+        PaginatedLogsResponse response = logEventService.getPaginatedLogs(0, 10, filter, "desc");
+        assertEquals(1, response.getTotalElements());
+        assertEquals("user", response.getLogs().getContent().get(0).getDescription());
+
+        filter.setStartDate(now.plusHours(1).toString());
+        filter.setEndDate(now.plusHours(2).toString());
+        assertEquals(0, logEventService.getPaginatedLogs(0, 10, filter, "desc").getTotalElements());
+    }
+
+    /**
+     * This method is used to test that getLogsByCursor walks every log exactly once.
+     * Logs can share their creation date, so the id must break the ties between pages.
+     */
+    @Test
+    public void testGetLogsByCursor() {
+        LogMessage logMessage = new LogMessage(null, null, null, "Update", "User", "LOG_USER",
+                2, "batchUser", "batch@mail.com", "batch", "{}", "{}");
+        logEventService.saveLogEvents(List.of(logMessage, logMessage, logMessage, logMessage));
+
+        Set<Integer> ids = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorLogsResponse response = logEventService.getLogsByCursor(cursor, 2, new LogEventFilter(), "desc");
+            response.getLogs().forEach(log -> assertTrue(ids.add(log.getIdentifier())));
+            cursor = response.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(5, ids.size());
+        assertEquals(3, pages);
+    }
+
+    /**
+     * This method is used to test that getLogsByCursor refuses a page size of 0 or negative,
+     * with logs in the table, instead of failing on the page bounds.
+     */
+    @Test
+    public void testGetLogsByCursor_InvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> logEventService.getLogsByCursor(null, 0, null, "desc"));
+        assertThrows(IllegalArgumentException.class, () -> logEventService.getLogsByCursor(null, -1, null, "desc"));
+        assertThrows(IllegalArgumentException.class, () -> logEventService.getLogsByCursor(null, 1001, null, "desc"));
+    }
+
+    /**
+     * This method is used to test that compressPayloads moves the text payloads to the compressed columns.
+     * The log created in the setUp method and the one saved here are stored as text, they should read the same once compressed.
+     */
+    @Test
+    public void testCompressPayloads() {
+        LogMessage logMessage = new LogMessage(null, null, null, "Update", "User", "LOG_USER",
+                2, "batchUser", "batch@mail.com", "batch", "{\"id\":2}", "{\"id\":2,\"email\":\"new@mail.com\"}");
+        logEventService.saveLogEvents(List.of(logMessage));
+
+        assertEquals(2, logPayloadMigrationService.compressPayloads());
+        assertEquals(0, logPayloadMigrationService.compressPayloads());
+
+        for (LogEvent logEvent : logEventRepository.findAll()) {
+            assertNull(logEvent.getJsonBefore());
+            assertNull(logEvent.getJsonAfter());
+            assertNotNull(logEvent.getJsonBeforeCompressed());
+            assertNotNull(logEvent.getJsonAfterCompressed());
+        }
+        List<LogEventDTO> logs = logEventService.getLogs();
+        assertTrue(logs.stream().anyMatch(log -> log.getJsonBefore().equals("{}") && log.getJsonAfter().equals("{}")));
+        assertTrue(logs.stream().anyMatch(log -> log.getJsonAfter().equals("{\"id\":2,\"email\":\"new@mail.com\"}")));
+    }
+
+
+    /**
+     * This method is used to test that startCompressPayloads compresses the payloads in the background.
+     * @throws InterruptedException if interrupted while waiting for the migration
+     */
+    @Test
+    public void testStartCompressPayloads() throws InterruptedException {
+        assertTrue(logPayloadMigrationService.startCompressPayloads());
+        while (logPayloadMigrationService.isCompressingPayloads()) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(0, logPayloadMigrationService.compressPayloads());
+        assertNotNull(logEventRepository.findAll().get(0).getJsonBeforeCompressed());
+    }
+
+    /**
+     * This method is used to test that each batch of the payload migration starts after the last log of the previous one.
+     * The log created in the setUp method and the two created here are stored as text.
+     */
+    @Test
+    public void testCompressPayloads_AfterLastId() {
+        logEventRepository.save(createLogEvent());
+        logEventRepository.save(createLogEvent());
+
+        List<Integer> first = logEventRepository.compressPayloads(0, 2);
+        assertEquals(2, first.size());
+        assertTrue(first.get(0) < first.get(1));
+
+        List<Integer> second = logEventRepository.compressPayloads(first.get(1), 2);
+        assertEquals(1, second.size());
+        assertTrue(second.get(0) > first.get(1));
+        assertEquals(List.of(), logEventRepository.compressPayloads(second.get(0), 2));
+    }
+}
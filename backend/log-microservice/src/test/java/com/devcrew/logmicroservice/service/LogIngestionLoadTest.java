@@ -0,0 +1,209 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of the ingestion through the shard listeners, one consumer thread per shard like the listener containers.
+ * It measures the throughput with 1, 2 and 4 consumers and checks that it grows with them as far as the cores allow,
+ * and that the logs of every user are saved in the order they were published.
+ * It takes a while, so it only runs with -DloadTest=true.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+// Without the SQL and debug logs, which would be the bottleneck
+@TestPropertySource(properties = {"spring.jpa.show-sql=false", "logging.level.org.springframework=INFO"})
+public class LogIngestionLoadTest {
+
+    /**
+     * Messages saved by each consumer of a run.
+     */
+    private static final int MESSAGES_PER_CONSUMER = 20_000;
+
+    /**
+     * Messages of a batch, the size of the batches drained by the listener containers.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Users publishing to each shard.
+     */
+    private static final int USERS_PER_SHARD = 10;
+
+    /**
+     * Number of shards of the test configuration.
+     */
+    private static final int SHARDS = 4;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogIngestionLoadTest.class);
+
+    /**
+     * The registry of the listener containers, one per shard queue.
+     */
+    @Autowired
+    private RabbitListenerEndpointRegistry registry;
+
+    /**
+     * The LogEventRepository instance.
+     */
+    @Autowired
+    private LogEventRepository logEventRepository;
+
+    /**
+     * JdbcTemplate used to count the saved logs.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * The LogEventService instance.
+     */
+    @Autowired
+    private LogEventService logEventService;
+
+    /**
+     * This method is used to test that the throughput grows with the number of consumers,
+     * each consumer saving as many messages, and that every user's logs stay in order.
+     * The consumers share the cores of the machine, so the expected speedup is bounded by their number;
+     * beyond it the throughput must at least hold.
+     */
+    @Test
+    public void testThroughputScalesWithConsumers() throws Exception {
+        // Warms up the JIT and the connection pool
+        run(SHARDS);
+
+        Map<Integer, Double> throughputs = new LinkedHashMap<>();
+        for (int consumers = 1; consumers <= SHARDS; consumers *= 2) {
+            throughputs.put(consumers, run(consumers));
+            assertUsersInOrder(consumers);
+        }
+        String report = throughputs.entrySet().stream()
+                .map(run -> "%d consumer(s): %.0f logs/s (x%.2f)".formatted(
+                        run.getKey(), run.getValue(), run.getValue() / throughputs.get(1)))
+                .collect(Collectors.joining(", "));
+        LOGGER.info("Log ingestion throughput: {}", report);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int consumers = 2; consumers <= SHARDS; consumers *= 2) {
+            // 70% of a linear speedup, leaving room for the contention on the shared tables
+            double expected = throughputs.get(1) * Math.min(consumers, cores) * 0.7;
+            assertTrue(throughputs.get(consumers) >= expected,
+                    consumers + " consumers on " + cores + " core(s): " + report);
+        }
+    }
+
+    /**
+     * Saves MESSAGES_PER_CONSUMER messages with each consumer, in parallel, from an empty table.
+     * @param consumers number of consumers, each one feeding the listener of its shard
+     * @return the number of logs saved per second
+     */
+    private double run(int consumers) throws Exception {
+        logEventService.deleteLogs();
+        ExecutorService executor = Executors.newFixedThreadPool(consumers);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int shard = 0; shard < consumers; shard++) {
+                int consumer = shard;
+                futures.add(executor.submit(() -> consume(consumer)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            assertEquals(consumers * MESSAGES_PER_CONSUMER,
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dbo.LOG_EVENT", Integer.class));
+            return consumers * MESSAGES_PER_CONSUMER / seconds;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Feeds the listener of a shard with batches of messages of the users of the shard, round robin.
+     * @param shard shard of the consumer
+     */
+    private void consume(int shard) {
+        AbstractMessageListenerContainer container =
+                (AbstractMessageListenerContainer) registry.getListenerContainer("logShardListener." + shard);
+        BatchMessageListener listener = (BatchMessageListener) container.getMessageListener();
+        int[] sequences = new int[USERS_PER_SHARD];
+        List<Message> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < MESSAGES_PER_CONSUMER; i++) {
+            int user = i % USERS_PER_SHARD;
+            batch.add(message(userId(shard, user), sequences[user]++));
+            if (batch.size() == BATCH_SIZE) {
+                listener.onMessageBatch(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            listener.onMessageBatch(batch);
+        }
+    }
+
+    /**
+     * Checks that the logs of every user, in the (creation_date, id) order, follow the order they were published in.
+     * @param consumers number of consumers of the run
+     */
+    private void assertUsersInOrder(int consumers) {
+        Map<Integer, Integer> nextSequences = new LinkedHashMap<>();
+        for (LogEvent logEvent : logEventRepository.findAll(Sort.by("creationDate", "id"))) {
+            int userId = logEvent.getUserId().getId();
+            int sequence = Integer.parseInt(logEvent.getDescription());
+            assertEquals(nextSequences.getOrDefault(userId, 0), sequence, "Logs of user " + userId);
+            nextSequences.put(userId, sequence + 1);
+        }
+        assertEquals(consumers * USERS_PER_SHARD, nextSequences.size());
+    }
+
+    /**
+     * Returns the ID of a user of a shard, the shards being the user ID modulo the number of shards.
+     */
+    private static int userId(int shard, int user) {
+        return user * SHARDS + shard + SHARDS;
+    }
+
+    private static Message message(int userId, int sequence) {
+        String json = """
+                {"action":"Create","module":"User","entity":"LOG_USER","userId":%d,"username":"user%d",
+                 "email":"user%d@mail.com","description":"%d","jsonBefore":"{\\"name\\":\\"before\\"}",
+                 "jsonAfter":"{\\"name\\":\\"after\\"}"}
+                """.formatted(userId, userId, userId, sequence);
+        return MessageBuilder.withBody(json.getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setHeader("__TypeId__", "com.devcrew.usermicroservice.dto.LogMessage")
+                .build();
+    }
+}
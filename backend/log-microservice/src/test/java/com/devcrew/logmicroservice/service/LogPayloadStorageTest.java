@@ -0,0 +1,75 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.LogEventDTO;
+import com.devcrew.logmicroservice.dto.LogMessage;
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * This class is responsible for testing the storage of the payloads of new logs once compressed storage is opted in.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@TestPropertySource(properties = "log.payload.storage=compressed")
+public class LogPayloadStorageTest {
+
+    /**
+     * The LogEventRepository instance.
+     */
+    @Autowired
+    private LogEventRepository logEventRepository;
+
+    /**
+     * The LogEventService instance.
+     */
+    @Autowired
+    private LogEventService logEventService;
+
+    /**
+     * The LogPayloadMigrationService instance.
+     */
+    @Autowired
+    private LogPayloadMigrationService logPayloadMigrationService;
+
+    /**
+     * This method is used to start every test from an empty table.
+     */
+    @BeforeEach
+    public void setUp() {
+        logEventService.deleteLogs();
+    }
+
+    /**
+     * This method is used to test that new logs are saved in the compressed columns only, read the same as text,
+     * and leave nothing for compressPayloads.
+     */
+    @Test
+    public void testSaveLogEvents_Compressed() {
+        LogMessage logMessage = new LogMessage(null, null, null, "Update", "User", "LOG_USER",
+                2, "batchUser", "batch@mail.com", "batch", "{\"id\":2}", "{\"id\":2,\"email\":\"new@mail.com\"}");
+
+        logEventService.saveLogEvents(List.of(logMessage));
+
+        LogEvent logEvent = logEventRepository.findAll().get(0);
+        assertNull(logEvent.getJsonBefore());
+        assertNull(logEvent.getJsonAfter());
+        assertNotNull(logEvent.getJsonBeforeCompressed());
+        assertNotNull(logEvent.getJsonAfterCompressed());
+        LogEventDTO log = logEventService.getLogs().get(0);
+        assertEquals("{\"id\":2}", log.getJsonBefore());
+        assertEquals("{\"id\":2,\"email\":\"new@mail.com\"}", log.getJsonAfter());
+        assertEquals(0, logPayloadMigrationService.compressPayloads());
+    }
+}
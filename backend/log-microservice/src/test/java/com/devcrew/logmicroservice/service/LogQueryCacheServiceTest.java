@@ -0,0 +1,89 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.ActionDTO;
+import com.devcrew.logmicroservice.dto.LogEventFilter;
+import com.devcrew.logmicroservice.dto.LogUserDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for LogQueryCacheService.
+ * This class contains tests for the keys of the paginatedLogs cache.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class LogQueryCacheServiceTest {
+
+    /**
+     * The LogQueryCacheService instance.
+     */
+    @Autowired
+    private LogQueryCacheService logQueryCacheService;
+
+    /**
+     * Test that equal queries get the same key, even when the dates and sort direction are written differently.
+     */
+    @Test
+    public void testPaginatedLogsKey_EqualQueries() {
+        LogEventFilter filter = new LogEventFilter();
+        filter.setAction(new ActionDTO(1, "Create"));
+        filter.setStartDate("2024-01-01T00:00");
+        LogEventFilter sameFilter = new LogEventFilter();
+        sameFilter.setAction(new ActionDTO(1, "Create"));
+        sameFilter.setStartDate("2024-01-01T00:00:00");
+
+        assertEquals(logQueryCacheService.paginatedLogsKey(0, 10, filter, "ASC"),
+                logQueryCacheService.paginatedLogsKey(0, 10, sameFilter, "asc"));
+        assertNotEquals(logQueryCacheService.paginatedLogsKey(0, 10, filter, "asc"),
+                logQueryCacheService.paginatedLogsKey(1, 10, filter, "asc"));
+    }
+
+    /**
+     * Test that invalidating the cache changes the key of every query.
+     */
+    @Test
+    public void testInvalidatePaginatedLogs() {
+        LogEventFilter filter = new LogEventFilter();
+        String key = logQueryCacheService.paginatedLogsKey(0, 10, filter, "desc");
+
+        logQueryCacheService.invalidatePaginatedLogs();
+
+        assertNotEquals(key, logQueryCacheService.paginatedLogsKey(0, 10, filter, "desc"));
+    }
+
+    /**
+     * Test that distinct filters get distinct keys, even when their attributes hold the separators.
+     */
+    @Test
+    public void testPaginatedLogsKey_DistinctFilters() {
+        LogEventFilter filter = new LogEventFilter();
+        filter.setUserId(new LogUserDTO(null, "a,b", null));
+        LogEventFilter otherFilter = new LogEventFilter();
+        otherFilter.setUserId(new LogUserDTO(null, "a", "b,"));
+        LogEventFilter emptyUserFilter = new LogEventFilter();
+        emptyUserFilter.setUserId(new LogUserDTO(null, "", null));
+        LogEventFilter noUserFilter = new LogEventFilter();
+        noUserFilter.setUserId(new LogUserDTO(null, null, null));
+
+        assertNotEquals(logQueryCacheService.paginatedLogsKey(0, 10, filter, "asc"),
+                logQueryCacheService.paginatedLogsKey(0, 10, otherFilter, "asc"));
+        assertNotEquals(logQueryCacheService.paginatedLogsKey(0, 10, emptyUserFilter, "asc"),
+                logQueryCacheService.paginatedLogsKey(0, 10, noUserFilter, "asc"));
+    }
+
+    /**
+     * Test that a malformed date is rejected as an illegal argument.
+     */
+    @Test
+    public void testPaginatedLogsKey_MalformedDate() {
+        LogEventFilter filter = new LogEventFilter();
+        filter.setStartDate("not-a-date");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> logQueryCacheService.paginatedLogsKey(0, 10, filter, "asc"));
+    }
+}
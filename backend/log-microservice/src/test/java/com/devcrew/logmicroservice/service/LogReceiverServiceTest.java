@@ -0,0 +1,100 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * This class is responsible for testing the LogReceiverService class.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class LogReceiverServiceTest {
+
+    /**
+     * The registry of the listener containers, one per shard queue.
+     */
+    @Autowired
+    private RabbitListenerEndpointRegistry registry;
+
+    /**
+     * The LogEventRepository instance.
+     */
+    @Autowired
+    private LogEventRepository logEventRepository;
+
+    /**
+     * The LogEventService instance.
+     */
+    @Autowired
+    private LogEventService logEventService;
+
+    /**
+     * This method is used to start every test from an empty table.
+     */
+    @BeforeEach
+    public void setUp() {
+        logEventService.deleteLogs();
+    }
+
+    /**
+     * This method is used to test that every shard queue has its own container, with a single consumer.
+     */
+    @Test
+    public void testShardListeners() {
+        for (int shard = 0; shard < 4; shard++) {
+            AbstractMessageListenerContainer container =
+                    (AbstractMessageListenerContainer) registry.getListenerContainer("logShardListener." + shard);
+            assertNotNull(container);
+            assertEquals(List.of("logQueue." + shard), List.of(container.getQueueNames()));
+        }
+    }
+
+    /**
+     * This method is used to test that a shard listener saves the messages of its batches,
+     * converted from the JSON published by the user microservice, in the order they were published.
+     */
+    @Test
+    public void testShardListener_SavesBatchesInOrder() {
+        AbstractMessageListenerContainer container =
+                (AbstractMessageListenerContainer) registry.getListenerContainer("logShardListener.1");
+        BatchMessageListener listener = (BatchMessageListener) container.getMessageListener();
+
+        listener.onMessageBatch(List.of(message("first"), message("second"), message("third")));
+        listener.onMessageBatch(List.of(message("fourth"), message("fifth")));
+
+        List<String> descriptions = logEventRepository.findAll(Sort.by("creationDate", "id")).stream()
+                .map(LogEvent::getDescription)
+                .toList();
+        assertEquals(List.of("first", "second", "third", "fourth", "fifth"), descriptions);
+    }
+
+    private static Message message(String description) {
+        String json = """
+                {"action":"Create","module":"User","entity":"LOG_USER","userId":5,"username":"user5",
+                 "email":"user5@mail.com","description":"%s","jsonBefore":"{}","jsonAfter":"{}"}
+                """.formatted(description);
+        return MessageBuilder.withBody(json.getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setHeader("__TypeId__", "com.devcrew.usermicroservice.dto.LogMessage")
+                .build();
+    }
+}
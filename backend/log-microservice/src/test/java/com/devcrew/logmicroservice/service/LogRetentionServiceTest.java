@@ -0,0 +1,203 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.ActionDTO;
+import com.devcrew.logmicroservice.dto.LogEventFilter;
+import com.devcrew.logmicroservice.dto.LogUserDTO;
+import com.devcrew.logmicroservice.model.*;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import com.devcrew.logmicroservice.repository.LogUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class is responsible for testing the LogRetentionService class.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+// Small batches, so the purge and the deletes by filter need several of them
+@TestPropertySource(properties = {"log.retention.delete.batch.size=2", "log.bulk.delete.batch.size=2"})
+public class LogRetentionServiceTest {
+
+    /**
+     * The LogEventRepository instance.
+     */
+    @Autowired
+    private LogEventRepository logEventRepository;
+
+    /**
+     * The LogUserRepository instance to save the user of the logs.
+     */
+    @Autowired
+    private LogUserRepository logUserRepository;
+
+    /**
+     * The LogRetentionService instance.
+     */
+    @Autowired
+    private LogRetentionService logRetentionService;
+
+    /**
+     * The LogEventService instance.
+     */
+    @Autowired
+    private LogEventService logEventService;
+
+    /**
+     * Transaction manager used to insert the logs.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * This method is used to start every test from an empty table.
+     */
+    @BeforeEach
+    public void setUp() {
+        logEventService.deleteLogs();
+    }
+
+    /**
+     * This method is used to test that purgeLogsBefore deletes the old logs only, over several batches.
+     */
+    @Test
+    public void testPurgeLogsBefore() {
+        LocalDateTime now = LocalDateTime.now();
+        insertLogs(now.minusDays(400), 5);
+        insertLogs(now, 2);
+
+        assertEquals(5, logRetentionService.purgeLogsBefore(now.minusDays(365)));
+
+        List<LogEvent> logs = logEventRepository.findAll();
+        assertEquals(2, logs.size());
+        assertTrue(logs.stream().allMatch(log -> log.getCreationDate().isAfter(now.minusDays(1))));
+    }
+
+    /**
+     * This method is used to test that startPurgeLogsBefore purges the old logs in the background.
+     * @throws InterruptedException if interrupted while waiting for the purge
+     */
+    @Test
+    public void testStartPurgeLogsBefore() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        insertLogs(now.minusDays(400), 3);
+        insertLogs(now, 1);
+
+        assertTrue(logRetentionService.startPurgeLogsBefore(now.minusDays(365)));
+        while (logRetentionService.isMaintaining()) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(1, logEventRepository.findAll().size());
+        assertThrows(IllegalArgumentException.class, () -> logRetentionService.startPurgeLogsBefore(null));
+    }
+
+    /**
+     * This method is used to test that the retention job keeps every log by default, log.retention.days being 0.
+     */
+    @Test
+    public void testEnforceRetention_KeepsLogsByDefault() {
+        insertLogs(LocalDateTime.now().minusDays(4000), 2);
+
+        logRetentionService.enforceRetention();
+
+        assertEquals(2, logEventRepository.findAll().size());
+    }
+
+    /**
+     * This method is used to test that the LOG_EVENT table isn't partitioned while partitioning is disabled.
+     */
+    @Test
+    public void testPartitionLogEvents_Disabled() {
+        assertThrows(IllegalArgumentException.class, () -> logRetentionService.partitionLogEvents());
+        assertThrows(IllegalArgumentException.class, () -> logRetentionService.startPartitionLogEvents());
+    }
+
+    /**
+     * This method is used to test that deleteLogs empties the table.
+     */
+    @Test
+    public void testDeleteLogs() {
+        insertLogs(LocalDateTime.now(), 3);
+
+        logEventService.deleteLogs();
+
+        assertEquals(0, logEventRepository.findAll().size());
+    }
+
+    /**
+     * This method is used to test that deleteLogs deletes the logs matching the filter only, chunk by chunk.
+     */
+    @Test
+    public void testDeleteLogsByFilter() {
+        insertLogs(LocalDateTime.now(), 5, new LogUser(1, "user", "hola@mail.com"));
+        insertLogs(LocalDateTime.now(), 2, new LogUser(2, "other", "other@mail.com"));
+        LogEventFilter filter = new LogEventFilter();
+        filter.setUserId(new LogUserDTO(1, null, null));
+        List<Integer> progress = new ArrayList<>();
+
+        assertEquals(5, logRetentionService.deleteLogs(filter, progress::add));
+
+        assertEquals(List.of(2, 4, 5), progress);
+        List<LogEvent> logs = logEventRepository.findAll();
+        assertEquals(2, logs.size());
+        assertTrue(logs.stream().allMatch(log -> log.getUserId().getId() == 2));
+    }
+
+    /**
+     * This method is used to test that deleteLogs refuses an empty filter, which would match every log.
+     */
+    @Test
+    public void testDeleteLogsByFilter_EmptyFilter() {
+        insertLogs(LocalDateTime.now(), 1);
+
+        assertThrows(IllegalArgumentException.class, () -> logRetentionService.deleteLogs(new LogEventFilter(), deleted -> { }));
+        assertEquals(1, logEventRepository.findAll().size());
+    }
+
+    /**
+     * This method is used to test that deleteLogs refuses a filter with empty nested objects only,
+     * which would match every log as well.
+     */
+    @Test
+    public void testDeleteLogsByFilter_EmptyNestedFilter() {
+        insertLogs(LocalDateTime.now(), 1);
+        LogEventFilter actionOnly = new LogEventFilter();
+        actionOnly.setAction(new ActionDTO());
+        LogEventFilter userOnly = new LogEventFilter();
+        userOnly.setUserId(new LogUserDTO());
+
+        assertThrows(IllegalArgumentException.class, () -> logRetentionService.deleteLogs(actionOnly, deleted -> { }));
+        assertThrows(IllegalArgumentException.class, () -> logRetentionService.deleteLogs(userOnly, deleted -> { }));
+        assertEquals(1, logEventRepository.findAll().size());
+    }
+
+    private void insertLogs(LocalDateTime creationDate, int count) {
+        insertLogs(creationDate, count, new LogUser(1, "user", "hola@mail.com"));
+    }
+
+    private void insertLogs(LocalDateTime creationDate, int count, LogUser logUser) {
+        LogUser user = logUserRepository.save(logUser);
+        List<LogEvent> logEvents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LogEvent logEvent = new LogEvent(new Action(1, "Create"), new AppModule(1, "User"), new AppEntity(1, "action"),
+                    user, "retention", "{}", "{}");
+            logEvent.setCreationDate(creationDate);
+            logEvents.add(logEvent);
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> logEventRepository.batchInsert(logEvents));
+    }
+}
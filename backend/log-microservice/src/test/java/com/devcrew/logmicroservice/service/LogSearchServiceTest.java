@@ -0,0 +1,171 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.LogMessage;
+import com.devcrew.logmicroservice.dto.LogSearchResponse;
+import com.devcrew.logmicroservice.model.*;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import com.devcrew.logmicroservice.repository.LogUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class is responsible for testing the LogSearchService class.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class LogSearchServiceTest {
+
+    /**
+     * The LogSearchService instance.
+     */
+    @Autowired
+    private LogSearchService logSearchService;
+
+    /**
+     * The LogEventService instance, saving the logs indexed by the search.
+     */
+    @Autowired
+    private LogEventService logEventService;
+
+    /**
+     * The LogEventRepository instance, saving and deleting logs the way another instance would.
+     */
+    @Autowired
+    private LogEventRepository logEventRepository;
+
+    /**
+     * The LogUserRepository instance to save the user of the logs.
+     */
+    @Autowired
+    private LogUserRepository logUserRepository;
+
+    /**
+     * Transaction manager used to roll back the deletes.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * This method is used to start every test from an empty table and index.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        while (logSearchService.isReindexing()) {
+            Thread.sleep(50);
+        }
+        logEventService.deleteLogs();
+    }
+
+    /**
+     * This method is used to test that saved logs can be found by description and by payload field, best match first.
+     */
+    @Test
+    public void testSearch() throws InterruptedException {
+        logEventService.saveLogEvents(List.of(
+                message("Changed the email", "{\"email\":\"old@mail.com\"}", "{\"email\":\"new@mail.com\"}"),
+                message("Changed the name", "{\"name\":\"old\"}", "{\"name\":\"new\",\"tags\":[\"new@mail.com\"]}")
+        ));
+        logEventService.saveLogEvent(message("Created the user", "{}", "{\"email\":\"other@mail.com\"}"));
+
+        LogSearchResponse byEmail = awaitHits("\"new@mail.com\"", 2);
+        assertEquals(2, byEmail.getIds().size());
+
+        LogSearchResponse byField = awaitHits("after.email:\"new@mail.com\"", 1);
+        LogSearchResponse byDescription = awaitHits("description:email", 1);
+        assertEquals(byField.getIds(), byDescription.getIds());
+
+        LogSearchResponse secondPage = logSearchService.search("\"new@mail.com\"", 1, 1);
+        assertEquals(List.of(byEmail.getIds().get(1)), secondPage.getIds());
+        assertEquals(2, secondPage.getTotalHits());
+    }
+
+    /**
+     * This method is used to test that deleted logs are removed from the index.
+     */
+    @Test
+    public void testDeletedLogsAreNotFound() throws InterruptedException {
+        logEventService.saveLogEvents(List.of(message("Deleted soon", "{}", "{\"email\":\"gone@mail.com\"}")));
+        Integer id = awaitHits("\"gone@mail.com\"", 1).getIds().get(0);
+
+        logEventService.deleteLog(id);
+
+        awaitHits("\"gone@mail.com\"", 0);
+    }
+
+    /**
+     * This method is used to test that a log stays searchable when its delete is rolled back.
+     */
+    @Test
+    public void testRolledBackDeleteKeepsLog() throws InterruptedException {
+        logEventService.saveLogEvents(List.of(message("Kept", "{}", "{\"email\":\"kept@mail.com\"}")));
+        Integer id = awaitHits("\"kept@mail.com\"", 1).getIds().get(0);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            logEventService.deleteLog(id);
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(300);
+        assertEquals(List.of(id), awaitHits("\"kept@mail.com\"", 1).getIds());
+    }
+
+    /**
+     * This method is used to test that the periodic catch up indexes the logs saved without this instance indexing them,
+     * as another instance would save them, and that the logs deleted by another instance are left out of the hits.
+     */
+    @Test
+    public void testLogsOfOtherInstances() throws InterruptedException {
+        LogUser user = logUserRepository.save(new LogUser(1, "user", "hola@mail.com"));
+        LogEvent logEvent = new LogEvent(new Action(1, "Create"), new AppModule(1, "User"), new AppEntity(1, "action"),
+                user, "Saved elsewhere", "{}", "{\"email\":\"elsewhere@mail.com\"}");
+        logEvent.setCreationDate(LocalDateTime.now());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> logEventRepository.batchInsert(List.of(logEvent)));
+        awaitHits("\"elsewhere@mail.com\"", 0);
+
+        logSearchService.catchUpRecent();
+
+        Integer id = awaitHits("\"elsewhere@mail.com\"", 1).getIds().get(0);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> logEventRepository.deleteByIds(List.of(id)));
+        assertEquals(List.of(), logSearchService.search("\"elsewhere@mail.com\"", 0, 10).getIds());
+        awaitHits("\"elsewhere@mail.com\"", 0);
+    }
+
+    /**
+     * This method is used to test that invalid queries and pages are rejected.
+     */
+    @Test
+    public void testSearch_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> logSearchService.search("description:(", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> logSearchService.search(" ", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> logSearchService.search("email", 0, 1000));
+    }
+
+    /**
+     * Searches until the index, refreshed in the background, returns the expected number of hits
+     */
+    private LogSearchResponse awaitHits(String query, long totalHits) throws InterruptedException {
+        LogSearchResponse response = logSearchService.search(query, 0, 10);
+        for (int i = 0; i < 50 && response.getTotalHits() != totalHits; i++) {
+            Thread.sleep(100);
+            response = logSearchService.search(query, 0, 10);
+        }
+        assertEquals(totalHits, response.getTotalHits());
+        return response;
+    }
+
+    private static LogMessage message(String description, String jsonBefore, String jsonAfter) {
+        return new LogMessage(null, null, null, "Update", "User", "LOG_USER",
+                1, "user", "hola@mail.com", description, jsonBefore, jsonAfter);
+    }
+}
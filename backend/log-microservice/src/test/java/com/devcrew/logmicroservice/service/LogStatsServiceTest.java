@@ -0,0 +1,137 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.LogEventFilter;
+import com.devcrew.logmicroservice.dto.LogMessage;
+import com.devcrew.logmicroservice.dto.LogStatsBucket;
+import com.devcrew.logmicroservice.dto.LogStatsTopItem;
+import com.devcrew.logmicroservice.dto.LogUserDTO;
+import com.devcrew.logmicroservice.model.LogEvent;
+import com.devcrew.logmicroservice.repository.LogEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class is responsible for testing the LogStatsService class.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class LogStatsServiceTest {
+
+    /**
+     * The LogStatsService instance.
+     */
+    @Autowired
+    private LogStatsService logStatsService;
+
+    /**
+     * The LogEventService instance, saving the logs counted by the statistics.
+     */
+    @Autowired
+    private LogEventService logEventService;
+
+    /**
+     * The LogRetentionService instance, deleting logs by filter.
+     */
+    @Autowired
+    private LogRetentionService logRetentionService;
+
+    /**
+     * The LogEventRepository instance, finding the logs to delete.
+     */
+    @Autowired
+    private LogEventRepository logEventRepository;
+
+    /**
+     * This method is used to start every test without statistics.
+     */
+    @BeforeEach
+    public void setUp() {
+        logStatsService.deleteStatsBefore(LocalDateTime.now().plusYears(1));
+    }
+
+    /**
+     * This method is used to test that saved logs are counted in the hourly and daily histograms.
+     * Logs saved one by one and in batches must be counted alike.
+     */
+    @Test
+    public void testGetHistogram() {
+        logEventService.saveLogEvents(List.of(message("Create", 3), message("Create", 3), message("Update", 4)));
+        logEventService.saveLogEvent(message("Update", 3));
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime to = from.plusDays(1);
+
+        List<LogStatsBucket> hours = logStatsService.getHistogram(from, to, "hour", null, null, null, null);
+        assertEquals(4, hours.stream().mapToLong(LogStatsBucket::getCount).sum());
+
+        List<LogStatsBucket> days = logStatsService.getHistogram(from, to, "day", null, null, null, 3);
+        assertEquals(List.of(new LogStatsBucket(from, 3L)), days);
+    }
+
+    /**
+     * This method is used to test that getTop returns the most active users first, up to the limit.
+     */
+    @Test
+    public void testGetTop() {
+        logEventService.saveLogEvents(List.of(message("Create", 3), message("Update", 4), message("Delete", 4)));
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        LocalDateTime to = LocalDateTime.now().plusHours(1);
+
+        List<LogStatsTopItem> users = logStatsService.getTop(from, to, "user", 1);
+        assertEquals(List.of(new LogStatsTopItem(4, "user4", 2L)), users);
+
+        assertEquals(3, logStatsService.getTop(from, to, "action", 10).size());
+        assertThrows(IllegalArgumentException.class, () -> logStatsService.getTop(to, from, "user", 10));
+    }
+
+    /**
+     * This method is used to test that deleted logs are subtracted from the statistics,
+     * whether they are deleted one by one, by filter or all at once.
+     */
+    @Test
+    public void testDeletedLogsAreForgotten() {
+        logEventService.saveLogEvents(List.of(message("Create", 7), message("Update", 7), message("Create", 8),
+                message("Update", 8), message("Delete", 8)));
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        LocalDateTime to = LocalDateTime.now().plusHours(1);
+        assertEquals(5, count(from, to, null));
+
+        LogEvent first = logEventRepository.findAll().stream()
+                .filter(log -> log.getUserId().getId() == 7)
+                .findFirst()
+                .orElseThrow();
+        logEventService.deleteLog(first.getId());
+        assertEquals(1, count(from, to, 7));
+        assertEquals(4, count(from, to, null));
+
+        LogEventFilter filter = new LogEventFilter();
+        filter.setUserId(new LogUserDTO(8, null, null));
+        assertEquals(3, logRetentionService.deleteLogs(filter, deleted -> { }));
+        assertEquals(0, count(from, to, 8));
+        assertEquals(1, count(from, to, null));
+        assertEquals(List.of(new LogStatsTopItem(7, "user7", 1L)), logStatsService.getTop(from, to, "user", 10));
+
+        logEventService.deleteLogs();
+        assertEquals(0, count(from, to, null));
+    }
+
+    private long count(LocalDateTime from, LocalDateTime to, Integer userId) {
+        return logStatsService.getHistogram(from, to, "hour", null, null, null, userId).stream()
+                .mapToLong(LogStatsBucket::getCount)
+                .sum();
+    }
+
+    private static LogMessage message(String action, int userId) {
+        return new LogMessage(null, null, null, action, "User", "LOG_USER",
+                userId, "user" + userId, "user" + userId + "@mail.com", "stats", "{}", "{}");
+    }
+}
@@ -0,0 +1,172 @@
+package com.devcrew.logmicroservice.service;
+
+import com.devcrew.logmicroservice.dto.LogEventDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is responsible for testing how the LogTailService class ends the subscriptions of slow or gone clients.
+ */
+public class LogTailServiceTest {
+
+    /**
+     * One sender thread, so a blocked send would hold every subscriber
+     */
+    private final LogTailService logTailService = new LogTailService(10, 60000, 10, 1, 100);
+
+    @AfterEach
+    public void tearDown() {
+        logTailService.shutdown();
+    }
+
+    /**
+     * This method is used to test that a failed send completes the emitter with the error and ends the subscription.
+     */
+    @Test
+    public void testFailedSendCompletesWithError() throws Exception {
+        TestEmitter emitter = new TestEmitter();
+        emitter.failure = new IOException("Broken pipe");
+        logTailService.subscribe(null, emitter);
+
+        logTailService.publish(List.of(new LogEventDTO()));
+
+        assertSame(emitter.failure, emitter.error.get(5, TimeUnit.SECONDS));
+        assertFalse(logTailService.hasSubscribers());
+    }
+
+    /**
+     * This method is used to test that a subscriber whose send takes longer than the send timeout is dropped,
+     * its emitter completed with an error once the send returns, and the other subscribers are served again.
+     */
+    @Test
+    public void testStalledSubscriberIsDropped() throws Exception {
+        TestEmitter stalled = new TestEmitter();
+        stalled.blocked = new CountDownLatch(1);
+        TestEmitter healthy = new TestEmitter();
+        logTailService.subscribe(null, stalled);
+        logTailService.publish(List.of(new LogEventDTO()));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        logTailService.subscribe(null, healthy);
+
+        Thread.sleep(200);
+        logTailService.dropStalledSubscribers();
+        logTailService.publish(List.of(new LogEventDTO()));
+        stalled.blocked.countDown();
+
+        assertInstanceOf(IOException.class, stalled.error.get(5, TimeUnit.SECONDS));
+        assertTrue(healthy.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(1, stalled.sends);
+        assertFalse(healthy.error.isDone());
+    }
+
+    /**
+     * This method is used to test that the heartbeat skips a subscriber in the middle of a send,
+     * and goes through the buffer hand-off of the others, where a pending log makes it needless.
+     */
+    @Test
+    public void testHeartbeatSkipsSubscriberMidSend() throws Exception {
+        TestEmitter busy = new TestEmitter();
+        busy.blocked = new CountDownLatch(1);
+        TestEmitter idle = new TestEmitter();
+        logTailService.subscribe(null, busy);
+        logTailService.publish(List.of(new LogEventDTO()));
+        assertTrue(busy.sending.await(5, TimeUnit.SECONDS));
+        logTailService.subscribe(null, idle);
+        logTailService.publish(List.of(new LogEventDTO()));
+
+        logTailService.heartbeat();
+        busy.blocked.countDown();
+
+        // The idle subscriber's drain is queued behind the busy one, its log stands for the heartbeat
+        assertTrue(idle.sent.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(2, busy.sends);
+        assertEquals(1, idle.sends);
+    }
+
+    /**
+     * This method is used to test that subscribers beyond the maximum are refused, even when they subscribe concurrently.
+     */
+    @Test
+    public void testMaxSubscribers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> subscriptions = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                subscriptions.add(executor.submit(() -> {
+                    try {
+                        logTailService.subscribe(null, new TestEmitter());
+                        return true;
+                    } catch (ResponseStatusException e) {
+                        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+                        return false;
+                    }
+                }));
+            }
+            int subscribed = 0;
+            for (Future<Boolean> subscription : subscriptions) {
+                if (subscription.get(5, TimeUnit.SECONDS)) {
+                    subscribed++;
+                }
+            }
+            assertEquals(10, subscribed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Emitter failing or blocking its sends on demand, and recording the error it is completed with
+     */
+    private static class TestEmitter extends SseEmitter {
+
+        private final CompletableFuture<Throwable> error = new CompletableFuture<>();
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch sent = new CountDownLatch(1);
+
+        private IOException failure;
+
+        private CountDownLatch blocked;
+
+        private volatile int sends;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sends++;
+            sending.countDown();
+            if (failure != null) {
+                throw failure;
+            }
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error.complete(ex);
+        }
+    }
+}
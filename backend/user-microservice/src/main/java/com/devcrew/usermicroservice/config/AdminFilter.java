@@ -1,7 +1,5 @@
 package com.devcrew.usermicroservice.config;
 
-import com.devcrew.usermicroservice.repository.RolePermissionRepository;
-import com.devcrew.usermicroservice.repository.UserRepository;
 import com.devcrew.usermicroservice.utils.AuthorizationUtils;
 import com.devcrew.usermicroservice.utils.JwtValidation;
 import jakarta.servlet.*;
@@ -18,8 +16,6 @@ import java.util.List;
 public class AdminFilter implements Filter {
 
     private final JwtValidation jwtValidation;
-    private final UserRepository userRepository;
-    private final RolePermissionRepository rolePermissionRepository;
 
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
     // List of paths that require admin permissions
@@ -33,10 +29,8 @@ public class AdminFilter implements Filter {
     );
 
     @Autowired
-    public AdminFilter(JwtValidation jwtValidation, UserRepository userRepository, RolePermissionRepository rolePermissionRepository) {
+    public AdminFilter(JwtValidation jwtValidation) {
         this.jwtValidation = jwtValidation;
-        this.userRepository = userRepository;
-        this.rolePermissionRepository = rolePermissionRepository;
     }
 
     @Override
@@ -62,7 +56,7 @@ public class AdminFilter implements Filter {
 
         // Check if this try-catch block is necessary
         try {
-            AuthorizationUtils.validateAdminPermissions(token, jwtValidation, userRepository, rolePermissionRepository);
+            AuthorizationUtils.validateAdminPermissions(token, jwtValidation);
         } catch (Exception e) {
             System.err.println("Error validating admin permissions: " + e.getMessage());
             httpResponse.setStatus(HttpServletResponse.SC_FORBIDDEN);
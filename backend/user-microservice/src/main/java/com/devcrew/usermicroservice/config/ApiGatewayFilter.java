@@ -1,9 +1,14 @@
 package com.devcrew.usermicroservice.config;
 
+import com.devcrew.usermicroservice.security.GatewayIdentity;
+import com.devcrew.usermicroservice.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -14,6 +19,15 @@ public class ApiGatewayFilter implements Filter {
     @Value("${internal.api.key}")
     private String internalApiKey;
 
+    private final GatewayIdentity gatewayIdentity;
+    private final JwtService jwtService;
+
+    @Autowired
+    public ApiGatewayFilter(GatewayIdentity gatewayIdentity, JwtService jwtService) {
+        this.gatewayIdentity = gatewayIdentity;
+        this.jwtService = jwtService;
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         // Initialization code, if needed
@@ -30,12 +44,29 @@ public class ApiGatewayFilter implements Filter {
         String apiGatewayHeader = httpRequest.getHeader("X-API-Key");
         // Oauth2 requests are allowed without the API key, because they are external requests
         if (internalApiKey.equals(apiGatewayHeader) || path.startsWith("/oauth2")) {
+            trustGatewayIdentity(httpRequest);
             chain.doFilter(request, response);
         } else {
             httpResponse.sendError(HttpServletResponse.SC_FORBIDDEN, "Access denied");
         }
     }
 
+    /**
+     * Trusts the identity the gateway verified for the token, so the next filters don't verify it again.
+     * @param request the HTTP request
+     */
+    private void trustGatewayIdentity(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return;
+        }
+        String token = authHeader.substring(7);
+        Claims claims = gatewayIdentity.verify(request, token);
+        if (claims != null) {
+            jwtService.trustVerifiedClaims(token, claims);
+        }
+    }
+
     @Override
     public void destroy() {
         // Cleanup code, if needed
@@ -0,0 +1,49 @@
+package com.devcrew.usermicroservice.config;
+
+import com.devcrew.usermicroservice.service.AuditOutboxRelay;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Interceptor holding back the requests changing audited data while the audit outbox is full, with the block overflow policy.
+ * Only the endpoints marked with AuditedChange are held back, the others, such as signing in, never wait.
+ * It runs before the controller, so the request waits before its transaction opens and holds no lock,
+ * and it is answered 503 if the outbox stays full for the block timeout.
+ */
+@Component
+public class AuditOutboxCapacityInterceptor implements HandlerInterceptor {
+
+    /**
+     * AuditOutboxRelay object knowing the depth of the outbox.
+     */
+    private final AuditOutboxRelay auditOutboxRelay;
+
+    /**
+     * Constructor for AuditOutboxCapacityInterceptor.
+     * @param auditOutboxRelay AuditOutboxRelay object knowing the depth of the outbox
+     */
+    @Autowired
+    public AuditOutboxCapacityInterceptor(AuditOutboxRelay auditOutboxRelay) {
+        this.auditOutboxRelay = auditOutboxRelay;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod method) || !method.hasMethodAnnotation(AuditedChange.class)) {
+            return true;
+        }
+        try {
+            auditOutboxRelay.awaitCapacity();
+            return true;
+        } catch (IllegalStateException e) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.devcrew.usermicroservice.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the endpoints changing audited data, held back by AuditOutboxCapacityInterceptor while the audit outbox is full.
+ * Authentication endpoints aren't marked, so users can still sign in and out, their audit messages spill to the outbox.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditedChange {
+}
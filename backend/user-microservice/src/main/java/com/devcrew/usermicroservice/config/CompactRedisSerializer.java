@@ -0,0 +1,133 @@
+package com.devcrew.usermicroservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis serializer that stores cache values as Smile, the binary form of JSON.
+ * Values are written and read like the JSON serializer it replaces, but without quotes, repeated
+ * field names and repeated short strings, and values above a size threshold are also deflated.
+ * Every value starts with a format byte, values written by the JSON serializer are still readable.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * Format byte of a plain Smile value
+     */
+    private static final byte SMILE = 0;
+
+    /**
+     * Format byte of a deflated Smile value, followed by the length of the inflated value
+     */
+    private static final byte DEFLATED_SMILE = 1;
+
+    /**
+     * Mapper writing Smile, with the modules and settings of the application mapper
+     */
+    private final ObjectMapper smileMapper;
+
+    /**
+     * Mapper reading values written by the JSON serializer
+     */
+    private final ObjectMapper jsonMapper;
+
+    /**
+     * Size in bytes from which values are deflated, a negative value disables compression
+     */
+    private final int compressionThreshold;
+
+    /**
+     * Constructor for CompactRedisSerializer
+     * @param objectMapper Application mapper, copied so its configuration isn't changed
+     * @param compressionThreshold Size in bytes from which values are deflated, a negative value disables compression
+     */
+    public CompactRedisSerializer(ObjectMapper objectMapper, int compressionThreshold) {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        this.smileMapper = objectMapper.copyWith(smileFactory);
+        this.jsonMapper = objectMapper;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] smile;
+        try {
+            smile = smileMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Smile: " + e.getMessage(), e);
+        }
+        if (compressionThreshold < 0 || smile.length < compressionThreshold) {
+            return ByteBuffer.allocate(1 + smile.length).put(SMILE).put(smile).array();
+        }
+        byte[] deflated = deflate(smile);
+        return ByteBuffer.allocate(5 + deflated.length).put(DEFLATED_SMILE).putInt(smile.length).put(deflated).array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return switch (bytes[0]) {
+                case SMILE -> smileMapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+                case DEFLATED_SMILE -> smileMapper.readValue(inflate(bytes), Object.class);
+                // Written by the JSON serializer, before this one was enabled or by an older instance
+                default -> jsonMapper.readValue(bytes, Object.class);
+            };
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not read cache value: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws DataFormatException {
+        ByteBuffer header = ByteBuffer.wrap(bytes, 1, 4);
+        byte[] inflated = new byte[header.getInt()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 5, bytes.length - 5);
+            int length = 0;
+            while (length < inflated.length && !inflater.finished()) {
+                int read = inflater.inflate(inflated, length, inflated.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated cache value");
+                }
+                length += read;
+            }
+            return inflated;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,18 +1,33 @@
 package com.devcrew.usermicroservice.config;
 
+import com.devcrew.usermicroservice.security.AuthorizationEngine;
+import com.devcrew.usermicroservice.security.TokenRevocationStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 @Profile("!test")
@@ -30,16 +45,80 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper) {
-        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                            ObjectMapper objectMapper,
+                                            StringRedisTemplate stringRedisTemplate,
+                                            Environment environment) {
+        RedisSerializer<Object> serializer = cacheValueSerializer(objectMapper, environment);
 
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(cacheConfig)
+                // Caches known at startup get their hit and miss metrics bound to the actuator
+                .initialCacheNames(Set.of("rolePermissions", "roles", "permissions"))
+                .enableStatistics()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // Local tier size and TTL per cache, e.g. cache.local.spec.roles=maximumSize=100,expireAfterWrite=5m
+        String defaultSpec = environment.getRequiredProperty("cache.local.spec.default");
+        return new TwoTierCacheManager(
+                redisCacheManager,
+                name -> environment.getProperty("cache.local.spec." + name, defaultSpec),
+                stringRedisTemplate,
+                environment.getRequiredProperty("spring.application.name") + ":cache-invalidation"
+        );
+    }
+
+    // Format of the cached values: smile (compact binary, default) or json
+    private static RedisSerializer<Object> cacheValueSerializer(ObjectMapper objectMapper, Environment environment) {
+        String format = environment.getRequiredProperty("cache.serializer");
+        return switch (format.toLowerCase()) {
+            case "smile" -> new CompactRedisSerializer(objectMapper,
+                    environment.getRequiredProperty("cache.compression.threshold", Integer.class));
+            case "json" -> new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+            default -> throw new IllegalArgumentException("Unknown cache serializer " + format);
+        };
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                            TwoTierCacheManager cacheManager,
+                                                                            AuthorizationEngine authorizationEngine,
+                                                                            TokenRevocationStore tokenRevocationStore,
+                                                                            StringRedisTemplate stringRedisTemplate,
+                                                                            Environment environment) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheManager.getChannel()));
+
+        // Role permission changes make every instance compile its authorization engine again
+        String authorizationChannel = environment.getRequiredProperty("spring.application.name") + ":authorization-invalidation";
+        authorizationEngine.setInvalidationPublisher(message -> stringRedisTemplate.convertAndSend(authorizationChannel, message));
+        container.addMessageListener(authorizationEngine, new ChannelTopic(authorizationChannel));
+
+        // Logouts on any instance reach the local tier of every revocation store
+        container.addMessageListener(tokenRevocationStore, new ChannelTopic(tokenRevocationStore.getChannel()));
+        return container;
+    }
+
+    // Publishes the cache.gets metrics of both tiers, told apart by the tier tag
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return new CacheMeterBinderProvider<>() {
+            @Override
+            public MeterBinder getMeterBinder(TwoTierCache cache, Iterable<Tag> tags) {
+                return registry -> {
+                    new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), Tags.of(tags).and("tier", "local"))
+                            .bindTo(registry);
+                    new RedisCacheMetrics((RedisCache) cache.getRemoteCache(), Tags.of(tags).and("tier", "remote"))
+                            .bindTo(registry);
+                };
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,6 @@
 package com.devcrew.usermicroservice.config;
 
-import com.devcrew.usermicroservice.exception.UserDoesNotExistException;
 import com.devcrew.usermicroservice.model.AppUser;
-import com.devcrew.usermicroservice.repository.UserRepository;
 import com.devcrew.usermicroservice.utils.JwtValidation;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
@@ -29,7 +27,6 @@ import java.util.List;
 public class TwoFactorAuthFilter implements Filter {
 
     private final JwtValidation jwtValidation;
-    private final UserRepository userRepository;
 
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
     private final List<String> excludedPaths = List.of(
@@ -41,9 +38,8 @@ public class TwoFactorAuthFilter implements Filter {
 
 
     @Autowired
-    public TwoFactorAuthFilter(JwtValidation jwtValidation, UserRepository userRepository) {
+    public TwoFactorAuthFilter(JwtValidation jwtValidation) {
         this.jwtValidation = jwtValidation;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -79,9 +75,7 @@ public class TwoFactorAuthFilter implements Filter {
             throw new ServletException("Authorization header is missing");
         }
 
-        String username = jwtValidation.validateUsernameFromToken(token);
-        AppUser user = userRepository.findByUsername(username).orElseThrow(
-                () -> new UserDoesNotExistException("User with username " + username + " does not exist"));
+        AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
 
         if (!user.hasTwoFactorAuth()) {
             httpResponse.setStatus(HttpServletResponse.SC_FORBIDDEN);
@@ -0,0 +1,32 @@
+package com.devcrew.usermicroservice.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * WebConfig is a configuration class that registers the interceptors of the controllers.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Interceptor holding back the requests changing audited data while the audit outbox is full.
+     */
+    private final AuditOutboxCapacityInterceptor auditOutboxCapacityInterceptor;
+
+    /**
+     * Constructor for WebConfig.
+     * @param auditOutboxCapacityInterceptor Interceptor holding back the requests changing audited data while the audit outbox is full
+     */
+    @Autowired
+    public WebConfig(AuditOutboxCapacityInterceptor auditOutboxCapacityInterceptor) {
+        this.auditOutboxCapacityInterceptor = auditOutboxCapacityInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(auditOutboxCapacityInterceptor);
+    }
+}
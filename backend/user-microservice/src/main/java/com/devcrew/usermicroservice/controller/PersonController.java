@@ -1,5 +1,6 @@
 package com.devcrew.usermicroservice.controller;
 
+import com.devcrew.usermicroservice.config.AuditedChange;
 import com.devcrew.usermicroservice.dto.PersonDTO;
 import com.devcrew.usermicroservice.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -66,6 +67,7 @@ public class PersonController {
      * @return A response entity indicating that the person has been added to the system.
      */
     //Any user can add a new person without any restrictions -> Add restrictions if needed; This endpoint needs revision
+    @AuditedChange
     @PostMapping(path = "/add")
     public ResponseEntity<Void> addPerson(@RequestBody PersonDTO personDTO) {
         personService.addPerson(personDTO);
@@ -80,6 +82,7 @@ public class PersonController {
      * @return A response entity indicating that the information of the person has been updated.
      */
     //Only admin can update any person's information, and a user can update their own information
+    @AuditedChange
     @PutMapping(path = "/update/{username}")
     public ResponseEntity<Void> updatePersonInformation(@RequestHeader("Authorization") String token, @RequestBody PersonDTO personDTO, @PathVariable String username) {
         personService.updatePersonInfo(token, personDTO, username);
@@ -93,6 +96,7 @@ public class PersonController {
      * @return A response entity indicating that the person has been deleted from the system.
      */
     //Only admin can delete any person
+    @AuditedChange
     @DeleteMapping(path = "/delete/{id}")
     public ResponseEntity<Void> deletePerson(@RequestHeader("Authorization") String token, @PathVariable Integer id) {
         personService.deletePerson(token, id);
@@ -1,5 +1,6 @@
 package com.devcrew.usermicroservice.controller;
 
+import com.devcrew.usermicroservice.config.AuditedChange;
 import com.devcrew.usermicroservice.dto.PermissionDTO;
 import com.devcrew.usermicroservice.dto.RoleDTO;
 import com.devcrew.usermicroservice.dto.RolePermissionDTO;
@@ -67,6 +68,7 @@ public class RolePermissionController {
      * @param id The id of the role-permission to be deleted.
      * @return A response entity indicating that the role-permission has been deleted.
      */
+    @AuditedChange
     @DeleteMapping(path = "/delete/{id}")
     public ResponseEntity<Void> deleteRolePermission(@RequestHeader("Authorization") String token, @PathVariable Integer id) {
         rolePermissionService.deleteRolePermission(token, id);
@@ -80,6 +82,7 @@ public class RolePermissionController {
      * @param rolePermission The role-permission to be added to the system.
      * @return A response entity indicating that the role-permission has been added to the system.
      */
+    @AuditedChange
     @PostMapping(path = "/add")
     public ResponseEntity<Void> addRolePermission(@RequestHeader("Authorization") String token, @RequestBody RolePermissionDTO rolePermission) {
         rolePermissionService.addRolePermission(token, rolePermission);
@@ -93,6 +96,7 @@ public class RolePermissionController {
      * @param rolePermission The updated information of the role-permission.
      * @return A response entity indicating that the information of the role-permission has been updated.
      */
+    @AuditedChange
     @PutMapping(path = "/update-role-permission")
     public ResponseEntity<Void> updateRolePermission(@RequestHeader("Authorization") String token, @RequestBody RolePermissionDTO rolePermission) {
         rolePermissionService.updateRolePermission(token, rolePermission);
@@ -175,6 +179,7 @@ public class RolePermissionController {
      * @param roleId The id of the role to be deleted.
      * @return A response entity indicating that the role has been deleted.
      */
+    @AuditedChange
     @DeleteMapping(path = "/delete-role/{roleId}")
     public ResponseEntity<Void> deleteRolePermissionsByRole(@RequestHeader("Authorization") String token, @PathVariable Integer roleId) {
         rolePermissionService.deleteRole(token, roleId);
@@ -189,6 +194,7 @@ public class RolePermissionController {
      * @param permissionId The id of the permission to be deleted.
      * @return A response entity indicating that the permission has been deleted.
      */
+    @AuditedChange
     @DeleteMapping(path = "/delete-permission/{permissionId}")
     public ResponseEntity<Void> deleteRolePermissionsByPermission(@RequestHeader("Authorization") String token, @PathVariable Integer permissionId) {
         rolePermissionService.deletePermission(token, permissionId);
@@ -202,6 +208,7 @@ public class RolePermissionController {
      * @param role The role to be added to the system.
      * @return A response entity indicating that the role has been added to the system.
      */
+    @AuditedChange
     @PostMapping(path = "/add-role")
     public ResponseEntity<Void> addRole(@RequestHeader("Authorization") String token, @RequestBody RoleDTO role) {
         rolePermissionService.addRole(token, role);
@@ -215,6 +222,7 @@ public class RolePermissionController {
      * @param permission The permission to be added to the system.
      * @return A response entity indicating that the permission has been added to the system.
      */
+    @AuditedChange
     @PostMapping(path = "/add-permission")
     public ResponseEntity<Void> addPermission(@RequestHeader("Authorization") String token, @RequestBody PermissionDTO permission) {
         rolePermissionService.addPermission(token, permission);
@@ -228,6 +236,7 @@ public class RolePermissionController {
      * @param role The updated information of the role.
      * @return A response entity indicating that the information of the role has been updated.
      */
+    @AuditedChange
     @PutMapping(path = "/update-role")
     public ResponseEntity<Void> updateRole(@RequestHeader("Authorization") String token, @RequestBody RoleDTO role) {
         rolePermissionService.updateRole(token, role);
@@ -241,6 +250,7 @@ public class RolePermissionController {
      * @param permission The updated information of the permission.
      * @return A response entity indicating that the information of the permission has been updated.
      */
+    @AuditedChange
     @PutMapping(path = "/update-permission")
     public ResponseEntity<Void> updatePermission(@RequestHeader("Authorization") String token, @RequestBody PermissionDTO permission) {
         rolePermissionService.updatePermission(token, permission);
@@ -1,5 +1,6 @@
 package com.devcrew.usermicroservice.controller;
 
+import com.devcrew.usermicroservice.config.AuditedChange;
 import com.devcrew.usermicroservice.dto.UserDTO;
 import com.devcrew.usermicroservice.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,6 +68,7 @@ public class UserController {
      * @return A response entity indicating that the user has been deleted from the system.
      */
     //Only admin can delete any user, and user can delete his own account
+    @AuditedChange
     @DeleteMapping(path = "delete/{username}")
     public ResponseEntity<Void> deleteUser(@RequestHeader("Authorization") String token, @PathVariable("username") String username) {
         userService.deleteUser(username, token);
@@ -82,6 +84,7 @@ public class UserController {
      * @return A response entity indicating that the email of the user has been updated.
      */
     //Only admin can change the email of any user, and user can change his own email
+    @AuditedChange
     @PutMapping(path = "updateEmail/{username}")
     public ResponseEntity<Void> updateUserEmail(@RequestHeader("Authorization") String token, @PathVariable("username") String username,
                                                   @RequestParam() String email) {
@@ -98,6 +101,7 @@ public class UserController {
      * @return A response entity indicating that the username of the user has been updated.
      */
     //Only admin can change the username of any user, and user can change his own username
+    @AuditedChange
     @PutMapping(path = "updateUsername/{username}")
     public ResponseEntity<Void> updateUserUsername(@RequestHeader("Authorization") String token, @PathVariable("username") String username,
                                                      @RequestParam() String newUsername) {
@@ -114,6 +118,7 @@ public class UserController {
      * @return A response entity indicating that the password of the user has been changed.
      */
     //Only admin can change the password of any user, and user can change his own password
+    @AuditedChange
     @PutMapping(path = "changePassword/{username}")
     public ResponseEntity<Void> changePassword(@RequestHeader("Authorization") String token, @PathVariable("username") String username,
                                                  @RequestParam() String password) {
@@ -131,6 +136,7 @@ public class UserController {
      * @return A response entity indicating that the role of the user has been changed.
      */
     //Only admin can change the role of any user
+    @AuditedChange
     @PutMapping(path = "changeRole/{username}")
     public ResponseEntity<Void> changeRole(@RequestHeader("Authorization") String token, @PathVariable("username") String username,
                                              @RequestParam() String role) {
@@ -0,0 +1,65 @@
+package com.devcrew.usermicroservice.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * AuditOutbox entity represents an audit log message waiting to be published to the log microservice.
+ * It is written in the same transaction as the change it describes, and deleted once the broker confirms it.
+ */
+@Entity
+@Table(name = "AUDIT_OUTBOX",
+        schema = "dbo",
+        // Serves the relay reading each shard in order
+        indexes = @Index(name = "ix_audit_outbox_shard_id", columnList = "shard, id")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditOutbox implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The unique identifier of the message, also its publication order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The log message, as JSON.
+     */
+    @Column(name = "payload", columnDefinition = "nvarchar(max)")
+    @NotNull
+    private String payload;
+
+    /**
+     * The ID of the user the message is about, it decides the queue shard of the message.
+     */
+    @Column(name = "user_id")
+    private Integer userId;
+
+    /**
+     * The queue shard of the message, from its user, kept so the shard is relayed as a whole.
+     */
+    @Column(name = "shard")
+    @NotNull
+    private Integer shard;
+
+    /**
+     * The date the message was written.
+     */
+    @Column(name = "creation_date")
+    @NotNull
+    private LocalDateTime creationDate;
+}
@@ -0,0 +1,52 @@
+package com.devcrew.usermicroservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * AuditOutboxShard entity represents a queue shard of the audit outbox.
+ * The relay publishing the messages of the shard holds a lease on its row, so one relay at a time owns a shard
+ * and the messages of a user are published in order whatever the number of instances.
+ * The lease outlives the short transactions of a pass, so the shard stays owned while its messages are published.
+ */
+@Entity
+@Table(name = "AUDIT_OUTBOX_SHARD", schema = "dbo")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditOutboxShard implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The shard, between 0 and the number of shards - 1.
+     */
+    @Id
+    private Integer shard;
+
+    /**
+     * The instance holding the lease on the shard, null if none does.
+     */
+    @Column(name = "owner")
+    private String owner;
+
+    /**
+     * The date the lease expires, after which another instance may take the shard over.
+     */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    /**
+     * Constructor for a shard no instance holds.
+     * @param shard the shard, between 0 and the number of shards - 1
+     */
+    public AuditOutboxShard(Integer shard) {
+        this.shard = shard;
+    }
+}
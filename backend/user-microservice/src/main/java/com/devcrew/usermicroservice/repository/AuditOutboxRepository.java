@@ -0,0 +1,67 @@
+package com.devcrew.usermicroservice.repository;
+
+import com.devcrew.usermicroservice.model.AuditOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * AuditOutboxRepository interface extends JpaRepository to use the CRUD operations for the AuditOutbox entity.
+ */
+@Repository
+public interface AuditOutboxRepository extends JpaRepository<AuditOutbox, Long> {
+
+    /**
+     * Finds the oldest messages of a shard.
+     * Rows are never skipped, the relay holding the lease on the shard publishes them in order;
+     * instances relay in parallel by leasing different shards.
+     *
+     * @param shard the shard of the messages
+     * @param batchSize the maximum number of messages to read
+     * @return the messages, oldest first
+     */
+    @Query(value = "SELECT TOP (?2) * FROM dbo.AUDIT_OUTBOX WHERE shard = ?1 ORDER BY id", nativeQuery = true)
+    List<AuditOutbox> findNextBatch(int shard, int batchSize);
+
+    /**
+     * Deletes the given messages with a single statement.
+     *
+     * @param ids the IDs of the messages to delete
+     */
+    @Modifying
+    @Query("DELETE FROM AuditOutbox o WHERE o.id IN ?1")
+    void deleteAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Counts the messages waiting in the outbox, without waiting for the locks of the relays.
+     *
+     * @return the number of messages in the outbox, approximate while messages are being relayed
+     */
+    @Query(value = "SELECT COUNT(*) FROM dbo.AUDIT_OUTBOX WITH (NOLOCK)", nativeQuery = true)
+    long countDepth();
+
+    /**
+     * Counts the messages of a shard.
+     *
+     * @param shard the shard of the messages
+     * @return the number of messages of the shard in the outbox
+     */
+    @Query(value = "SELECT COUNT(*) FROM dbo.AUDIT_OUTBOX WHERE shard = ?1", nativeQuery = true)
+    long countShard(int shard);
+
+    /**
+     * Deletes the oldest messages of a shard with a single statement.
+     *
+     * @param shard the shard of the messages
+     * @param count the number of messages to delete
+     * @return the number of messages deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM dbo.AUDIT_OUTBOX WHERE id IN (SELECT TOP (?2) id FROM dbo.AUDIT_OUTBOX WHERE shard = ?1 ORDER BY id)",
+            nativeQuery = true)
+    int deleteOldest(int shard, long count);
+}
@@ -0,0 +1,54 @@
+package com.devcrew.usermicroservice.repository;
+
+import com.devcrew.usermicroservice.model.AuditOutboxShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * AuditOutboxShardRepository interface extends JpaRepository to use the CRUD operations for the AuditOutboxShard entity.
+ */
+@Repository
+public interface AuditOutboxShardRepository extends JpaRepository<AuditOutboxShard, Integer> {
+
+    /**
+     * Locks a shard until the end of the transaction, unless another relay holds it (READPAST).
+     *
+     * @param shard the shard to lock
+     * @return the shard if it is now locked by this transaction, empty if another relay owns it
+     */
+    @Query(value = "SELECT shard FROM dbo.AUDIT_OUTBOX_SHARD WITH (UPDLOCK, READPAST, ROWLOCK) WHERE shard = ?1", nativeQuery = true)
+    List<Integer> tryLock(int shard);
+
+    /**
+     * Takes or renews the lease on a shard, unless another instance holds an unexpired one.
+     *
+     * @param shard the shard to lease
+     * @param owner the instance taking the lease
+     * @param now the current date
+     * @param leaseUntil the date the lease expires
+     * @return 1 if the lease is now held by the owner, 0 if another instance holds it
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE dbo.AUDIT_OUTBOX_SHARD SET owner = ?2, lease_until = ?4
+            WHERE shard = ?1 AND (owner IS NULL OR owner = ?2 OR lease_until < ?3)
+            """, nativeQuery = true)
+    int claim(int shard, String owner, LocalDateTime now, LocalDateTime leaseUntil);
+
+    /**
+     * Releases the lease on a shard, if the owner still holds it.
+     *
+     * @param shard the shard leased
+     * @param owner the instance that took the lease
+     * @return 1 if the lease was released, 0 if it had expired and another instance took it
+     */
+    @Modifying
+    @Query(value = "UPDATE dbo.AUDIT_OUTBOX_SHARD SET owner = NULL, lease_until = NULL WHERE shard = ?1 AND owner = ?2",
+            nativeQuery = true)
+    int release(int shard, String owner);
+}
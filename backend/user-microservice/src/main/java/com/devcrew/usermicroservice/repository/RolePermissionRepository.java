@@ -26,6 +26,14 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
     @Query("SELECT p FROM Permission p JOIN RolePermission rp ON p.id = rp.permission.id WHERE rp.role.id = ?1")
     List<Permission> findByRole(Integer roleId);
 
+    /**
+     * Finds all role permissions with their role and permission, in a single query.
+     *
+     * @return all the role permissions
+     */
+    @Query("SELECT rp FROM RolePermission rp JOIN FETCH rp.role JOIN FETCH rp.permission")
+    List<RolePermission> findAllWithRoleAndPermission();
+
     /**
      * Finds roles by permission ID.
      *
@@ -0,0 +1,200 @@
+package com.devcrew.usermicroservice.security;
+
+import com.devcrew.usermicroservice.model.Permission;
+import com.devcrew.usermicroservice.model.RolePermission;
+import com.devcrew.usermicroservice.repository.PermissionRepository;
+import com.devcrew.usermicroservice.repository.RolePermissionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * In-memory authorization engine, compiled from the ROLE_PERMISSION table.
+ * Every role gets an immutable bitset of its permissions, indexed by permission id, so a permission check
+ * is a map lookup and a bit test, without querying the database.
+ * The whole table is compiled again and swapped in at once when the roles or permissions change,
+ * and the change is published so the other instances compile it again too.
+ */
+@Component
+public class AuthorizationEngine implements MessageListener {
+
+    /**
+     * Identifies this instance, so it ignores its own invalidation messages.
+     */
+    private final String origin = UUID.randomUUID().toString();
+
+    private final RolePermissionRepository rolePermissionRepository;
+
+    private final PermissionRepository permissionRepository;
+
+    /**
+     * Publishes an invalidation to the other instances, a no-op until a channel is configured.
+     */
+    private volatile Consumer<String> invalidationPublisher = message -> { };
+
+    /**
+     * The compiled table, null until it is first needed.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor for AuthorizationEngine.
+     * @param rolePermissionRepository Repository the role permissions are compiled from
+     * @param permissionRepository Repository the permission names are read from
+     */
+    @Autowired
+    public AuthorizationEngine(RolePermissionRepository rolePermissionRepository, PermissionRepository permissionRepository) {
+        this.rolePermissionRepository = rolePermissionRepository;
+        this.permissionRepository = permissionRepository;
+    }
+
+    /**
+     * Sets how invalidations are published to the other instances.
+     * @param invalidationPublisher Publishes an invalidation message
+     */
+    public void setInvalidationPublisher(Consumer<String> invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Returns the permissions of a role, from the current compiled table.
+     * @param roleId ID of the role
+     * @return The permissions of the role, empty if the role has none
+     */
+    public RolePermissions permissionsOf(Integer roleId) {
+        return snapshot().permissionsOf(roleId);
+    }
+
+    /**
+     * Checks if a role has a permission.
+     * @param roleId ID of the role
+     * @param permission Name of the permission
+     * @return true if the role has the permission, false otherwise
+     */
+    public boolean hasPermission(Integer roleId, String permission) {
+        return permissionsOf(roleId).has(permission);
+    }
+
+    /**
+     * Compiles the table again once the current transaction commits, or right away outside a transaction,
+     * and tells the other instances to do the same.
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildAndPublish();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuildAndPublish();
+            }
+        });
+    }
+
+    /**
+     * Compiles the table again when another instance changed the roles or permissions.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (origin.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            return;
+        }
+        rebuild();
+    }
+
+    private void rebuildAndPublish() {
+        rebuild();
+        try {
+            invalidationPublisher.accept(origin);
+        } catch (Exception e) {
+            System.err.println("Error publishing the authorization invalidation: " + e.getMessage());
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = compile();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Compiles the table and swaps it in. Rebuilds run one at a time, so the last one always reads the latest table.
+     */
+    private synchronized void rebuild() {
+        snapshot = compile();
+    }
+
+    private Snapshot compile() {
+        Map<String, Integer> permissionBits = new HashMap<>();
+        for (Permission permission : permissionRepository.findAll()) {
+            permissionBits.put(permission.getName(), permission.getId());
+        }
+
+        Map<Integer, BitSet> bitsByRole = new HashMap<>();
+        for (RolePermission rolePermission : rolePermissionRepository.findAllWithRoleAndPermission()) {
+            bitsByRole.computeIfAbsent(rolePermission.getRole().getId(), roleId -> new BitSet())
+                    .set(rolePermission.getPermission().getId());
+        }
+
+        Map<Integer, RolePermissions> permissionsByRole = new HashMap<>();
+        bitsByRole.forEach((roleId, bits) -> permissionsByRole.put(roleId, new RolePermissions(permissionBits, bits)));
+        return new Snapshot(permissionsByRole, new RolePermissions(permissionBits, new BitSet()));
+    }
+
+    /**
+     * A compiled table: the permissions of every role having at least one.
+     */
+    private record Snapshot(Map<Integer, RolePermissions> permissionsByRole, RolePermissions none) {
+
+        RolePermissions permissionsOf(Integer roleId) {
+            return roleId == null ? none : permissionsByRole.getOrDefault(roleId, none);
+        }
+    }
+
+    /**
+     * The permissions of a role, as an immutable bitset indexed by permission id.
+     */
+    public static final class RolePermissions {
+
+        /**
+         * Bit of every permission, by name, shared by all the roles of a compiled table.
+         */
+        private final Map<String, Integer> permissionBits;
+
+        private final BitSet bits;
+
+        private RolePermissions(Map<String, Integer> permissionBits, BitSet bits) {
+            this.permissionBits = permissionBits;
+            this.bits = bits;
+        }
+
+        /**
+         * Checks if the role has a permission.
+         * @param permission Name of the permission
+         * @return true if the role has the permission, false otherwise
+         */
+        public boolean has(String permission) {
+            Integer bit = permissionBits.get(permission);
+            return bit != null && bits.get(bit);
+        }
+    }
+}
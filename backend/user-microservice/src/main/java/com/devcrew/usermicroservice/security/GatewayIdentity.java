@@ -0,0 +1,123 @@
+package com.devcrew.usermicroservice.security;
+
+import com.devcrew.usermicroservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Reads the identity the API gateway verified and forwarded in signed headers.
+ * The headers are signed with a key derived from the JWT secret, only used for them and never sent in a header,
+ * and bound to the whole token by its hash, so the claims they carry can be trusted without verifying the token again.
+ */
+@Component
+public class GatewayIdentity {
+
+    public static final String SUBJECT_HEADER = "X-Auth-Subject";
+    public static final String ROLE_HEADER = "X-Auth-Role";
+    public static final String EXPIRATION_HEADER = "X-Auth-Expiration";
+    public static final String SIGNATURE_HEADER = "X-Auth-Signature";
+
+    /**
+     * Label the identity key is derived from the JWT secret with, the same as the gateway's.
+     */
+    private static final String IDENTITY_KEY_LABEL = "gateway-identity";
+
+    /**
+     * Key the identity headers are signed with.
+     */
+    private final SecretKeySpec identityKey;
+
+    /**
+     * Constructor for GatewayIdentity.
+     *
+     * @param jwtSecret the JWT secret shared with the gateway, the identity key is derived from
+     */
+    @Autowired
+    public GatewayIdentity(@Value("${jwt.secret}") String jwtSecret) {
+        this.identityKey = new SecretKeySpec(
+                hmac(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"), IDENTITY_KEY_LABEL),
+                "HmacSHA256");
+    }
+
+    /**
+     * Returns the claims forwarded by the gateway for a token.
+     *
+     * @param request the HTTP request
+     * @param token the JWT token of the request, without the Bearer prefix
+     * @return the claims of the token, or null if the gateway didn't forward a valid identity for it
+     */
+    public Claims verify(HttpServletRequest request, String token) {
+        String signature = request.getHeader(SIGNATURE_HEADER);
+        String subject = request.getHeader(SUBJECT_HEADER);
+        String role = request.getHeader(ROLE_HEADER);
+        String expiration = request.getHeader(EXPIRATION_HEADER);
+        if (signature == null || subject == null || role == null || expiration == null) {
+            return null;
+        }
+
+        byte[] expected = Base64.getUrlEncoder().withoutPadding()
+                .encode(hmac(identityKey, identity(JwtService.hashToken(token), subject, role, expiration)));
+        if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(expiration);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+
+        Claims claims = Jwts.claims().setSubject(subject);
+        claims.setExpiration(new Date(expiresAt));
+        claims.put("role", role);
+        return claims;
+    }
+
+    /**
+     * Encodes the signed fields of an identity the same way as the gateway.
+     * Each field is prefixed with its length, so moving a character from one field to the next changes the encoding.
+     *
+     * @param fields the hash of the token, the subject, the role and the expiration
+     * @return the encoded identity
+     */
+    static String identity(String... fields) {
+        StringBuilder identity = new StringBuilder();
+        for (String field : fields) {
+            identity.append(field.length()).append(':').append(field);
+        }
+        return identity.toString();
+    }
+
+    /**
+     * Computes the HMAC-SHA256 of a value.
+     *
+     * @param key the key
+     * @param value the value, an encoded identity or the label of the identity key
+     * @return the HMAC of the value
+     */
+    private static byte[] hmac(SecretKeySpec key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error signing the identity", e);
+        }
+    }
+}
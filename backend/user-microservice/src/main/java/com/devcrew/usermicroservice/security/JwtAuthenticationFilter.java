@@ -1,6 +1,6 @@
 package com.devcrew.usermicroservice.security;
 
-import com.devcrew.usermicroservice.service.JwtService;
+import com.devcrew.usermicroservice.utils.JwtValidation;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +9,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -20,20 +19,16 @@ import java.io.IOException;
 
 /**
  * Filter class for JWT authentication.
+ * The user behind the token is resolved once and kept in the request for the next filters and the services.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     /**
-     * Service for JWT operations.
+     * Validates the token and resolves the user it was issued to.
      */
-    private final JwtService jwtService;
-
-    /**
-     * Service for user details, used for loading user details from username.
-     */
-    private final UserDetailsService userDetailsService;
+    private final JwtValidation jwtValidation;
 
     /**
      * Filters incoming requests and performs JWT authentication.
@@ -48,7 +43,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             // Extract token from request
             final String token = getTokenFromRequest(request);
-            final String username;
 
             // If the token is null, continue the filter chain
             if (token == null) {
@@ -56,25 +50,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            // Get username from token
-            username = jwtService.getUsernameFromToken(token);
-
-            // If username is not null and authentication is not set, proceed with authentication
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // If authentication is not set, validate the token and authenticate its user
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = jwtValidation.validatePrincipalFromToken("Bearer " + token).getUser();
 
-                // Validate token
-                if (jwtService.isTokenValid(token, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities());
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Set authentication in security context
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                // Set authentication in security context
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
 
             // Continue the filter chain
@@ -0,0 +1,60 @@
+package com.devcrew.usermicroservice.security;
+
+import com.devcrew.usermicroservice.model.AppUser;
+import lombok.Getter;
+
+/**
+ * The user behind a verified token, resolved once per request.
+ * It carries the user, the role from the token and the permissions of the user's role,
+ * so the filters and services don't look the user up again.
+ */
+public class ResolvedPrincipal {
+
+    /**
+     * The verified token, without the Bearer prefix.
+     */
+    @Getter
+    private final String token;
+
+    /**
+     * The user the token was issued to.
+     */
+    @Getter
+    private final AppUser user;
+
+    /**
+     * The role claimed by the token.
+     */
+    @Getter
+    private final String role;
+
+    /**
+     * The permissions of the user's role, compiled by the AuthorizationEngine.
+     */
+    @Getter
+    private final AuthorizationEngine.RolePermissions permissions;
+
+    /**
+     * Constructor for ResolvedPrincipal.
+     *
+     * @param token the verified token, without the Bearer prefix
+     * @param user the user the token was issued to
+     * @param role the role claimed by the token
+     * @param permissions the permissions of the user's role
+     */
+    public ResolvedPrincipal(String token, AppUser user, String role, AuthorizationEngine.RolePermissions permissions) {
+        this.token = token;
+        this.user = user;
+        this.role = role;
+        this.permissions = permissions;
+    }
+
+    /**
+     * Returns the username the token was issued to.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return user.getUsername();
+    }
+}
@@ -0,0 +1,204 @@
+package com.devcrew.usermicroservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store of the revoked tokens, keyed by the hash of the token, every entry expiring with its token.
+ * Revocations are written to Redis with a TTL up to the token expiration and published on a Redis channel,
+ * every instance keeping the ones it knows of in a local map that is never size bounded,
+ * so a revocation is only forgotten once its token has expired.
+ * A token unknown locally is checked in Redis once, then trusted locally for a short time,
+ * the published revocations reaching the local map in between.
+ * With the local store (jwt.revocation.store=local) the revocations stay in this instance.
+ */
+@Component
+public class TokenRevocationStore implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Identifies this instance, so it ignores its own revocation messages.
+     */
+    private final String origin = UUID.randomUUID().toString();
+
+    /**
+     * Revoked tokens by hash, with the expiration time of the token.
+     * Not size bounded, a revoked token must stay rejected until it expires.
+     */
+    private final Cache<String, Long> revokedTokens;
+
+    /**
+     * Hashes of the tokens checked in Redis and found not revoked, bounded in size.
+     */
+    private final Cache<String, Boolean> notRevokedTokens;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    private final String channel;
+
+    /**
+     * True to accept the tokens that can't be checked while Redis is unavailable, false to reject them.
+     */
+    private final boolean acceptOnStoreError;
+
+    /**
+     * Number of revocation checks or writes that failed because Redis was unavailable.
+     */
+    private final Counter storeErrorCounter;
+
+    /**
+     * Number of tokens accepted without being checked because Redis was unavailable.
+     */
+    private final Counter uncheckedAcceptedCounter;
+
+    /**
+     * Constructor for TokenRevocationStore.
+     * @param store Where the revocations are kept: redis (shared by the instances) or local
+     * @param notRevokedSize Maximum number of tokens found not revoked kept locally
+     * @param notRevokedTtl How long a token found not revoked in Redis is trusted locally, in milliseconds
+     * @param onStoreError What to do with a token that can't be checked because Redis is unavailable: accept or reject
+     * @param applicationName Name of the application, prefixing the Redis keys and channel
+     * @param redisTemplate Template used to store and publish the revocations with the redis store
+     * @param meterRegistry Registry of the revocation store metrics
+     */
+    @Autowired
+    public TokenRevocationStore(@Value("${jwt.revocation.store}") String store,
+                                @Value("${jwt.revocation.not-revoked.size}") long notRevokedSize,
+                                @Value("${jwt.revocation.not-revoked.ttl}") long notRevokedTtl,
+                                @Value("${jwt.revocation.on-store-error}") String onStoreError,
+                                @Value("${spring.application.name}") String applicationName,
+                                ObjectProvider<StringRedisTemplate> redisTemplate,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = switch (store.toLowerCase()) {
+            case "redis" -> redisTemplate.getObject();
+            case "local" -> null;
+            default -> throw new IllegalArgumentException("Unknown token revocation store " + store);
+        };
+        this.acceptOnStoreError = switch (onStoreError.toLowerCase()) {
+            case "accept" -> true;
+            case "reject" -> false;
+            default -> throw new IllegalArgumentException("Unknown token revocation store error policy " + onStoreError);
+        };
+        this.keyPrefix = applicationName + ":revoked-token:";
+        this.channel = applicationName + ":token-revocation";
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Long expiration, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Long expiration, long currentTime, long currentDuration) {
+                        return expireAfterCreate(tokenHash, expiration, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Long expiration, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.notRevokedTokens = Caffeine.newBuilder()
+                .maximumSize(notRevokedSize)
+                .expireAfterWrite(notRevokedTtl, TimeUnit.MILLISECONDS)
+                .build();
+        this.storeErrorCounter = Counter.builder("jwt.revocation.store.errors")
+                .description("Token revocation checks or writes that failed because Redis was unavailable")
+                .register(meterRegistry);
+        this.uncheckedAcceptedCounter = Counter.builder("jwt.revocation.unchecked.accepted")
+                .description("Tokens accepted without a revocation check because Redis was unavailable")
+                .register(meterRegistry);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Revokes a token until it expires, on every instance.
+     * @param tokenHash Hash of the token
+     * @param expiration Expiration time of the token, in epoch milliseconds
+     */
+    public void revoke(String tokenHash, long expiration) {
+        long ttl = expiration - System.currentTimeMillis();
+        if (ttl <= 0) {
+            return;
+        }
+        revokedTokens.put(tokenHash, expiration);
+        notRevokedTokens.invalidate(tokenHash);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(keyPrefix + tokenHash, String.valueOf(expiration), Duration.ofMillis(ttl));
+            redisTemplate.convertAndSend(channel, origin + SEPARATOR + tokenHash + SEPARATOR + expiration);
+        } catch (Exception e) {
+            storeErrorCounter.increment();
+            System.err.println("Error storing the token revocation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks if a token is revoked.
+     * If Redis is unavailable, a token unknown locally is accepted or rejected depending on jwt.revocation.on-store-error.
+     * @param tokenHash Hash of the token
+     * @return true if the token is revoked, or can't be checked and is rejected, false otherwise
+     */
+    public boolean isRevoked(String tokenHash) {
+        if (revokedTokens.getIfPresent(tokenHash) != null) {
+            return true;
+        }
+        if (redisTemplate == null || notRevokedTokens.getIfPresent(tokenHash) != null) {
+            return false;
+        }
+        try {
+            String stored = redisTemplate.opsForValue().get(keyPrefix + tokenHash);
+            if (stored == null) {
+                notRevokedTokens.put(tokenHash, Boolean.TRUE);
+                return false;
+            }
+            revokedTokens.put(tokenHash, Long.valueOf(stored));
+            return true;
+        } catch (Exception e) {
+            storeErrorCounter.increment();
+            System.err.println("Error checking the token revocation: " + e.getMessage());
+            if (acceptOnStoreError) {
+                uncheckedAcceptedCounter.increment();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Keeps the revocations published by the other instances in the local map.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || origin.equals(parts[0])) {
+            return;
+        }
+        revokedTokens.put(parts[1], Long.valueOf(parts[2]));
+        notRevokedTokens.invalidate(parts[1]);
+    }
+}
@@ -0,0 +1,545 @@
+package com.devcrew.usermicroservice.service;
+
+import com.devcrew.usermicroservice.config.RabbitConfig;
+import com.devcrew.usermicroservice.dto.LogMessage;
+import com.devcrew.usermicroservice.model.AuditOutbox;
+import com.devcrew.usermicroservice.model.AuditOutboxShard;
+import com.devcrew.usermicroservice.repository.AuditOutboxRepository;
+import com.devcrew.usermicroservice.repository.AuditOutboxShardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class that relays the AUDIT_OUTBOX table to the log exchange, shard by shard.
+ * A single relay thread walks the queue shards in turn. For each shard it takes a lease on the shard, skipping it if another instance
+ * holds one, and reads the oldest messages of the shard in a first short transaction. It then publishes them with confirms,
+ * outside of any transaction, and deletes in bulk the ones confirmed before the first unconfirmed message in a second one,
+ * so no database lock is held while it waits for the broker. The lease keeps the shard owned between the two transactions,
+ * and expires on its own if the instance stops in between.
+ * The first unconfirmed message and the ones after it stay in the outbox and are published again, in order,
+ * on the next pass, so a message is delivered at least once and a message is never last delivered
+ * before the messages of its shard published before it.
+ * Each shard is routed to its own queue, so the log microservice saves the messages of a user in order.
+ * The outbox is bounded by audit.outbox.max.depth, what happens beyond it is set by audit.outbox.overflow:
+ * spill keeps writing the messages to the table, which is already on disk, block makes the requests changing audited data
+ * wait for the relay to catch up before they start and fails them after audit.outbox.block.timeout, and drop-oldest deletes
+ * the oldest messages of the shards over their share of the limit.
+ */
+@Service
+public class AuditOutboxRelay {
+
+    /**
+     * Maximum delay in milliseconds between two passes while the broker can't be reached.
+     */
+    private static final long MAX_RETRY_DELAY = 30_000;
+
+    /**
+     * Maximum time in milliseconds given to the relay to finish its pass on shutdown.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    /**
+     * Time in milliseconds after which a request waiting for room in the outbox counts it again.
+     */
+    private static final long DEPTH_RECOUNT_INTERVAL = 200;
+
+    /**
+     * Time in milliseconds a shard lease lasts beyond the confirm timeout, to publish the messages and delete them.
+     */
+    private static final long LEASE_MARGIN = 10_000;
+
+    /**
+     * What happens to the messages written while the outbox holds more than the maximum depth.
+     */
+    private enum OverflowPolicy {
+        /**
+         * The messages are written to the outbox table anyway.
+         */
+        SPILL,
+        /**
+         * The change being audited waits until the outbox is below the maximum depth.
+         */
+        BLOCK,
+        /**
+         * The oldest messages are deleted from the outbox.
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * AuditOutboxRepository object for reading and deleting the outbox messages.
+     */
+    private final AuditOutboxRepository auditOutboxRepository;
+
+    /**
+     * AuditOutboxShardRepository object for locking the shards relayed by this instance.
+     */
+    private final AuditOutboxShardRepository auditOutboxShardRepository;
+
+    /**
+     * RabbitTemplate object for publishing the messages.
+     */
+    private final RabbitTemplate rabbitTemplate;
+
+    /**
+     * TransactionTemplate object running the reads and the deletes of a pass in their own transactions.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Name of the exchange receiving the log messages.
+     */
+    private final String exchangeName;
+
+    /**
+     * Routing key of the log messages, suffixed with the shard of the messages.
+     */
+    private final String routingKey;
+
+    /**
+     * Number of queue shards the messages are routed to.
+     */
+    private final int shards;
+
+    /**
+     * Maximum number of messages of a shard published in one pass.
+     */
+    private final int batchSize;
+
+    /**
+     * Time in milliseconds between two passes when the outbox is empty.
+     */
+    private final long pollInterval;
+
+    /**
+     * Maximum time in milliseconds to wait for the broker to confirm the messages of a shard.
+     */
+    private final long confirmTimeout;
+
+    /**
+     * Maximum number of messages waiting in the outbox before the overflow policy applies.
+     */
+    private final long maxDepth;
+
+    /**
+     * What happens to the messages written while the outbox is over the maximum depth.
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * Maximum time in milliseconds a request waits for room in the outbox with the block policy.
+     */
+    private final long blockTimeout;
+
+    /**
+     * Number of messages in the outbox, counted at the start of every pass.
+     */
+    private final AtomicLong depth = new AtomicLong();
+
+    /**
+     * Notified every time the depth is counted, so the requests waiting for room check it again.
+     */
+    private final Object depthCounted = new Object();
+
+    /**
+     * Time in epoch milliseconds the depth was last counted at.
+     */
+    private volatile long depthCountedAt;
+
+    /**
+     * True while a request waiting for room counts the outbox.
+     */
+    private final AtomicBoolean recounting = new AtomicBoolean();
+
+    /**
+     * Number of messages confirmed by the broker.
+     */
+    private final Counter relayedCounter;
+
+    /**
+     * Number of messages left in the outbox for the next pass, not confirmed by the broker or published after one that wasn't.
+     */
+    private final Counter failedCounter;
+
+    /**
+     * Number of messages deleted from the outbox without being published, with the drop-oldest policy.
+     */
+    private final Counter droppedCounter;
+
+    /**
+     * Number of requests failed because the outbox stayed full for the block timeout, with the block policy.
+     */
+    private final Counter rejectedCounter;
+
+    /**
+     * Released when a new message is committed, so the relay doesn't wait for the poll interval.
+     */
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    /**
+     * Thread running the passes.
+     */
+    private final Thread relay = new Thread(this::relayLoop, "audit-outbox-relay");
+
+    /**
+     * False once the service is shutting down.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Identifies this instance in the shard leases.
+     */
+    private final String owner = UUID.randomUUID().toString();
+
+    /**
+     * Constructor for AuditOutboxRelay.
+     * @param auditOutboxRepository AuditOutboxRepository object for reading and deleting the outbox messages
+     * @param auditOutboxShardRepository AuditOutboxShardRepository object for locking the shards relayed by this instance
+     * @param rabbitTemplate RabbitTemplate object for publishing the messages
+     * @param transactionManager Transaction manager of the outbox
+     * @param meterRegistry Registry of the relay metrics
+     * @param exchangeName Name of the exchange receiving the log messages
+     * @param routingKey Routing key of the log messages, suffixed with the shard of the message
+     * @param shards Number of queue shards the messages are routed to
+     * @param batchSize Maximum number of messages of a shard published in one pass
+     * @param pollInterval Time in milliseconds between two passes when the outbox is empty
+     * @param confirmTimeout Maximum time in milliseconds to wait for the broker to confirm the messages of a shard
+     * @param maxDepth Maximum number of messages waiting in the outbox before the overflow policy applies
+     * @param overflow What happens beyond the maximum depth: spill, block or drop-oldest
+     * @param blockTimeout Maximum time in milliseconds a request waits for room in the outbox with the block policy
+     */
+    @Autowired
+    public AuditOutboxRelay(AuditOutboxRepository auditOutboxRepository,
+                            AuditOutboxShardRepository auditOutboxShardRepository,
+                            RabbitTemplate rabbitTemplate,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${rabbitmq.exchange.name}") String exchangeName,
+                            @Value("${rabbitmq.routing.key}") String routingKey,
+                            @Value("${rabbitmq.queue.shards}") int shards,
+                            @Value("${audit.outbox.batch.size}") int batchSize,
+                            @Value("${audit.outbox.poll.interval}") long pollInterval,
+                            @Value("${audit.outbox.confirm.timeout}") long confirmTimeout,
+                            @Value("${audit.outbox.max.depth}") long maxDepth,
+                            @Value("${audit.outbox.overflow}") String overflow,
+                            @Value("${audit.outbox.block.timeout}") long blockTimeout) {
+        this.auditOutboxRepository = auditOutboxRepository;
+        this.auditOutboxShardRepository = auditOutboxShardRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.exchangeName = exchangeName;
+        this.routingKey = routingKey;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.confirmTimeout = confirmTimeout;
+        this.maxDepth = maxDepth;
+        this.overflowPolicy = switch (overflow.toLowerCase()) {
+            case "spill" -> OverflowPolicy.SPILL;
+            case "block" -> OverflowPolicy.BLOCK;
+            case "drop-oldest" -> OverflowPolicy.DROP_OLDEST;
+            default -> throw new IllegalArgumentException("Unknown audit outbox overflow policy " + overflow);
+        };
+        this.blockTimeout = blockTimeout;
+        this.relayedCounter = Counter.builder("audit.outbox.relayed")
+                .description("Audit log messages confirmed by the broker and removed from the outbox")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("audit.outbox.failed")
+                .description("Audit log messages left in the outbox, not confirmed by the broker or published after one that wasn't")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.outbox.dropped")
+                .description("Audit log messages deleted from the outbox without being published, the outbox being full")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("audit.outbox.rejected")
+                .description("Requests failed because the audit outbox stayed full")
+                .register(meterRegistry);
+        Gauge.builder("audit.outbox.depth", depth, AtomicLong::get)
+                .description("Audit log messages waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        createShards();
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Creates the rows of the shards missing from the AUDIT_OUTBOX_SHARD table.
+     * Instances starting together may create the same shard, the ones losing the race keep the existing row.
+     */
+    private void createShards() {
+        for (int shard = 0; shard < shards; shard++) {
+            int created = shard;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (auditOutboxShardRepository.findById(created).isEmpty()) {
+                        auditOutboxShardRepository.save(new AuditOutboxShard(created));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Created by another instance in the meantime
+            }
+        }
+    }
+
+    /**
+     * Waits, with the block policy, until the outbox is below the maximum depth.
+     * Called before a request changing audited data starts, outside of any transaction, so nothing is locked while it waits.
+     * The outbox is counted again while waiting, the relay may be backing off while the broker is unreachable.
+     * @throws IllegalStateException if the outbox is still full after the block timeout
+     */
+    public void awaitCapacity() {
+        if (overflowPolicy != OverflowPolicy.BLOCK || depth.get() < maxDepth) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + blockTimeout;
+        while (depth.get() >= maxDepth) {
+            long now = System.currentTimeMillis();
+            if (now >= deadline) {
+                rejectedCounter.increment();
+                throw new IllegalStateException("The audit outbox is full, " + depth.get() + " messages wait for the broker");
+            }
+            long sinceCount = now - depthCountedAt;
+            // One waiter counts, outside of the monitor, the others are notified of the result
+            if (sinceCount >= DEPTH_RECOUNT_INTERVAL && recounting.compareAndSet(false, true)) {
+                try {
+                    countDepth();
+                } finally {
+                    recounting.set(false);
+                }
+                continue;
+            }
+            synchronized (depthCounted) {
+                if (depth.get() < maxDepth) {
+                    return;
+                }
+                try {
+                    depthCounted.wait(Math.max(1, Math.min(deadline - now, DEPTH_RECOUNT_INTERVAL - sinceCount)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for room in the audit outbox", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the messages in the outbox and wakes up the requests waiting for room.
+     * The monitor is only held to notify them, never during the count.
+     */
+    void countDepth() {
+        depth.set(auditOutboxRepository.countDepth());
+        depthCountedAt = System.currentTimeMillis();
+        synchronized (depthCounted) {
+            depthCounted.notifyAll();
+        }
+    }
+
+    /**
+     * Signals that a message has been committed to the outbox.
+     */
+    public void wakeUp() {
+        wakeUp.release();
+    }
+
+    /**
+     * Body of the relay thread.
+     * A pass counts the messages in the outbox, then relays every shard once. A pass that removed a full batch from a shard is followed by another one
+     * right away, otherwise the thread waits for a new message or the poll interval.
+     * While the broker can't be reached the wait grows exponentially.
+     */
+    private void relayLoop() {
+        long retryDelay = pollInterval;
+        while (running) {
+            try {
+                countDepth();
+                boolean full = false;
+                for (int shard = 0; shard < shards; shard++) {
+                    int relayed = shard;
+                    full |= relayBatch(relayed) == batchSize;
+                }
+                retryDelay = pollInterval;
+                if (full) {
+                    continue;
+                }
+                wakeUp.tryAcquire(pollInterval, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Error relaying audit outbox, retrying in " + retryDelay + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+            }
+        }
+    }
+
+    /**
+     * Publishes the oldest messages of a shard and deletes the ones the broker confirmed,
+     * up to the first unconfirmed one, unless another instance holds the lease on the shard.
+     * With the drop-oldest policy, the oldest messages of a shard over its share of the maximum depth are deleted first.
+     * The messages are read in one transaction and deleted in another, the confirms are awaited in between.
+     * @param shard Shard to relay
+     * @return Number of messages removed from the outbox
+     */
+    int relayBatch(int shard) {
+        List<AuditOutbox> batch = transactionTemplate.execute(status -> claimBatch(shard));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        String shardRoutingKey = RabbitConfig.shardRoutingKey(routingKey, shard);
+        Map<Long, CorrelationData> pending = new LinkedHashMap<>();
+        rabbitTemplate.invoke(operations -> {
+            for (AuditOutbox message : batch) {
+                CorrelationData correlationData = new CorrelationData(String.valueOf(message.getId()));
+                operations.send(exchangeName, shardRoutingKey, toAmqpMessage(message), correlationData);
+                pending.put(message.getId(), correlationData);
+            }
+            return null;
+        });
+
+        // The messages after an unconfirmed one are published again with it, so the shard stays in order
+        List<Long> confirmed = new ArrayList<>(pending.size());
+        long deadline = System.currentTimeMillis() + confirmTimeout;
+        for (Map.Entry<Long, CorrelationData> entry : pending.entrySet()) {
+            if (!isConfirmed(entry.getValue(), deadline)) {
+                break;
+            }
+            confirmed.add(entry.getKey());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Confirmed messages are deleted even if the lease expired meanwhile, the broker has them
+            if (!confirmed.isEmpty()) {
+                auditOutboxRepository.deleteAllByIdIn(confirmed);
+            }
+            auditOutboxShardRepository.release(shard, owner);
+        });
+        relayedCounter.increment(confirmed.size());
+        failedCounter.increment(batch.size() - confirmed.size());
+        return confirmed.size();
+    }
+
+    /**
+     * Takes the lease on a shard and reads its oldest messages, unless another instance holds the lease.
+     * Must run in a transaction, which only lasts for the lease and the read.
+     * @param shard Shard to relay
+     * @return Oldest messages of the shard, empty if another instance holds the lease
+     */
+    private List<AuditOutbox> claimBatch(int shard) {
+        if (auditOutboxShardRepository.tryLock(shard).isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(confirmTimeout + LEASE_MARGIN, ChronoUnit.MILLIS);
+        if (auditOutboxShardRepository.claim(shard, owner, now, leaseUntil) == 0) {
+            return List.of();
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST && depth.get() > maxDepth) {
+            dropOldest(shard);
+        }
+        return auditOutboxRepository.findNextBatch(shard, batchSize);
+    }
+
+    /**
+     * Deletes the oldest messages of a shard over its share of the maximum depth,
+     * never more than the outbox holds over the maximum depth.
+     * @param shard Shard leased by this instance
+     */
+    private void dropOldest(int shard) {
+        long shardMaxDepth = (maxDepth + shards - 1) / shards;
+        long excess = Math.min(auditOutboxRepository.countShard(shard) - shardMaxDepth, depth.get() - maxDepth);
+        if (excess <= 0) {
+            return;
+        }
+        int dropped = auditOutboxRepository.deleteOldest(shard, excess);
+        depth.addAndGet(-dropped);
+        droppedCounter.increment(dropped);
+        System.err.println("Audit outbox full, dropped the " + dropped + " oldest messages of shard " + shard);
+    }
+
+    /**
+     * Waits for the confirm of a message, until the deadline of the pass.
+     * @param correlationData Correlation data of the published message
+     * @param deadline Time in milliseconds after which the message is left for the next pass
+     * @return true if the broker acked the message and didn't return it
+     */
+    private boolean isConfirmed(CorrelationData correlationData, long deadline) {
+        try {
+            long timeout = Math.max(0, deadline - System.currentTimeMillis());
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(timeout, TimeUnit.MILLISECONDS);
+            return confirm.isAck() && correlationData.getReturned() == null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Builds the AMQP message of an outbox message.
+     * The payload is already the JSON of the log message, so it is used as the body as is,
+     * with the headers the JSON message converter would have set.
+     * @param message Outbox message
+     * @return AMQP message
+     */
+    private static Message toAmqpMessage(AuditOutbox message) {
+        return MessageBuilder.withBody(message.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, LogMessage.class.getName())
+                .build();
+    }
+
+    /**
+     * Stops the relay, letting it finish its current pass.
+     * @throws InterruptedException if the thread is interrupted while waiting for the relay
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        wakeUp();
+        relay.join(SHUTDOWN_TIMEOUT);
+        if (relay.isAlive()) {
+            relay.interrupt();
+        }
+    }
+}
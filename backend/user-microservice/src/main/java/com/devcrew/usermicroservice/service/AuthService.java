@@ -12,6 +12,7 @@ import com.devcrew.usermicroservice.repository.RoleRepository;
 import com.devcrew.usermicroservice.repository.UserRepository;
 import com.devcrew.usermicroservice.utils.JsonBuilderUtils;
 import com.devcrew.usermicroservice.utils.ValidationUtils;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -88,12 +89,12 @@ public class AuthService {
             Integer userId = userSaved != null ? userSaved.getId() : null;
             String username = userSaved != null ? userSaved.getUsername() : null;
 
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(userSaved);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(userSaved);
 
             Objects.requireNonNull(userSaved).setLoggedIn(true);
             userRepository.save(userSaved);
 
-            String jsonAfter = JsonBuilderUtils.jsonBuilder(userSaved);
+            JsonNode jsonAfter = JsonBuilderUtils.snapshot(userSaved);
 
             logSenderService.mapAndSendLog(
                     null, null, null,
@@ -166,8 +167,8 @@ public class AuthService {
                     null, null, null,
                     "Create", "User", "app_user", userId,
                     "User with " + request.getUser_name() + " username has been created successfully.",
-                    JsonBuilderUtils.jsonBuilder("{}"),
-                    JsonBuilderUtils.jsonBuilder(userSaved),
+                    JsonBuilderUtils.emptySnapshot(),
+                    JsonBuilderUtils.snapshot(userSaved),
                     request.getUser_name(),
                     request.getMail()
             );
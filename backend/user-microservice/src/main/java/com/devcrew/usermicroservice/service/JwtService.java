@@ -3,28 +3,45 @@ package com.devcrew.usermicroservice.service;
 import com.devcrew.usermicroservice.exception.UserDoesNotExistException;
 import com.devcrew.usermicroservice.model.AppUser;
 import com.devcrew.usermicroservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * Service class for managing JWT operations.
+ * A token is parsed and its signature verified once, its claims are then kept until it expires,
+ * keyed by the hash of the token, and memoized in the current request.
  */
 @Service
 public class JwtService {
 
+    /**
+     * Request attribute holding the last token verified in the request and its claims.
+     */
+    private static final String REQUEST_CLAIMS = JwtService.class.getName() + ".claims";
+
     /**
      * Secret key used to sign the JWT.
      */
@@ -43,13 +60,55 @@ public class JwtService {
     private final UserRepository userRepository;
 
     /**
-     * Constructor for JwtService, initializes the user repository.
+     * Claims of the verified tokens, keyed by the SHA-256 of the token, each entry expires with its token.
+     */
+    private final Cache<String, Claims> verifiedClaims;
+
+    /**
+     * Key used to sign and verify the JWT, built once from the secret.
+     */
+    private Key key;
+
+    /**
+     * Constructor for JwtService, initializes the user repository and the verified claims cache.
      *
      * @param userRepository the user repository
+     * @param claimsCacheSize the maximum number of verified tokens whose claims are kept
      */
     @Autowired
-    public JwtService(UserRepository userRepository) {
+    public JwtService(UserRepository userRepository,
+                      @Value("${jwt.claims.cache.size}") long claimsCacheSize) {
         this.userRepository = userRepository;
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        long remaining = claims.getExpiration() != null
+                                ? claims.getExpiration().getTime() - System.currentTimeMillis()
+                                : EXPIRATION_DATE;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Builds the signing key from the secret.
+     */
+    @PostConstruct
+    public void initKey() {
+        key = new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
     }
 
     /**
@@ -98,17 +157,12 @@ public class JwtService {
     }
 
     /**
-     * Generates the signing key for the JWT token.
+     * Returns the signing key for the JWT token.
      *
      * @return the signing key
      */
     private Key getKey() {
-        try {
-            byte[] keyBytes = SECRET_KEY.getBytes(StandardCharsets.UTF_8);
-            return new SecretKeySpec(keyBytes, "HmacSHA256");
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating key", e);
-        }
+        return key;
     }
 
     /**
@@ -134,8 +188,8 @@ public class JwtService {
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            final String username = getUsernameFromToken(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+            final Claims claims = getAllClaimsFromToken(token);
+            return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
         } catch (Exception e) {
             throw new RuntimeException("Error validating token", e);
         }
@@ -143,64 +197,88 @@ public class JwtService {
 
     /**
      * Retrieves all claims from a JWT token.
+     * The token is only parsed and verified the first time it is seen, the claims are then read from the
+     * current request or from the verified claims cache until the token expires.
+     * The returned claims are shared, they must not be modified.
      *
      * @param token the JWT token to retrieve the claims from
      * @return the claims from the token
      */
     public Claims getAllClaimsFromToken(String token) {
         try {
-            return Jwts
-                    .parser()
-                    .setSigningKey(getKey())
-                    .parseClaimsJws(token)
-                    .getBody();
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes != null
+                    && attributes.getAttribute(REQUEST_CLAIMS, RequestAttributes.SCOPE_REQUEST) instanceof VerifiedToken verified
+                    && verified.token().equals(token)) {
+                return verified.claims();
+            }
+            Claims claims = verifiedClaims.get(hashToken(token), tokenHash -> parseClaims(token));
+            if (attributes != null) {
+                attributes.setAttribute(REQUEST_CLAIMS, new VerifiedToken(token, claims), RequestAttributes.SCOPE_REQUEST);
+            }
+            return claims;
         } catch (Exception e) {
             throw new RuntimeException("Error retrieving all claims from token", e);
         }
     }
 
     /**
-     * Retrieves a specific claim from a JWT token.
+     * Trusts the claims of a token already verified by the API gateway for the rest of the request,
+     * so the token is not parsed and verified again.
      *
-     * @param token the JWT token to retrieve the claim from
-     * @param claimsResolver the function to resolve the claim
-     * @param <T> the type of the claim to retrieve
-     * @return the claim from the token
+     * @param token the JWT token of the request
+     * @param claims the claims forwarded by the gateway
      */
-    public <T> T getClaim(String token, Function<Claims, T> claimsResolver) {
-        try {
-            final Claims claims = getAllClaimsFromToken(token);
-            return claimsResolver.apply(claims);
-        } catch (Exception e) {
-            throw new RuntimeException("Error retrieving claim from token", e);
+    public void trustVerifiedClaims(String token, Claims claims) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_CLAIMS, new VerifiedToken(token, claims), RequestAttributes.SCOPE_REQUEST);
         }
     }
 
     /**
-     * Retrieves the expiration date from a JWT token.
+     * Parses a JWT token and verifies its signature and expiration date.
      *
-     * @param token the JWT token to retrieve the expiration date from
-     * @return the expiration date of the token
+     * @param token the JWT token to parse
+     * @return the claims from the token
      */
-    private Date getExpirationDateFromToken(String token) {
+    private Claims parseClaims(String token) {
+        return Jwts
+                .parser()
+                .setSigningKey(getKey())
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    /**
+     * Hashes a JWT token, so the caches and the revocation store don't hold usable tokens.
+     *
+     * @param token the JWT token
+     * @return the Base64 SHA-256 of the token
+     */
+    public static String hashToken(String token) {
         try {
-            return getClaim(token, Claims::getExpiration);
-        } catch (Exception e) {
-            throw new RuntimeException("Error retrieving expiration date from token", e);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
     /**
-     * Checks if a JWT token is expired.
+     * Retrieves a specific claim from a JWT token.
      *
-     * @param token the JWT token to check if it is expired
-     * @return true if the token is expired, false otherwise
+     * @param token the JWT token to retrieve the claim from
+     * @param claimsResolver the function to resolve the claim
+     * @param <T> the type of the claim to retrieve
+     * @return the claim from the token
      */
-    private boolean isTokenExpired(String token) {
+    public <T> T getClaim(String token, Function<Claims, T> claimsResolver) {
         try {
-            return getExpirationDateFromToken(token).before(new Date());
+            final Claims claims = getAllClaimsFromToken(token);
+            return claimsResolver.apply(claims);
         } catch (Exception e) {
-            throw new RuntimeException("Error checking if token is expired", e);
+            throw new RuntimeException("Error retrieving claim from token", e);
         }
     }
 
@@ -220,4 +298,13 @@ public class JwtService {
             throw new RuntimeException("Error retrieving role from user details", e);
         }
     }
+
+    /**
+     * A token verified in the current request and its claims.
+     *
+     * @param token the JWT token
+     * @param claims the claims from the token
+     */
+    private record VerifiedToken(String token, Claims claims) {
+    }
 }
\ No newline at end of file
@@ -1,24 +1,85 @@
 package com.devcrew.usermicroservice.service;
 
+import com.devcrew.usermicroservice.config.RabbitConfig;
 import com.devcrew.usermicroservice.dto.LogMessage;
 import com.devcrew.usermicroservice.mapper.LogMessageMapper;
-import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.devcrew.usermicroservice.model.AuditOutbox;
+import com.devcrew.usermicroservice.repository.AuditOutboxRepository;
+import com.devcrew.usermicroservice.utils.JsonBuilderUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+
+/**
+ * Service class that records the audit log messages for the log microservice.
+ * The entity snapshots are reduced to their changed attributes unless audit.snapshot.mode is full.
+ * Messages are written to the AUDIT_OUTBOX table in the transaction of the change they describe,
+ * so a rolled back change is never audited and a broker outage loses nothing.
+ * AuditOutboxRelay publishes them to RabbitMQ in the background; with the block overflow policy,
+ * AuditOutboxCapacityInterceptor holds back the requests changing audited data before their transaction opens.
+ */
 @Service
-@RequiredArgsConstructor
 public class LogSenderService {
 
-    private final RabbitTemplate rabbitTemplate;
+    /**
+     * AuditOutboxRepository object for writing the messages to the outbox.
+     */
+    private final AuditOutboxRepository auditOutboxRepository;
+
+    /**
+     * AuditOutboxRelay object, woken up once a message is committed.
+     */
+    private final AuditOutboxRelay auditOutboxRelay;
+
+    /**
+     * ObjectMapper object for writing the messages as JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * True if only the changed attributes of the entities are recorded, false to record the full snapshots.
+     */
+    private final boolean diffSnapshots;
 
-    @Value("${rabbitmq.exchange.name}")
-    private String exchangeName;
+    /**
+     * Number of queue shards the messages are spread over.
+     */
+    private final int shards;
 
-    @Value("${rabbitmq.routing.key}")
-    private String routingKey;
+    /**
+     * Constructor for LogSenderService.
+     * @param auditOutboxRepository AuditOutboxRepository object for writing the messages to the outbox
+     * @param auditOutboxRelay AuditOutboxRelay object publishing the outbox
+     * @param objectMapper ObjectMapper object for writing the messages as JSON
+     * @param snapshotMode diff to record only the changed attributes of the entities, full to record them whole
+     * @param shards Number of queue shards the messages are spread over
+     */
+    @Autowired
+    public LogSenderService(AuditOutboxRepository auditOutboxRepository,
+                            AuditOutboxRelay auditOutboxRelay,
+                            ObjectMapper objectMapper,
+                            @Value("${audit.snapshot.mode}") String snapshotMode,
+                            @Value("${rabbitmq.queue.shards}") int shards) {
+        this.auditOutboxRepository = auditOutboxRepository;
+        this.auditOutboxRelay = auditOutboxRelay;
+        this.objectMapper = objectMapper;
+        this.shards = shards;
+        this.diffSnapshots = switch (snapshotMode.toLowerCase()) {
+            case "diff" -> true;
+            case "full" -> false;
+            default -> throw new IllegalArgumentException("Unknown audit snapshot mode " + snapshotMode);
+        };
+    }
 
+    @Transactional
     public void mapAndSendLog(Integer actionId,
                               Integer moduleId,
                               Integer entityId,
@@ -27,16 +88,41 @@ public class LogSenderService {
                               String entity,
                               Integer userId,
                               String description,
-                              String jsonBefore,
-                              String jsonAfter,
+                              JsonNode jsonBefore,
+                              JsonNode jsonAfter,
                               String username,
                               String email) {
-        LogMessage logMessage = LogMessageMapper.toLogMessage(actionId, moduleId, entityId, action, module, entity, userId, description, jsonBefore, jsonAfter, username, email);
+        if (diffSnapshots) {
+            JsonBuilderUtils.Diff diff = JsonBuilderUtils.diff(jsonBefore, jsonAfter);
+            jsonBefore = diff.before();
+            jsonAfter = diff.after();
+        }
+        LogMessage logMessage = LogMessageMapper.toLogMessage(actionId, moduleId, entityId, action, module, entity, userId, description,
+                JsonBuilderUtils.jsonBuilder(jsonBefore), JsonBuilderUtils.jsonBuilder(jsonAfter), username, email);
 
+        String payload;
         try {
-            rabbitTemplate.convertAndSend(exchangeName, routingKey, logMessage);
-        } catch (Exception e) {
-            System.err.println("Error sending log message: " + e.getMessage());
+            payload = objectMapper.writeValueAsString(logMessage);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write log message: " + e.getMessage(), e);
+        }
+        auditOutboxRepository.save(AuditOutbox.builder()
+                .payload(payload)
+                .userId(userId)
+                .shard(RabbitConfig.shardOf(userId, shards))
+                .creationDate(LocalDateTime.now())
+                .build());
+
+        // The relay is woken up once the message is visible to it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditOutboxRelay.wakeUp();
+                }
+            });
+        } else {
+            auditOutboxRelay.wakeUp();
         }
     }
-}
\ No newline at end of file
+}
@@ -6,11 +6,11 @@ import com.devcrew.usermicroservice.mapper.PersonMapper;
 import com.devcrew.usermicroservice.model.AppPerson;
 import com.devcrew.usermicroservice.model.AppUser;
 import com.devcrew.usermicroservice.repository.PersonRepository;
-import com.devcrew.usermicroservice.repository.RolePermissionRepository;
 import com.devcrew.usermicroservice.repository.UserRepository;
 import com.devcrew.usermicroservice.utils.AuthorizationUtils;
 import com.devcrew.usermicroservice.utils.JsonBuilderUtils;
 import com.devcrew.usermicroservice.utils.JwtValidation;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -39,11 +39,6 @@ public class PersonService {
      */
     private final JwtValidation jwtValidation;
 
-    /**
-     * Role permission repository, used for accessing role permission-related data in the database.
-     */
-    private final RolePermissionRepository rolePermissionRepository;
-
     /**
      * Log sender service, used for sending logs to the log microservice.
      */
@@ -55,14 +50,12 @@ public class PersonService {
      * @param personRepository the person repository
      * @param userRepository the user repository
      * @param jwtValidation the JWT validation utility
-     * @param rolePermissionRepository the role permission repository
      */
     @Autowired
-    public PersonService(PersonRepository personRepository, UserRepository userRepository, JwtValidation jwtValidation, RolePermissionRepository rolePermissionRepository, LogSenderService logSenderService) {
+    public PersonService(PersonRepository personRepository, UserRepository userRepository, JwtValidation jwtValidation, LogSenderService logSenderService) {
         this.personRepository = personRepository;
         this.userRepository = userRepository;
         this.jwtValidation = jwtValidation;
-        this.rolePermissionRepository = rolePermissionRepository;
         this.logSenderService = logSenderService;
     }
 
@@ -101,7 +94,7 @@ public class PersonService {
             AppPerson personFromToken = validatePermissions(username, token, "UPDATE");
             AppPerson person = PersonMapper.toEntity(personDTO);
 
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(personFromToken);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(personFromToken);
 
             person.setAppUser(personFromToken.getAppUser());
             person.setId(personFromToken.getId());
@@ -113,7 +106,7 @@ public class PersonService {
                     "Update", "User", "app_person", person.getId(),
                     "Person with:" + person.getId() + " ID has been updated successfully.",
                     jsonBefore,
-                    JsonBuilderUtils.jsonBuilder(person),
+                    JsonBuilderUtils.snapshot(person),
                     person.getAppUser().getUsername(),
                     person.getAppUser().getEmail()
             );
@@ -140,8 +133,8 @@ public class PersonService {
                     null, null, null,
                     "Create", "User", "app_person", person.getId(),
                     "Person with:" + person.getId() + " ID has been created successfully.",
-                    "{}",
-                    JsonBuilderUtils.jsonBuilder(person),
+                    JsonBuilderUtils.emptySnapshot(),
+                    JsonBuilderUtils.snapshot(person),
                     person.getAppUser().getUsername(),
                     person.getAppUser().getEmail()
             );
@@ -169,8 +162,8 @@ public class PersonService {
                     null, null, null,
                     "Delete", "User", "app_person", id,
                     "Person with:" + id + " ID has been deleted successfully.",
-                    JsonBuilderUtils.jsonBuilder(person),
-                    "{}",
+                    JsonBuilderUtils.snapshot(person),
+                    JsonBuilderUtils.emptySnapshot(),
                     person.getAppUser().getUsername(),
                     person.getAppUser().getEmail()
             );
@@ -194,7 +187,7 @@ public class PersonService {
      * @return the AppPerson object of the user which information is being accessed
      */
     private AppPerson validatePermissions(String username, String token, String permissionNeeded) {
-        AppUser user = AuthorizationUtils.validatePermissions(username, token, permissionNeeded, jwtValidation, userRepository, rolePermissionRepository);
+        AppUser user = AuthorizationUtils.validatePermissions(username, token, permissionNeeded, jwtValidation, userRepository);
         return user.getAppPerson();
     }
 
@@ -204,10 +197,7 @@ public class PersonService {
      * @return a PersonDTO object with information about the person
      */
     public PersonDTO getPersonFromValidToken(String token) {
-        String username = jwtValidation.validateUsernameFromToken(token);
-        AppUser user = userRepository.findByUsername(username).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        );
+        AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
         return PersonMapper.toDTO(user.getAppPerson());
     }
 }
\ No newline at end of file
@@ -15,7 +15,7 @@ import com.devcrew.usermicroservice.model.RolePermission;
 import com.devcrew.usermicroservice.repository.PermissionRepository;
 import com.devcrew.usermicroservice.repository.RolePermissionRepository;
 import com.devcrew.usermicroservice.repository.RoleRepository;
-import com.devcrew.usermicroservice.repository.UserRepository;
+import com.devcrew.usermicroservice.security.AuthorizationEngine;
 import com.devcrew.usermicroservice.utils.JsonBuilderUtils;
 import com.devcrew.usermicroservice.utils.JwtValidation;
 import jakarta.transaction.Transactional;
@@ -43,11 +43,6 @@ public class RolePermissionService {
      */
     private final RolePermissionRepository rolePermissionRepository;
 
-    /**
-     * UserRepository object for accessing the user table in the database.
-     */
-    private final UserRepository userRepository;
-
     /**
      * JwtValidation object for validating the JWT token.
      */
@@ -63,25 +58,31 @@ public class RolePermissionService {
      */
     private final PermissionRepository permissionRepository;
 
+    /**
+     * AuthorizationEngine object compiled from the role permissions, rebuilt when they change.
+     */
+    private final AuthorizationEngine authorizationEngine;
+
     /**
      * Constructor for RolePermissionService,
      * which initializes the repositories and utilities using the @Autowired annotation.
      *
      * @param rolePermissionRepository the role permission repository
-     * @param userRepository the user repository
      * @param jwtValidation the JWT validation utility
      * @param roleRepository the role repository
      * @param permissionRepository the permission repository
+     * @param authorizationEngine the authorization engine
      */
     @Autowired
-    public RolePermissionService(RolePermissionRepository rolePermissionRepository, UserRepository userRepository, JwtValidation jwtValidation,
-                                 RoleRepository roleRepository, PermissionRepository permissionRepository, LogSenderService logSenderService) {
+    public RolePermissionService(RolePermissionRepository rolePermissionRepository, JwtValidation jwtValidation,
+                                 RoleRepository roleRepository, PermissionRepository permissionRepository, LogSenderService logSenderService,
+                                 AuthorizationEngine authorizationEngine) {
         this.rolePermissionRepository = rolePermissionRepository;
-        this.userRepository = userRepository;
         this.jwtValidation = jwtValidation;
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
         this.logSenderService = logSenderService;
+        this.authorizationEngine = authorizationEngine;
     }
 
     /**
@@ -105,11 +106,8 @@ public class RolePermissionService {
     @Transactional
     public void deleteRolePermission(String token, Integer id) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             RolePermission rolePermission = rolePermissionRepository.findById(id).orElseThrow(
                     () -> new BadRequestException("RolePermission not found")
@@ -119,13 +117,14 @@ public class RolePermissionService {
                     null, null, null,
                     "Delete", "Permission", "role_permission", user.getId(),
                     "User with " + username + " username has deleted a role permission.",
-                    JsonBuilderUtils.jsonBuilder(rolePermission),
-                    "{}",
+                    JsonBuilderUtils.snapshot(rolePermission),
+                    JsonBuilderUtils.emptySnapshot(),
                     user.getUsername(),
                     user.getEmail()
             );
 
             rolePermissionRepository.deleteById(id);
+            authorizationEngine.invalidate();
         } catch (CustomException ex) {
             throw new CustomException("Error deleting RolePermission\n" + ex.getMessage());
         } catch (Exception ex) {
@@ -143,11 +142,8 @@ public class RolePermissionService {
     @Transactional
     public void addRolePermission(String token, RolePermissionDTO rolePermission) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             RolePermission rolePermissionEntity = RolePermissionMapper.toEntity(rolePermission);
 
@@ -155,13 +151,14 @@ public class RolePermissionService {
                     null, null, null,
                     "Create", "Permission", "role_permission", user.getId(),
                     "User with " + username + " username has added a new role permission.",
-                    "{}",
-                    JsonBuilderUtils.jsonBuilder(rolePermissionEntity),
+                    JsonBuilderUtils.emptySnapshot(),
+                    JsonBuilderUtils.snapshot(rolePermissionEntity),
                     user.getUsername(),
                     user.getEmail()
             );
 
             rolePermissionRepository.save(rolePermissionEntity);
+            authorizationEngine.invalidate();
         } catch (CustomException ex) {
             throw new CustomException("Error adding RolePermission\n" + ex.getMessage());
         } catch (Exception ex) {
@@ -179,11 +176,8 @@ public class RolePermissionService {
     @Transactional
     public void updateRolePermission(String token, RolePermissionDTO rolePermission) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             RolePermission rolePermissionEntity = RolePermissionMapper.toEntity(rolePermission);
             RolePermission roleToUpdate = rolePermissionRepository.findById(rolePermissionEntity.getId()).orElseThrow(
@@ -197,13 +191,14 @@ public class RolePermissionService {
                     null, null, null,
                     "Update", "Permission", "role_permission", user.getId(),
                     "User with " + username + " username has updated a role permission.",
-                    JsonBuilderUtils.jsonBuilder(roleToUpdate),
-                    JsonBuilderUtils.jsonBuilder(rolePermissionEntity),
+                    JsonBuilderUtils.snapshot(roleToUpdate),
+                    JsonBuilderUtils.snapshot(rolePermissionEntity),
                     user.getUsername(),
                     user.getEmail()
             );
 
             rolePermissionRepository.save(rolePermissionEntity);
+            authorizationEngine.invalidate();
         } catch (CustomException ex) {
             throw new CustomException("Error updating RolePermission\n" + ex.getMessage());
         } catch (Exception ex) {
@@ -313,11 +308,8 @@ public class RolePermissionService {
     @Transactional
     public void deleteRole(String token, Integer roleId) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             Role role = roleRepository.findById(roleId).orElseThrow(
                     () -> new BadRequestException("Role not found")
@@ -327,8 +319,8 @@ public class RolePermissionService {
                     null, null, null,
                     "Delete", "Role", "role", user.getId(),
                     "User with " + username + " username has deleted a role.",
-                    JsonBuilderUtils.jsonBuilder(role),
-                    "{}",
+                    JsonBuilderUtils.snapshot(role),
+                    JsonBuilderUtils.emptySnapshot(),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -337,14 +329,15 @@ public class RolePermissionService {
                     null, null, null,
                     "Delete", "Role", "role_permission", user.getId(),
                     "User with " + username + " username has deleted the connections between the role and the permission.",
-                    JsonBuilderUtils.jsonBuilder(role),
-                    "{}",
+                    JsonBuilderUtils.snapshot(role),
+                    JsonBuilderUtils.emptySnapshot(),
                     user.getUsername(),
                     user.getEmail()
             );
 
             rolePermissionRepository.deleteByRole(role.getId());
             roleRepository.delete(role);
+            authorizationEngine.invalidate();
         } catch (CustomException ex) {
             throw new CustomException("Error deleting role\n" + ex.getMessage());
         } catch (Exception ex) {
@@ -365,11 +358,8 @@ public class RolePermissionService {
     @Transactional
     public void deletePermission(String token, Integer permissionId) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             Permission permission = permissionRepository.findById(permissionId).orElseThrow(
                     () -> new BadRequestException("Permission not found")
@@ -379,8 +369,8 @@ public class RolePermissionService {
                     null, null, null,
                     "Delete", "Permission", "permission", user.getId(),
                     "User with " + username + " username has deleted a permission.",
-                    JsonBuilderUtils.jsonBuilder(permission),
-                    "{}",
+                    JsonBuilderUtils.snapshot(permission),
+                    JsonBuilderUtils.emptySnapshot(),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -389,14 +379,15 @@ public class RolePermissionService {
                     null, null, null,
                     "Delete", "Permission", "role_permission", user.getId(),
                     "User with " + username + " username has deleted the connections between the role and the permission.",
-                    JsonBuilderUtils.jsonBuilder(permission),
-                    "{}",
+                    JsonBuilderUtils.snapshot(permission),
+                    JsonBuilderUtils.emptySnapshot(),
                     user.getUsername(),
                     user.getEmail()
             );
 
             rolePermissionRepository.deleteByPermission(permission.getId());
             permissionRepository.delete(permission);
+            authorizationEngine.invalidate();
         } catch (CustomException ex) {
             throw new CustomException("Error deleting permission\n" + ex.getMessage());
         } catch (Exception ex) {
@@ -414,11 +405,8 @@ public class RolePermissionService {
     @Transactional
     public void addRole(String token, RoleDTO role) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             Role roleToAdd = RoleMapper.toEntity(role);
 
@@ -426,8 +414,8 @@ public class RolePermissionService {
                     null, null, null,
                     "Create", "Role", "role", user.getId(),
                     "User with " + username + " username has added a new role.",
-                    "{}",
-                    JsonBuilderUtils.jsonBuilder(roleToAdd),
+                    JsonBuilderUtils.emptySnapshot(),
+                    JsonBuilderUtils.snapshot(roleToAdd),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -450,11 +438,8 @@ public class RolePermissionService {
     @Transactional
     public void addPermission(String token, PermissionDTO permission) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             Permission permissionToAdd = PermissionMapper.toEntity(permission);
 
@@ -462,13 +447,14 @@ public class RolePermissionService {
                     null, null, null,
                     "Create", "Permission", "permission", user.getId(),
                     "User with " + username + " username has added a new permission.",
-                    "{}",
-                    JsonBuilderUtils.jsonBuilder(permissionToAdd),
+                    JsonBuilderUtils.emptySnapshot(),
+                    JsonBuilderUtils.snapshot(permissionToAdd),
                     user.getUsername(),
                     user.getEmail()
             );
 
             permissionRepository.save(permissionToAdd);
+            authorizationEngine.invalidate();
         } catch (CustomException ex) {
             throw new CustomException("Error adding permission\n" + ex.getMessage());
         } catch (Exception ex) {
@@ -490,11 +476,8 @@ public class RolePermissionService {
     @Transactional
     public void updateRole(String token, RoleDTO role) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             Role roleEntity = RoleMapper.toEntity(role);
             Role roleToUpdate = roleRepository.findById(roleEntity.getId()).orElseThrow(
@@ -509,8 +492,8 @@ public class RolePermissionService {
                     null, null, null,
                     "Update", "Role", "role", user.getId(),
                     "User with " + username + " username has updated a role.",
-                    JsonBuilderUtils.jsonBuilder(roleToUpdate),
-                    JsonBuilderUtils.jsonBuilder(roleEntity),
+                    JsonBuilderUtils.snapshot(roleToUpdate),
+                    JsonBuilderUtils.snapshot(roleEntity),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -537,11 +520,8 @@ public class RolePermissionService {
     @Transactional
     public void updatePermission(String token, PermissionDTO permission) {
         try {
-            String username = jwtValidation.validateUsernameFromToken(token);
-
-            AppUser user = userRepository.findByUsername(username).orElseThrow(
-                    () -> new BadRequestException("User not found")
-            );
+            AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
+            String username = user.getUsername();
 
             Permission permissionEntity = PermissionMapper.toEntity(permission);
             Permission permissionToUpdate = permissionRepository.findById(permissionEntity.getId()).orElseThrow(
@@ -556,13 +536,14 @@ public class RolePermissionService {
                     null, null, null,
                     "Update", "Permission", "permission", user.getId(),
                     "User with " + username + " username has updated a permission.",
-                    JsonBuilderUtils.jsonBuilder(permissionToUpdate),
-                    JsonBuilderUtils.jsonBuilder(permissionEntity),
+                    JsonBuilderUtils.snapshot(permissionToUpdate),
+                    JsonBuilderUtils.snapshot(permissionEntity),
                     user.getUsername(),
                     user.getEmail()
             );
 
             permissionRepository.save(permissionEntity);
+            authorizationEngine.invalidate();
         } catch (CustomException ex) {
             throw new CustomException("Error updating permission\n" + ex.getMessage());
         } catch (Exception ex) {
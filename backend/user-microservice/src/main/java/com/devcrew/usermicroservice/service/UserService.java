@@ -7,13 +7,13 @@ import com.devcrew.usermicroservice.exception.UserDoesNotExistException;
 import com.devcrew.usermicroservice.mapper.UserMapper;
 import com.devcrew.usermicroservice.model.AppUser;
 import com.devcrew.usermicroservice.model.Role;
-import com.devcrew.usermicroservice.repository.RolePermissionRepository;
 import com.devcrew.usermicroservice.repository.RoleRepository;
 import com.devcrew.usermicroservice.repository.UserRepository;
 import com.devcrew.usermicroservice.utils.AuthorizationUtils;
 import com.devcrew.usermicroservice.utils.JsonBuilderUtils;
 import com.devcrew.usermicroservice.utils.JwtValidation;
 import com.devcrew.usermicroservice.utils.ValidationUtils;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -50,11 +50,6 @@ public class UserService {
      */
     private final JwtValidation jwtValidation;
 
-    /**
-     * Role permission repository for accessing role-permission data.
-     */
-    private final RolePermissionRepository rolePermissionRepository;
-
     /**
      * Role repository for accessing role data.
      */
@@ -66,21 +61,18 @@ public class UserService {
      * @param userRepository the user repository
      * @param passwordEncoder the password encoder
      * @param jwtValidation the JWT validation utility
-     * @param rolePermissionRepository the role permission repository
      * @param roleRepository the role repository
      */
     @Autowired
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        JwtValidation jwtValidation,
-                       RolePermissionRepository rolePermissionRepository,
                        RoleRepository roleRepository,
                        LogSenderService logSenderService) {
         this.logSenderService = logSenderService;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtValidation = jwtValidation;
-        this.rolePermissionRepository = rolePermissionRepository;
         this.roleRepository = roleRepository;
     }
 
@@ -121,8 +113,8 @@ public class UserService {
                     null, null, null,
                     "Delete", "User", "app_user", user.getId(),
                     "User with " + username + " username has been deleted successfully.",
-                    JsonBuilderUtils.jsonBuilder(user),
-                    "{}",
+                    JsonBuilderUtils.snapshot(user),
+                    JsonBuilderUtils.emptySnapshot(),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -153,11 +145,11 @@ public class UserService {
                 throw new UserAlreadyExistsException("Same Email");
             }
 
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(user);
 
             user.setEmail(email);
 
-            String jsonAfter = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonAfter = JsonBuilderUtils.snapshot(user);
 
             logSenderService.mapAndSendLog(
                     null, null, null,
@@ -197,11 +189,11 @@ public class UserService {
                 throw new UserAlreadyExistsException("User already exists");
             }
 
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(user);
 
             user.setUsername(newUsername);
 
-            String jsonAfter = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonAfter = JsonBuilderUtils.snapshot(user);
 
             logSenderService.mapAndSendLog(
                     null, null, null,
@@ -233,11 +225,11 @@ public class UserService {
         try {
             AppUser user = validatePermissions(username, token, "UPDATE");
 
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(user);
 
             user.setHashed_password(passwordEncoder.encode(password));
 
-            String jsonAfter = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonAfter = JsonBuilderUtils.snapshot(user);
 
             userRepository.save(user);
 
@@ -274,11 +266,11 @@ public class UserService {
                     () -> new BadRequestException("Role does not exist")
             );
 
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(user);
 
             user.setRole(role);
 
-            String jsonAfter = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonAfter = JsonBuilderUtils.snapshot(user);
 
             userRepository.save(user);
 
@@ -310,13 +302,13 @@ public class UserService {
         try {
             AppUser user = validatePermissions(username, token, "UPDATE");
 
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(user);
 
             user.setLoggedIn(false);
             userRepository.save(user);
             jwtValidation.invalidateToken(token);
 
-            String jsonAfter = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonAfter = JsonBuilderUtils.snapshot(user);
 
             logSenderService.mapAndSendLog(
                     null, null, null,
@@ -343,7 +335,7 @@ public class UserService {
      * @return the AppUser object with the user's information
      */
     private AppUser validatePermissions(String username, String token, String permissionNeeded) {
-        return AuthorizationUtils.validatePermissions(username, token, permissionNeeded, jwtValidation, userRepository, rolePermissionRepository);
+        return AuthorizationUtils.validatePermissions(username, token, permissionNeeded, jwtValidation, userRepository);
     }
 
     /**
@@ -352,7 +344,7 @@ public class UserService {
      * @param token the JWT token of the user doing the operation
      */
     public boolean validateAdmin(String token) {
-        return AuthorizationUtils.validateAdminPermissions(token, jwtValidation, userRepository, rolePermissionRepository);
+        return AuthorizationUtils.validateAdminPermissions(token, jwtValidation);
     }
 
 
@@ -388,14 +380,14 @@ public class UserService {
      */
     private void sendLogForExistingOAuth2User(AppUser user) {
         try {
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(user);
             user.setLoggedIn(true);
             logSenderService.mapAndSendLog(
                     null, null, null,
                     "Update", "User", "app_user", user.getId(),
                     "User with " + user.getUsername() + " username has logged in successfully using OAuth2.",
                     jsonBefore,
-                    JsonBuilderUtils.jsonBuilder(user),
+                    JsonBuilderUtils.snapshot(user),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -440,8 +432,8 @@ public class UserService {
                     null, null, null,
                     "Create", "User", "app_user", user.getId(),
                     "User with " + user.getUsername() + " username has been created successfully using OAuth2.",
-                    JsonBuilderUtils.jsonBuilder("{}"),
-                    JsonBuilderUtils.jsonBuilder(user),
+                    JsonBuilderUtils.emptySnapshot(),
+                    JsonBuilderUtils.snapshot(user),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -458,9 +450,7 @@ public class UserService {
      */
     @Transactional
     public String update2FASecretKey(String token, String encryptedSecretKey) {
-        AppUser user = userRepository.findByUsername(jwtValidation.validateUsernameFromToken(token)).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        );
+        AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
         user.setTwoFactorAuthSecretKey(encryptedSecretKey);
         return userRepository.save(user).getEmail();
     }
@@ -471,9 +461,7 @@ public class UserService {
      * @return the 2FA secret key
      */
     public String get2FASecretKey(String token) {
-        return userRepository.findByUsername(jwtValidation.validateUsernameFromToken(token)).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        ).getTwoFactorAuthSecretKey();
+        return jwtValidation.validatePrincipalFromToken(token).getUser().getTwoFactorAuthSecretKey();
     }
 
     /**
@@ -483,11 +471,9 @@ public class UserService {
      */
     @Transactional
     public void updateUser2FAStatus(String token, boolean faStatus) {
-        AppUser user = userRepository.findByUsername(jwtValidation.validateUsernameFromToken(token)).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        );
+        AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
         try {
-            String jsonBefore = JsonBuilderUtils.jsonBuilder(user);
+            JsonNode jsonBefore = JsonBuilderUtils.snapshot(user);
 
             user.setAuthenticated(faStatus);
 
@@ -496,7 +482,7 @@ public class UserService {
                     "Update", "User", "app_user", user.getId(),
                     "User with " + user.getUsername() + " username has been authenticated successfully.",
                     jsonBefore,
-                    JsonBuilderUtils.jsonBuilder(user),
+                    JsonBuilderUtils.snapshot(user),
                     user.getUsername(),
                     user.getEmail()
             );
@@ -514,9 +500,7 @@ public class UserService {
      */
     @Transactional
     public void reset2FA(String token, boolean faStatus) {
-        AppUser user = userRepository.findByUsername(jwtValidation.validateUsernameFromToken(token)).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        );
+        AppUser user = jwtValidation.validatePrincipalFromToken(token).getUser();
         user.setAuthenticated(faStatus); // Normally, this should be false
         user.setTwoFactorAuthSecretKey(null); // Reset the 2FA secret key
         userRepository.save(user);
@@ -528,9 +512,7 @@ public class UserService {
      * @return a UserDTO object with information about the user
      */
     public UserDTO getUserFromValidToken(String token) {
-        return UserMapper.toDTO(userRepository.findByUsername(jwtValidation.validateUsernameFromToken(token)).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        ));
+        return UserMapper.toDTO(jwtValidation.validatePrincipalFromToken(token).getUser());
     }
 
     /**
@@ -3,8 +3,9 @@ package com.devcrew.usermicroservice.utils;
 import com.devcrew.usermicroservice.exception.UnauthorizedException;
 import com.devcrew.usermicroservice.exception.UserDoesNotExistException;
 import com.devcrew.usermicroservice.model.AppUser;
-import com.devcrew.usermicroservice.repository.RolePermissionRepository;
 import com.devcrew.usermicroservice.repository.UserRepository;
+import com.devcrew.usermicroservice.security.AuthorizationEngine.RolePermissions;
+import com.devcrew.usermicroservice.security.ResolvedPrincipal;
 
 /**
  * This class is used to validate the permissions of a user.
@@ -13,6 +14,8 @@ import com.devcrew.usermicroservice.repository.UserRepository;
  * assigned to the role and some permissions needed to perform an action.
  * It also checks if the user is trying to access his own information.
  * It also checks if the user is an admin.
+ * The user, role and permissions come from the principal resolved once per request by JwtValidation,
+ * the permissions being compiled in memory by the AuthorizationEngine.
  */
 public class AuthorizationUtils {
 
@@ -38,28 +41,28 @@ public class AuthorizationUtils {
      * It checks the permissions based on the role of the user, one of the user's permissions
      * needs to be in the permissions needed String to perform an action.
      * It also checks if the user is trying to access his own information.
+     * The user is only looked up again when it is not the one making the request.
      *
      * @param username The username of the user
      * @param token The token of the user
      * @param permissionNeeded The permission needed to perform an action
      * @param jwtValidation The jwtValidation object
      * @param userRepository The userRepository object
-     * @param rolePermissionRepository The rolePermissionRepository object
      * @return The object with the user information
      */
-    public static AppUser validatePermissions(String username, String token, String permissionNeeded, JwtValidation jwtValidation, UserRepository userRepository, RolePermissionRepository rolePermissionRepository) {
-        String roleFromToken = jwtValidation.validateRoleFromToken(token);
-        String usernameFromToken = jwtValidation.validateUsernameFromToken(token);
-        AppUser user = userRepository.findByUsername(username).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        );
-
-        String permissions = String.valueOf(rolePermissionRepository.findByRole(user.getRole().getId()));
+    public static AppUser validatePermissions(String username, String token, String permissionNeeded, JwtValidation jwtValidation, UserRepository userRepository) {
+        ResolvedPrincipal principal = jwtValidation.validatePrincipalFromToken(token);
 
-        if (!hasPermission(roleFromToken, usernameFromToken, username, permissions, permissionNeeded)) {
+        if (!hasPermission(principal.getRole(), principal.getUsername(), username, principal.getPermissions(), permissionNeeded)) {
             throw new UnauthorizedException("User does not have permission");
         }
-        return user;
+
+        if (principal.getUsername().equals(username)) {
+            return principal.getUser();
+        }
+        return userRepository.findByUsername(username).orElseThrow(
+                () -> new UserDoesNotExistException("User does not exist")
+        );
     }
 
 
@@ -69,19 +72,11 @@ public class AuthorizationUtils {
      *
      * @param token The token of the user
      * @param jwtValidation The jwtValidation object
-     * @param userRepository The userRepository object
-     * @param rolePermissionRepository The rolePermissionRepository object
      */
-    public static boolean validateAdminPermissions(String token, JwtValidation jwtValidation, UserRepository userRepository, RolePermissionRepository rolePermissionRepository) {
-        String roleFromToken = jwtValidation.validateRoleFromToken(token);
-        String usernameFromToken = jwtValidation.validateUsernameFromToken(token);
-        AppUser user = userRepository.findByUsername(usernameFromToken).orElseThrow(
-                () -> new UserDoesNotExistException("User does not exist")
-        );
-
-        String permissions = String.valueOf(rolePermissionRepository.findByRole(user.getRole().getId()));
+    public static boolean validateAdminPermissions(String token, JwtValidation jwtValidation) {
+        ResolvedPrincipal principal = jwtValidation.validatePrincipalFromToken(token);
 
-        if (!hasAdminPermission(roleFromToken, permissions)) {
+        if (!hasAdminPermission(principal.getRole(), principal.getPermissions())) {
             throw new UnauthorizedException("User does not have permission");
         }
 
@@ -100,13 +95,13 @@ public class AuthorizationUtils {
      * @param permissionNeeded The permission needed to perform an action.
      * @return true if the user has the required permission, false otherwise.
      */
-    private static boolean hasPermission(String roleFromToken, String usernameFromToken, String username, String permissions, String permissionNeeded) {
+    private static boolean hasPermission(String roleFromToken, String usernameFromToken, String username, RolePermissions permissions, String permissionNeeded) {
         // A user can only read and edit his own information
         if (roleFromToken.equals(USER) && !usernameFromToken.equals(username)) {
             return false;
         }
-        return roleFromToken.equals(ADMIN) || permissions.contains(permissionNeeded)
-                || permissions.contains(ADMIN) || permissions.contains(FULL_ACCESS);
+        return roleFromToken.equals(ADMIN) || permissions.has(permissionNeeded)
+                || permissions.has(ADMIN) || permissions.has(FULL_ACCESS);
     }
 
     /**
@@ -116,7 +111,7 @@ public class AuthorizationUtils {
      * @param permissions The permissions assigned to the role of the user.
      * @return true if the user has admin permissions, false otherwise.
      */
-    private static boolean hasAdminPermission(String roleFromToken, String permissions) {
-        return roleFromToken.equals(ADMIN) || permissions.contains(ADMIN) || permissions.contains(FULL_ACCESS);
+    private static boolean hasAdminPermission(String roleFromToken, RolePermissions permissions) {
+        return roleFromToken.equals(ADMIN) || permissions.has(ADMIN) || permissions.has(FULL_ACCESS);
     }
 }
\ No newline at end of file
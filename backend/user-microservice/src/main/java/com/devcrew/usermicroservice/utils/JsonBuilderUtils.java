@@ -1,18 +1,27 @@
 package com.devcrew.usermicroservice.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import jakarta.transaction.Transactional;
 
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
 
 @Transactional
 public class JsonBuilderUtils {
     private static final ObjectMapper objectMapper = createObjectMapper();
 
+    // Compact writer, built once: audit snapshots are stored, never read by a person as is
+    private static final ObjectWriter objectWriter = objectMapper.writer();
+
     private static ObjectMapper createObjectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         JavaTimeModule module = new JavaTimeModule();
@@ -24,10 +33,83 @@ public class JsonBuilderUtils {
 
     public static String jsonBuilder(Object object) {
         try {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(object);
+            return objectWriter.writeValueAsString(object);
         } catch (JsonProcessingException e) {
             System.err.println("Error while building JSON: " + e.getMessage());
             throw new RuntimeException("Error while building JSON: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Takes an audit snapshot of an entity as a JSON tree, without writing it as text.
+     * The snapshot is detached from the entity, so it can be taken before the entity is changed.
+     *
+     * @param object the entity
+     * @return the snapshot of the entity
+     */
+    public static JsonNode snapshot(Object object) {
+        try {
+            return objectMapper.valueToTree(object);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error while building JSON: " + e.getMessage());
+            throw new RuntimeException("Error while building JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Snapshot of an entity that doesn't exist, before a creation or after a deletion.
+     *
+     * @return an empty JSON object
+     */
+    public static JsonNode emptySnapshot() {
+        return objectMapper.createObjectNode();
+    }
+
+    /**
+     * Reduces two snapshots of the same entity to the attributes that changed, nested objects included.
+     * The id is always kept, so the entity can still be identified.
+     *
+     * @param before the snapshot before the change
+     * @param after the snapshot after the change
+     * @return the changed attributes before and after the change
+     */
+    public static Diff diff(JsonNode before, JsonNode after) {
+        if (!before.isObject() || !after.isObject()) {
+            return new Diff(before, after);
+        }
+        ObjectNode changedBefore = objectMapper.createObjectNode();
+        ObjectNode changedAfter = objectMapper.createObjectNode();
+        Set<String> fields = new LinkedHashSet<>();
+        before.fieldNames().forEachRemaining(fields::add);
+        after.fieldNames().forEachRemaining(fields::add);
+        for (String field : fields) {
+            JsonNode oldValue = before.get(field);
+            JsonNode newValue = after.get(field);
+            if (field.equals("id") || !Objects.equals(oldValue, newValue)) {
+                if (oldValue != null && newValue != null && oldValue.isObject() && newValue.isObject()) {
+                    Diff nested = diff(oldValue, newValue);
+                    oldValue = nested.before();
+                    newValue = nested.after();
+                }
+                putIfPresent(changedBefore, field, oldValue);
+                putIfPresent(changedAfter, field, newValue);
+            }
+        }
+        return new Diff(changedBefore, changedAfter);
+    }
+
+    private static void putIfPresent(ObjectNode node, String field, JsonNode value) {
+        if (value != null) {
+            node.set(field, value);
+        }
+    }
+
+    /**
+     * Attributes of an entity before and after a change.
+     *
+     * @param before the attributes before the change
+     * @param after the attributes after the change
+     */
+    public record Diff(JsonNode before, JsonNode after) {
+    }
 }
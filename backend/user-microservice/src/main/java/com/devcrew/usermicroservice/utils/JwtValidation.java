@@ -2,30 +2,38 @@ package com.devcrew.usermicroservice.utils;
 
 import com.devcrew.usermicroservice.exception.BadCredentialsException;
 import com.devcrew.usermicroservice.exception.UserDoesNotExistException;
+import com.devcrew.usermicroservice.model.AppUser;
 import com.devcrew.usermicroservice.repository.UserRepository;
+import com.devcrew.usermicroservice.security.AuthorizationEngine;
+import com.devcrew.usermicroservice.security.ResolvedPrincipal;
+import com.devcrew.usermicroservice.security.TokenRevocationStore;
 import com.devcrew.usermicroservice.service.JwtService;
 import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
-
-import java.util.HashSet;
-import java.util.Set;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 
 /**
  * JwtValidation class is used to validate the token and extract the username and role from the token.
  * It uses JwtService to validate the token and extract the username and role from the token.
- * It uses UserRepository to get the user details from the database.
+ * It uses UserRepository to get the user details from the database, once per request:
+ * the resolved principal is kept in the request and reused by the filters and services.
  * {@code @Component} is used to indicate that the class is a Spring component.
  */
 @Component
 public class JwtValidation {
 
     /**
-     * invalidatedTokens is a set of invalidated tokens.
+     * Request attribute holding the principal resolved in the request.
+     */
+    private static final String REQUEST_PRINCIPAL = JwtValidation.class.getName() + ".principal";
+
+    /**
+     * TokenRevocationStore object keeps the invalidated tokens until they expire, shared by the instances.
      */
-    private final Set<String> invalidatedTokens = new HashSet<>();
+    private final TokenRevocationStore tokenRevocationStore;
 
     /**
      * JwtService object is used to validate the token and extract the username and role from the token.
@@ -38,15 +46,25 @@ public class JwtValidation {
     private final UserRepository userRepository;
 
     /**
-     * JwtValidation constructor is used to initialize the JwtService and UserRepository objects,
-     * using dependency injection.
+     * AuthorizationEngine object is used to get the permissions of the user's role.
+     */
+    private final AuthorizationEngine authorizationEngine;
+
+    /**
+     * JwtValidation constructor is used to initialize the JwtService, UserRepository, AuthorizationEngine
+     * and TokenRevocationStore objects, using dependency injection.
      * @param jwtService JwtService object is used to validate the token and extract the username and role from the token.
      * @param userRepository UserRepository object is used to get the user details from the database.
+     * @param authorizationEngine AuthorizationEngine object is used to get the permissions of the user's role.
+     * @param tokenRevocationStore TokenRevocationStore object keeps the invalidated tokens.
      */
     @Autowired
-    JwtValidation(JwtService jwtService, UserRepository userRepository) {
+    JwtValidation(JwtService jwtService, UserRepository userRepository, AuthorizationEngine authorizationEngine,
+                  TokenRevocationStore tokenRevocationStore) {
         this.jwtService = jwtService;
         this.userRepository = userRepository;
+        this.authorizationEngine = authorizationEngine;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     /**
@@ -59,21 +77,46 @@ public class JwtValidation {
      * @return String username is the username extracted from the token.
      */
     public String validateUsernameFromToken(String token) {
+        return validatePrincipalFromToken(token).getUsername();
+    }
+
+    /**
+     * validatePrincipalFromToken method is used to validate the token and resolve the user it was issued to.
+     * The user is only loaded once per request, later calls with the same token return the same principal.
+     * It throws UserDoesNotExistException if the user does not exist.
+     * It throws BadCredentialsException if the token is invalid.
+     * @param token The token of the user.
+     * @return ResolvedPrincipal the user, role and permissions behind the token.
+     */
+    public ResolvedPrincipal validatePrincipalFromToken(String token) {
         String jwtToken = token.substring(7); //Remove Bearer from token
 
-        if (invalidatedTokens.contains(jwtToken)) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(REQUEST_PRINCIPAL, RequestAttributes.SCOPE_REQUEST) instanceof ResolvedPrincipal principal
+                && principal.getToken().equals(jwtToken)) {
+            return principal;
+        }
+
+        if (tokenRevocationStore.isRevoked(JwtService.hashToken(jwtToken))) {
             throw new BadCredentialsException("Invalid token");
         }
 
-        String username = jwtService.getUsernameFromToken(jwtToken);
-        UserDetails userDetails = userRepository.findByUsername(username).orElseThrow(
+        Claims claims = jwtService.getAllClaimsFromToken(jwtToken);
+        AppUser user = userRepository.findByUsername(claims.getSubject()).orElseThrow(
                 () -> new UserDoesNotExistException("User does not exist")
         );
 
-        if (!jwtService.isTokenValid(jwtToken, userDetails)) {
+        if (!jwtService.isTokenValid(jwtToken, user)) {
             throw new BadCredentialsException("Invalid token");
         }
-        return username;
+
+        ResolvedPrincipal principal = new ResolvedPrincipal(jwtToken, user, claims.get("role", String.class),
+                authorizationEngine.permissionsOf(user.getRole().getId()));
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_PRINCIPAL, principal, RequestAttributes.SCOPE_REQUEST);
+        }
+        return principal;
     }
 
     /**
@@ -83,13 +126,13 @@ public class JwtValidation {
      * @return String role is the role extracted from the token.
      */
     public String validateRoleFromToken(String token) {
+        String jwtToken = token.substring(7); //Remove Bearer from token
 
-        if (invalidatedTokens.contains(token)) {
+        if (tokenRevocationStore.isRevoked(JwtService.hashToken(jwtToken))) {
             throw new BadCredentialsException("Invalid token");
         }
 
-        String tokenFin = token.substring(7); //Remove Bearer from token
-        Claims claims = jwtService.getAllClaimsFromToken(tokenFin);
+        Claims claims = jwtService.getAllClaimsFromToken(jwtToken);
         return claims.get("role", String.class);
     }
 
@@ -100,6 +143,12 @@ public class JwtValidation {
      */
     public void invalidateToken(String token) {
         String jwtToken = token.substring(7); //Remove Bearer from token
-        invalidatedTokens.add(jwtToken);
+        Claims claims = jwtService.getAllClaimsFromToken(jwtToken);
+        tokenRevocationStore.revoke(JwtService.hashToken(jwtToken), claims.getExpiration().getTime());
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(REQUEST_PRINCIPAL, RequestAttributes.SCOPE_REQUEST);
+        }
     }
 }
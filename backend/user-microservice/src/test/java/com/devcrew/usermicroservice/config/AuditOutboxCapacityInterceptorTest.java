@@ -0,0 +1,72 @@
+package com.devcrew.usermicroservice.config;
+
+import com.devcrew.usermicroservice.service.AuditOutboxRelay;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for AuditOutboxCapacityInterceptor.
+ * This class contains tests for the requests held back while the audit outbox is full.
+ */
+public class AuditOutboxCapacityInterceptorTest {
+
+    private final AuditOutboxRelay auditOutboxRelay = mock(AuditOutboxRelay.class);
+
+    private final AuditOutboxCapacityInterceptor interceptor = new AuditOutboxCapacityInterceptor(auditOutboxRelay);
+
+    /**
+     * Test that the requests to endpoints not changing audited data, such as signing in, never wait for the outbox.
+     */
+    @Test
+    public void testPreHandle_NotAuditedRequest() throws Exception {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/user"), new MockHttpServletResponse(),
+                handler("read")));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/auth/login"), new MockHttpServletResponse(),
+                handler("login")));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/static/app.js"), new MockHttpServletResponse(),
+                new Object()));
+
+        verifyNoInteractions(auditOutboxRelay);
+    }
+
+    /**
+     * Test that a request changing audited data waits for room in the outbox, and is answered 503 if the outbox stays full.
+     */
+    @Test
+    public void testPreHandle_AuditedChangeRequest() throws Exception {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("PUT", "/api/user"), new MockHttpServletResponse(),
+                handler("change")));
+        verify(auditOutboxRelay).awaitCapacity();
+
+        doThrow(new IllegalStateException("The audit outbox is full")).when(auditOutboxRelay).awaitCapacity();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("PUT", "/api/user"), response, handler("change")));
+        assertEquals(503, response.getStatus());
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new SampleController(), SampleController.class.getMethod(method));
+    }
+
+    /**
+     * Controller with an audited endpoint and endpoints that aren't.
+     */
+    public static class SampleController {
+
+        public void read() {
+        }
+
+        public void login() {
+        }
+
+        @AuditedChange
+        public void change() {
+        }
+    }
+}
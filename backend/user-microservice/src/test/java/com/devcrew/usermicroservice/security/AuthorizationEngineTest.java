@@ -0,0 +1,87 @@
+package com.devcrew.usermicroservice.security;
+
+import com.devcrew.usermicroservice.config.UserAndPersonConfig;
+import com.devcrew.usermicroservice.model.Permission;
+import com.devcrew.usermicroservice.model.Role;
+import com.devcrew.usermicroservice.model.RolePermission;
+import com.devcrew.usermicroservice.repository.PermissionRepository;
+import com.devcrew.usermicroservice.repository.RolePermissionRepository;
+import com.devcrew.usermicroservice.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AuthorizationEngine.
+ * This class contains tests for the permissions compiled from the role permission table.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@Import({UserAndPersonConfig.class})
+public class AuthorizationEngineTest {
+
+    /**
+     * The authorization engine being tested.
+     */
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
+
+    /**
+     * Repository for managing RolePermission entities.
+     */
+    @Autowired
+    private RolePermissionRepository rolePermissionRepository;
+
+    /**
+     * Repository for managing Role entities.
+     */
+    @Autowired
+    private RoleRepository roleRepository;
+
+    /**
+     * Repository for managing Permission entities.
+     */
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    /**
+     * Test that the permissions of every role are compiled from the role permission table.
+     */
+    @Test
+    public void testHasPermission() {
+        Role user = roleRepository.findByName("USER").orElseThrow();
+        Role admin = roleRepository.findByName("ADMIN").orElseThrow();
+
+        assertTrue(authorizationEngine.hasPermission(user.getId(), "READ"));
+        assertFalse(authorizationEngine.hasPermission(user.getId(), "FULL_ACCESS"));
+        assertTrue(authorizationEngine.hasPermission(admin.getId(), "FULL_ACCESS"));
+        assertFalse(authorizationEngine.hasPermission(admin.getId(), "UNKNOWN"));
+        assertFalse(authorizationEngine.hasPermission(null, "READ"));
+    }
+
+    /**
+     * Test that the permissions are compiled again when the role permission table changes.
+     */
+    @Test
+    public void testInvalidate() {
+        Role user = roleRepository.findByName("USER").orElseThrow();
+        Permission fullAccess = permissionRepository.findByName("FULL_ACCESS").orElseThrow();
+        assertFalse(authorizationEngine.hasPermission(user.getId(), "FULL_ACCESS"));
+
+        RolePermission rolePermission = rolePermissionRepository.save(
+                new RolePermission(user, fullAccess, "FULL_ACCESS permission for user"));
+        try {
+            assertFalse(authorizationEngine.hasPermission(user.getId(), "FULL_ACCESS"));
+            authorizationEngine.invalidate();
+            assertTrue(authorizationEngine.hasPermission(user.getId(), "FULL_ACCESS"));
+        } finally {
+            rolePermissionRepository.delete(rolePermission);
+            authorizationEngine.invalidate();
+        }
+        assertFalse(authorizationEngine.hasPermission(user.getId(), "FULL_ACCESS"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.devcrew.usermicroservice.security;
+
+import com.devcrew.usermicroservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for GatewayIdentity.
+ * This class contains tests for the identity headers signed by the API gateway.
+ */
+public class GatewayIdentityTest {
+
+    private static final String JWT_SECRET = "jwt-secret-of-the-tests-long-enough";
+    private static final String API_KEY = "internal-key";
+    private static final String TOKEN = "header.payload.signature";
+
+    private final GatewayIdentity gatewayIdentity = new GatewayIdentity(JWT_SECRET);
+
+    /**
+     * Test that the identity signed by the gateway for the token is trusted.
+     */
+    @Test
+    public void testVerify() throws Exception {
+        // Token expirations are whole seconds
+        long expiration = (System.currentTimeMillis() / 1000 + 60) * 1000;
+
+        Claims claims = gatewayIdentity.verify(request(TOKEN, "Ma123", "ADMIN", expiration, identityKey()), TOKEN);
+
+        assertNotNull(claims);
+        assertEquals("Ma123", claims.getSubject());
+        assertEquals("ADMIN", claims.get("role", String.class));
+        assertEquals(expiration, claims.getExpiration().getTime());
+    }
+
+    /**
+     * Test that an identity signed with another key, changed, for another token or expired is not trusted.
+     */
+    @Test
+    public void testVerify_Rejected() throws Exception {
+        long expiration = System.currentTimeMillis() + 60000;
+        byte[] identityKey = identityKey();
+
+        assertNull(gatewayIdentity.verify(request(TOKEN, "Ma123", "ADMIN", expiration, "other-key".getBytes()), TOKEN));
+        assertNull(gatewayIdentity.verify(request(TOKEN, "Ma123", "ADMIN", expiration, identityKey), "header.payload.other"));
+        assertNull(gatewayIdentity.verify(request(TOKEN, "Ma123", "ADMIN", expiration, identityKey), "other.payload.signature"));
+        assertNull(gatewayIdentity.verify(request(TOKEN, "Ma123", "ADMIN", System.currentTimeMillis() - 1000, identityKey), TOKEN));
+        assertNull(gatewayIdentity.verify(new MockHttpServletRequest(), TOKEN));
+
+        MockHttpServletRequest changed = request(TOKEN, "Ma123", "USER", expiration, identityKey);
+        changed.removeHeader(GatewayIdentity.ROLE_HEADER);
+        changed.addHeader(GatewayIdentity.ROLE_HEADER, "ADMIN");
+        assertNull(gatewayIdentity.verify(changed, TOKEN));
+    }
+
+    /**
+     * Test that knowing the internal API key, which travels in the X-API-Key header,
+     * isn't enough to forge an identity for an arbitrary token.
+     */
+    @Test
+    public void testVerify_ForgedWithApiKey() throws Exception {
+        long expiration = System.currentTimeMillis() + 60000;
+        byte[] apiKey = API_KEY.getBytes(StandardCharsets.UTF_8);
+
+        assertNull(gatewayIdentity.verify(request("x.y.z", "Ma123", "ADMIN", expiration, apiKey), "x.y.z"));
+
+        // The identity as it was signed before, with the signature segment of the token only
+        MockHttpServletRequest forged = request("x.y.z", "Ma123", "ADMIN", expiration, apiKey);
+        forged.removeHeader(GatewayIdentity.SIGNATURE_HEADER);
+        forged.addHeader(GatewayIdentity.SIGNATURE_HEADER, encode(hmac(apiKey, "z|Ma123|ADMIN|" + expiration)));
+        assertNull(gatewayIdentity.verify(forged, "x.y.z"));
+    }
+
+    /**
+     * Test that the fields of an identity can't be shifted into one another:
+     * subject a|b with role c and subject a with role b|c are signed differently.
+     */
+    @Test
+    public void testVerify_FieldsShifted() throws Exception {
+        long expiration = System.currentTimeMillis() + 60000;
+        MockHttpServletRequest signed = request(TOKEN, "a|b", "c", expiration, identityKey());
+        String signature = signed.getHeader(GatewayIdentity.SIGNATURE_HEADER);
+
+        assertEquals("3:a|b1:c", GatewayIdentity.identity("a|b", "c"));
+        assertEquals("1:a3:b|c", GatewayIdentity.identity("a", "b|c"));
+        assertNotNull(gatewayIdentity.verify(signed, TOKEN));
+        assertNotEquals(signature,
+                request(TOKEN, "a", "b|c", expiration, identityKey()).getHeader(GatewayIdentity.SIGNATURE_HEADER));
+
+        MockHttpServletRequest shifted = request(TOKEN, "a", "b|c", expiration, identityKey());
+        shifted.removeHeader(GatewayIdentity.SIGNATURE_HEADER);
+        shifted.addHeader(GatewayIdentity.SIGNATURE_HEADER, signature);
+        assertNull(gatewayIdentity.verify(shifted, TOKEN));
+    }
+
+    /**
+     * Derives the identity key from the JWT secret the way the gateway does.
+     */
+    private static byte[] identityKey() throws Exception {
+        return hmac(JWT_SECRET.getBytes(StandardCharsets.UTF_8), "gateway-identity");
+    }
+
+    /**
+     * Builds a request with the identity headers of a token, signed with a key.
+     */
+    private static MockHttpServletRequest request(String token, String subject, String role, long expiration,
+                                                  byte[] key) throws Exception {
+        String signed = GatewayIdentity.identity(JwtService.hashToken(token), subject, role, String.valueOf(expiration));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(GatewayIdentity.SUBJECT_HEADER, subject);
+        request.addHeader(GatewayIdentity.ROLE_HEADER, role);
+        request.addHeader(GatewayIdentity.EXPIRATION_HEADER, String.valueOf(expiration));
+        request.addHeader(GatewayIdentity.SIGNATURE_HEADER, encode(hmac(key, signed)));
+        return request;
+    }
+
+    private static byte[] hmac(byte[] key, String value) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(byte[] signature) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
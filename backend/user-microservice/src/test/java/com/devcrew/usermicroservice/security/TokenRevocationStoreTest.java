@@ -0,0 +1,81 @@
+package com.devcrew.usermicroservice.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for TokenRevocationStore.
+ * This class contains tests for the revocations kept locally and for the checks while Redis is unavailable.
+ */
+public class TokenRevocationStoreTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Test that the local store keeps every revocation until its token expires,
+     * however many more than the tokens found not revoked.
+     */
+    @Test
+    public void testLocalStore_KeepsEveryRevocation() {
+        TokenRevocationStore store = new TokenRevocationStore("local", 10, 1000, "reject", "user-microservice",
+                null, meterRegistry);
+        long expiration = System.currentTimeMillis() + 60000;
+
+        for (int i = 0; i < 1000; i++) {
+            store.revoke("token" + i, expiration);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(store.isRevoked("token" + i), "token" + i);
+        }
+        assertFalse(store.isRevoked("other"));
+    }
+
+    /**
+     * Test that a token unknown locally is rejected while Redis is unavailable, and the error counted.
+     */
+    @Test
+    public void testRedisUnavailable_Reject() {
+        TokenRevocationStore store = new TokenRevocationStore("redis", 10, 1000, "reject", "user-microservice",
+                unavailableRedis(), meterRegistry);
+
+        assertTrue(store.isRevoked("token"));
+        assertEquals(1, meterRegistry.counter("jwt.revocation.store.errors").count());
+        assertEquals(0, meterRegistry.counter("jwt.revocation.unchecked.accepted").count());
+    }
+
+    /**
+     * Test that a token unknown locally is accepted while Redis is unavailable when configured so, and counted,
+     * but a revocation known locally still applies.
+     */
+    @Test
+    public void testRedisUnavailable_Accept() {
+        TokenRevocationStore store = new TokenRevocationStore("redis", 10, 1000, "accept", "user-microservice",
+                unavailableRedis(), meterRegistry);
+        store.revoke("revoked", System.currentTimeMillis() + 60000);
+
+        assertFalse(store.isRevoked("token"));
+        assertTrue(store.isRevoked("revoked"));
+        assertEquals(1, meterRegistry.counter("jwt.revocation.unchecked.accepted").count());
+        // The failed write of the revocation and the failed check
+        assertEquals(2, meterRegistry.counter("jwt.revocation.store.errors").count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<StringRedisTemplate> unavailableRedis() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("Redis is down"));
+        doThrow(new RedisConnectionFailureException("Redis is down")).when(redisTemplate).convertAndSend(anyString(), anyString());
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(redisTemplate);
+        return provider;
+    }
+}
@@ -0,0 +1,228 @@
+package com.devcrew.usermicroservice.service;
+
+import com.devcrew.usermicroservice.model.AuditOutbox;
+import com.devcrew.usermicroservice.repository.AuditOutboxRepository;
+import com.devcrew.usermicroservice.repository.AuditOutboxShardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for AuditOutboxRelay.
+ * This class contains tests for the order the messages of a shard are published and removed from the outbox in,
+ * and for the overflow policies of the outbox.
+ */
+public class AuditOutboxRelayTest {
+
+    private final AuditOutboxRepository auditOutboxRepository = mock(AuditOutboxRepository.class);
+    private final AuditOutboxShardRepository auditOutboxShardRepository = mock(AuditOutboxShardRepository.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AuditOutboxRelay auditOutboxRelay = relay("spill", meterRegistry);
+
+    /**
+     * Payloads of the published messages, in publication order.
+     */
+    private final List<String> published = new ArrayList<>();
+
+    /**
+     * Payloads of the messages the broker nacks, the others are acked.
+     */
+    private Set<String> nacked = Set.of();
+
+    /**
+     * Sets up a broker confirming every published message, in the operations of the relay.
+     */
+    @BeforeEach
+    public void setUp() {
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+        doAnswer(invocation -> {
+            String payload = new String(invocation.<Message>getArgument(2).getBody(), StandardCharsets.UTF_8);
+            published.add(payload);
+            invocation.<CorrelationData>getArgument(3).getFuture()
+                    .complete(new CorrelationData.Confirm(!nacked.contains(payload), null));
+            return null;
+        }).when(operations).send(eq("logExchange"), eq("logRoutingKey.2"), any(Message.class), any(CorrelationData.class));
+        when(auditOutboxShardRepository.tryLock(2)).thenReturn(List.of(2));
+        when(auditOutboxShardRepository.claim(eq(2), anyString(), any(), any())).thenReturn(1);
+    }
+
+    /**
+     * Test that the messages published after an unconfirmed one stay in the outbox with it,
+     * and are published again in order on the next pass.
+     */
+    @Test
+    public void testRelayBatch_StopsAtFirstUnconfirmed() {
+        AuditOutbox first = message(1L, "first");
+        AuditOutbox second = message(2L, "second");
+        AuditOutbox third = message(3L, "third");
+        when(auditOutboxRepository.findNextBatch(2, 100)).thenReturn(List.of(first, second, third));
+        nacked = Set.of("second");
+
+        assertEquals(1, auditOutboxRelay.relayBatch(2));
+        verify(auditOutboxRepository).deleteAllByIdIn(List.of(1L));
+
+        when(auditOutboxRepository.findNextBatch(2, 100)).thenReturn(List.of(second, third));
+        nacked = Set.of();
+
+        assertEquals(2, auditOutboxRelay.relayBatch(2));
+        verify(auditOutboxRepository).deleteAllByIdIn(List.of(2L, 3L));
+        assertEquals(List.of("first", "second", "third", "second", "third"), published);
+    }
+
+    /**
+     * Test that a shard owned by another instance is left to it.
+     */
+    @Test
+    public void testRelayBatch_ShardOwnedByAnotherInstance() {
+        when(auditOutboxShardRepository.tryLock(2)).thenReturn(List.of());
+
+        assertEquals(0, auditOutboxRelay.relayBatch(2));
+        verify(auditOutboxRepository, never()).findNextBatch(anyInt(), anyInt());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    /**
+     * Test that a shard leased by another instance is left to it until the lease expires.
+     */
+    @Test
+    public void testRelayBatch_ShardLeasedByAnotherInstance() {
+        when(auditOutboxShardRepository.claim(eq(2), anyString(), any(), any())).thenReturn(0);
+
+        assertEquals(0, auditOutboxRelay.relayBatch(2));
+        verify(auditOutboxRepository, never()).findNextBatch(anyInt(), anyInt());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    /**
+     * Test that the messages are read in a first transaction, committed before they are published,
+     * and deleted in a second one that releases the lease, so no transaction waits for the broker.
+     */
+    @Test
+    public void testRelayBatch_PublishesOutsideTransactions() {
+        when(auditOutboxRepository.findNextBatch(2, 100)).thenReturn(List.of(message(1L, "first")));
+
+        assertEquals(1, auditOutboxRelay.relayBatch(2));
+
+        InOrder inOrder = inOrder(transactionManager, auditOutboxShardRepository, auditOutboxRepository, operations);
+        inOrder.verify(auditOutboxShardRepository).claim(eq(2), anyString(), any(), any());
+        inOrder.verify(auditOutboxRepository).findNextBatch(2, 100);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(operations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(auditOutboxRepository).deleteAllByIdIn(List.of(1L));
+        inOrder.verify(auditOutboxShardRepository).release(eq(2), anyString());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    /**
+     * Test that the drop-oldest policy deletes the oldest messages of a shard over its share of the maximum depth,
+     * no more than the outbox holds over it, and counts them.
+     */
+    @Test
+    public void testRelayBatch_DropOldest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditOutboxRelay dropOldest = relay("drop-oldest", registry);
+        when(auditOutboxRepository.countDepth()).thenReturn(10L);
+        when(auditOutboxRepository.countShard(2)).thenReturn(5L);
+        when(auditOutboxRepository.deleteOldest(2, 2)).thenReturn(2);
+        when(auditOutboxRepository.findNextBatch(2, 100)).thenReturn(List.of());
+
+        dropOldest.countDepth();
+        dropOldest.relayBatch(2);
+
+        // Share of the shard: 8 / 4 = 2, excess of the shard 3, excess of the outbox 2
+        verify(auditOutboxRepository).deleteOldest(2, 2);
+        assertEquals(2, registry.counter("audit.outbox.dropped").count());
+        assertEquals(8, registry.get("audit.outbox.depth").gauge().value());
+    }
+
+    /**
+     * Test that the spill policy keeps every message over the maximum depth.
+     */
+    @Test
+    public void testRelayBatch_SpillKeepsMessages() {
+        when(auditOutboxRepository.countDepth()).thenReturn(10L);
+        when(auditOutboxRepository.findNextBatch(2, 100)).thenReturn(List.of());
+
+        auditOutboxRelay.countDepth();
+        auditOutboxRelay.relayBatch(2);
+        auditOutboxRelay.awaitCapacity();
+
+        verify(auditOutboxRepository, never()).deleteOldest(anyInt(), anyLong());
+        assertEquals(10, meterRegistry.get("audit.outbox.depth").gauge().value());
+    }
+
+    /**
+     * Test that the block policy fails a change once the outbox stayed full for the block timeout,
+     * and lets it through once the outbox is below the maximum depth.
+     */
+    @Test
+    public void testAwaitCapacity_Block() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditOutboxRelay block = relay("block", registry);
+        when(auditOutboxRepository.countDepth()).thenReturn(8L);
+        block.countDepth();
+
+        assertThrows(IllegalStateException.class, block::awaitCapacity);
+        assertEquals(1, registry.counter("audit.outbox.rejected").count());
+
+        when(auditOutboxRepository.countDepth()).thenReturn(7L);
+        block.countDepth();
+        block.awaitCapacity();
+        assertEquals(1, registry.counter("audit.outbox.rejected").count());
+    }
+
+    /**
+     * Test that a request waiting for room counts the outbox again, instead of waiting for the next pass of the relay,
+     * which backs off while the broker is unreachable.
+     */
+    @Test
+    public void testAwaitCapacity_BlockCountsAgain() {
+        AuditOutboxRelay block = relay("block", new SimpleMeterRegistry(), 5000);
+        when(auditOutboxRepository.countDepth()).thenReturn(8L, 8L, 7L);
+        block.countDepth();
+
+        block.awaitCapacity();
+
+        verify(auditOutboxRepository, times(3)).countDepth();
+    }
+
+    /**
+     * Relay of 4 shards with a maximum depth of 8 messages and a block timeout of 50 ms.
+     */
+    private AuditOutboxRelay relay(String overflow, SimpleMeterRegistry registry) {
+        return relay(overflow, registry, 50);
+    }
+
+    private AuditOutboxRelay relay(String overflow, SimpleMeterRegistry registry, long blockTimeout) {
+        return new AuditOutboxRelay(auditOutboxRepository, auditOutboxShardRepository, rabbitTemplate,
+                transactionManager, registry, "logExchange", "logRoutingKey", 4, 100, 1000, 100,
+                8, overflow, blockTimeout);
+    }
+
+    private static AuditOutbox message(Long id, String payload) {
+        return new AuditOutbox(id, payload, 6, 2, LocalDateTime.now());
+    }
+}
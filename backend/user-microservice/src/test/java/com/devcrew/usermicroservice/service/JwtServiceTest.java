@@ -0,0 +1,108 @@
+package com.devcrew.usermicroservice.service;
+
+import com.devcrew.usermicroservice.config.UserAndPersonConfig;
+import com.devcrew.usermicroservice.model.AppUser;
+import com.devcrew.usermicroservice.model.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for JwtService.
+ * This class contains tests for the parsing and the verified claims cache of the JWT tokens.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@Import({UserAndPersonConfig.class})
+public class JwtServiceTest {
+
+    /**
+     * Service for managing JWT tokens.
+     */
+    @Autowired
+    private JwtService jwtService;
+
+    /**
+     * The secret the tokens are signed with.
+     */
+    @Value("${jwt.secret}")
+    private String secret;
+
+    /**
+     * Test that a token is only verified once, the same claims are returned until it expires.
+     */
+    @Test
+    public void testGetAllClaimsFromToken_Cached() {
+        String token = jwtService.getToken(user());
+
+        Claims claims = jwtService.getAllClaimsFromToken(token);
+
+        assertEquals("Ma123", claims.getSubject());
+        assertEquals("ADMIN", claims.get("role"));
+        assertSame(claims, jwtService.getAllClaimsFromToken(token));
+        assertEquals("Ma123", jwtService.getUsernameFromToken(token));
+        assertTrue(jwtService.isTokenValid(token, user()));
+    }
+
+    /**
+     * Test that a token with a tampered payload is rejected, even after the original token was cached.
+     */
+    @Test
+    public void testGetAllClaimsFromToken_Tampered() {
+        String token = jwtService.getToken(user());
+        jwtService.getAllClaimsFromToken(token);
+
+        String[] parts = token.split("\\.");
+        String tampered = token(Jwts.builder().setSubject("other"), secret).split("\\.")[1];
+        String forged = parts[0] + "." + tampered + "." + parts[2];
+
+        assertThrows(RuntimeException.class, () -> jwtService.getAllClaimsFromToken(forged));
+        assertThrows(RuntimeException.class,
+                () -> jwtService.getAllClaimsFromToken(token(Jwts.builder().setSubject("Ma123"), secret + "other")));
+    }
+
+    /**
+     * Test that an expired token is rejected.
+     */
+    @Test
+    public void testGetAllClaimsFromToken_Expired() {
+        String expired = token(Jwts.builder()
+                .setSubject("Ma123")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000)), secret);
+
+        assertThrows(RuntimeException.class, () -> jwtService.getAllClaimsFromToken(expired));
+        assertThrows(RuntimeException.class, () -> jwtService.isTokenValid(expired, user()));
+    }
+
+    private static String token(JwtBuilder builder, String secret) {
+        return builder
+                .signWith(SignatureAlgorithm.HS256,
+                        new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                .compact();
+    }
+
+    private static AppUser user() {
+        return new AppUser(
+                "Ma123",
+                "mariam@gmail.com",
+                false,
+                LocalDate.now(),
+                LocalDate.now(),
+                null, new Role("ADMIN"), null
+        );
+    }
+}
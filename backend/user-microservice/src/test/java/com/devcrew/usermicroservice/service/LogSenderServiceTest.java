@@ -0,0 +1,118 @@
+package com.devcrew.usermicroservice.service;
+
+import com.devcrew.usermicroservice.model.AuditOutbox;
+import com.devcrew.usermicroservice.repository.AuditOutboxRepository;
+import com.devcrew.usermicroservice.utils.JsonBuilderUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for LogSenderService.
+ * This class contains tests for the audit outbox written by the service.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class LogSenderServiceTest {
+
+    /**
+     * Service recording the audit log messages.
+     */
+    @Autowired
+    private LogSenderService logSenderService;
+
+    /**
+     * Repository of the audit outbox.
+     */
+    @Autowired
+    private AuditOutboxRepository auditOutboxRepository;
+
+    /**
+     * Transaction manager used to commit or roll back the changes being audited.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * This method is used to empty the outbox before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        auditOutboxRepository.deleteAll();
+    }
+
+    /**
+     * Test that a committed change leaves its message in the outbox, and a rolled back one doesn't.
+     */
+    @Test
+    public void testMapAndSendLog_WrittenWithTheTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> sendLog("committed"));
+        transactionTemplate.executeWithoutResult(status -> {
+            sendLog("rolled back");
+            status.setRollbackOnly();
+        });
+
+        List<AuditOutbox> outbox = auditOutboxRepository.findAll();
+        assertEquals(1, outbox.size());
+        assertTrue(outbox.get(0).getPayload().contains("\"description\":\"committed\""));
+        // The user decides the queue shard the relay publishes the message to
+        assertEquals(1, outbox.get(0).getUserId());
+        assertEquals(1, outbox.get(0).getShard());
+    }
+
+    /**
+     * Test that the relay query locks the oldest messages of the shard first and returns at most a batch.
+     */
+    @Test
+    public void testLockNextBatch_OldestFirst() {
+        sendLog("first");
+        sendLog("second");
+        sendLog("third");
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<AuditOutbox> batch = transactionTemplate.execute(status -> auditOutboxRepository.findNextBatch(1, 2));
+
+        assertNotNull(batch);
+        assertEquals(2, batch.size());
+        assertTrue(batch.get(0).getPayload().contains("first"));
+        assertTrue(batch.get(1).getPayload().contains("second"));
+        assertEquals(List.of(), transactionTemplate.execute(status -> auditOutboxRepository.findNextBatch(0, 2)));
+    }
+
+    /**
+     * Test that the outbox is counted as a whole and by shard, and that the oldest messages of a shard are deleted first.
+     */
+    @Test
+    public void testDeleteOldest_OldestOfTheShardFirst() {
+        sendLog("first");
+        sendLog("second");
+        sendLog("third");
+
+        assertEquals(3, auditOutboxRepository.countDepth());
+        assertEquals(3, auditOutboxRepository.countShard(1));
+        assertEquals(0, auditOutboxRepository.countShard(0));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(status -> auditOutboxRepository.deleteOldest(0, 2)));
+        assertEquals(Integer.valueOf(2), transactionTemplate.execute(status -> auditOutboxRepository.deleteOldest(1, 2)));
+
+        List<AuditOutbox> outbox = auditOutboxRepository.findAll();
+        assertEquals(1, outbox.size());
+        assertTrue(outbox.get(0).getPayload().contains("third"));
+    }
+
+    private void sendLog(String description) {
+        logSenderService.mapAndSendLog(null, null, null, "Update", "User", "app_user", 1,
+                description, JsonBuilderUtils.emptySnapshot(), JsonBuilderUtils.emptySnapshot(), "user", "user@mail.com");
+    }
+}
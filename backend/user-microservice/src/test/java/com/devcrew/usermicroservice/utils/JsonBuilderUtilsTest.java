@@ -0,0 +1,67 @@
+package com.devcrew.usermicroservice.utils;
+
+import com.devcrew.usermicroservice.model.AppUser;
+import com.devcrew.usermicroservice.model.Role;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for JsonBuilderUtils.
+ * This class contains tests for the audit snapshots and their diff.
+ */
+public class JsonBuilderUtilsTest {
+
+    /**
+     * Test for diff method after an email change.
+     * This test verifies that only the id and the changed attribute are kept.
+     */
+    @Test
+    public void testDiff_OnlyChangedAttributes() {
+        AppUser user = user();
+        JsonNode before = JsonBuilderUtils.snapshot(user);
+        user.setEmail("new@gmail.com");
+
+        JsonBuilderUtils.Diff diff = JsonBuilderUtils.diff(before, JsonBuilderUtils.snapshot(user));
+
+        assertEquals("{\"id\":7,\"email\":\"old@gmail.com\"}", JsonBuilderUtils.jsonBuilder(diff.before()));
+        assertEquals("{\"id\":7,\"email\":\"new@gmail.com\"}", JsonBuilderUtils.jsonBuilder(diff.after()));
+    }
+
+    /**
+     * Test for diff method on a creation.
+     * This test verifies that the whole entity is kept after the change.
+     */
+    @Test
+    public void testDiff_Creation() {
+        JsonNode after = JsonBuilderUtils.snapshot(user());
+
+        JsonBuilderUtils.Diff diff = JsonBuilderUtils.diff(JsonBuilderUtils.emptySnapshot(), after);
+
+        assertEquals("{}", JsonBuilderUtils.jsonBuilder(diff.before()));
+        assertEquals(after, diff.after());
+    }
+
+    /**
+     * Test for jsonBuilder method.
+     * This test verifies that the JSON is compact and doesn't contain the password.
+     */
+    @Test
+    public void testJsonBuilder_Compact() {
+        String json = JsonBuilderUtils.jsonBuilder(user());
+
+        assertFalse(json.contains("\n"));
+        assertFalse(json.contains("hashed_password"));
+    }
+
+    private static AppUser user() {
+        AppUser user = new AppUser("Ma123", "old@gmail.com", false, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1),
+                null, new Role("USER"), null);
+        user.setId(7);
+        user.setHashed_password("hash");
+        return user;
+    }
+}
@@ -0,0 +1,145 @@
+package com.devcrew.usermicroservice.utils;
+
+import com.devcrew.usermicroservice.model.AppUser;
+import com.devcrew.usermicroservice.model.Role;
+import com.devcrew.usermicroservice.repository.PermissionRepository;
+import com.devcrew.usermicroservice.repository.RolePermissionRepository;
+import com.devcrew.usermicroservice.repository.UserRepository;
+import com.devcrew.usermicroservice.security.AuthorizationEngine;
+import com.devcrew.usermicroservice.security.JwtAuthenticationFilter;
+import com.devcrew.usermicroservice.security.TokenRevocationStore;
+import com.devcrew.usermicroservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark of a whole authenticated request, the JWT filter then a service resolving the principal and the role,
+ * with the verified claims cache and the request memo against parsing the token on every call.
+ * It only runs with -DloadTest=true.
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+public class JwtRequestLoadTest {
+
+    private static final String SECRET = "load-test-secret-load-test-secret-load-test-secret-load-test-secret";
+
+    private static final int REQUESTS = 20000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwtRequestLoadTest.class);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final AuthorizationEngine authorizationEngine = new AuthorizationEngine(
+            mock(RolePermissionRepository.class), mock(PermissionRepository.class));
+
+    private final TokenRevocationStore tokenRevocationStore = new TokenRevocationStore("local", 100, 1000, "reject",
+            "user-microservice", null, new SimpleMeterRegistry());
+
+    /**
+     * Clears the request and the security context.
+     */
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Test that a request served with the claims cache and the request memo is faster than one parsing the token on every call.
+     */
+    @Test
+    public void testCompareCachedWithParsedOnEveryCall() throws Exception {
+        AppUser user = new AppUser("Ma123", "mariam@gmail.com", false,
+                LocalDate.now(), LocalDate.now(), null, new Role(1, "ADMIN"), null);
+        when(userRepository.findByUsername("Ma123")).thenReturn(Optional.of(user));
+
+        JwtService cached = jwtService(new JwtService(userRepository, 1000));
+        String token = cached.getToken(user);
+        JwtService parsing = jwtService(new JwtService(userRepository, 1000) {
+            @Override
+            public Claims getAllClaimsFromToken(String token) {
+                return Jwts.parser()
+                        .setSigningKey(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                        .parseClaimsJws(token)
+                        .getBody();
+            }
+        });
+
+        long cachedMicros = time(cached, token, true);
+        long parsingMicros = time(parsing, token, false);
+        String report = "cached %d us, parsed on every call %d us per request".formatted(cachedMicros, parsingMicros);
+        LOGGER.info("Filter and service request: {}", report);
+
+        assertTrue(cachedMicros < parsingMicros, report);
+    }
+
+    /**
+     * Times whole requests after a warm-up.
+     * @param memo Whether the request attributes are bound, the request memo needs them
+     * @return Average time of a request, in microseconds
+     */
+    private long time(JwtService jwtService, String token, boolean memo) throws Exception {
+        JwtValidation jwtValidation = new JwtValidation(jwtService, userRepository, authorizationEngine, tokenRevocationStore);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtValidation);
+        String bearer = "Bearer " + token;
+        // What a controller and its service do with the token once the filter let the request through
+        FilterChain service = (request, response) -> {
+            jwtValidation.validatePrincipalFromToken(bearer);
+            jwtValidation.validateRoleFromToken(bearer);
+            jwtValidation.validatePrincipalFromToken(bearer).getUser();
+        };
+        for (int i = 0; i < REQUESTS / 10; i++) {
+            request(filter, service, bearer, memo);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            request(filter, service, bearer, memo);
+        }
+        return (System.nanoTime() - start) / REQUESTS / 1000;
+    }
+
+    private static void request(JwtAuthenticationFilter filter, FilterChain service, String bearer, boolean memo) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user");
+        request.addHeader(HttpHeaders.AUTHORIZATION, bearer);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (memo) {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        }
+        try {
+            filter.doFilter(request, response, service);
+            assertEquals(200, response.getStatus(), response.getContentAsString());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static JwtService jwtService(JwtService jwtService) {
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtService, "EXPIRATION_DATE", 3600000L);
+        jwtService.initKey();
+        return jwtService;
+    }
+}
@@ -0,0 +1,126 @@
+package com.devcrew.usermicroservice.utils;
+
+import com.devcrew.usermicroservice.exception.BadCredentialsException;
+import com.devcrew.usermicroservice.exception.UnauthorizedException;
+import com.devcrew.usermicroservice.model.AppUser;
+import com.devcrew.usermicroservice.model.Permission;
+import com.devcrew.usermicroservice.model.Role;
+import com.devcrew.usermicroservice.model.RolePermission;
+import com.devcrew.usermicroservice.repository.PermissionRepository;
+import com.devcrew.usermicroservice.repository.RolePermissionRepository;
+import com.devcrew.usermicroservice.repository.UserRepository;
+import com.devcrew.usermicroservice.security.AuthorizationEngine;
+import com.devcrew.usermicroservice.security.ResolvedPrincipal;
+import com.devcrew.usermicroservice.security.TokenRevocationStore;
+import com.devcrew.usermicroservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for JwtValidation.
+ * This class contains tests for the principal resolved once per request and for the token revocation.
+ */
+public class JwtValidationTest {
+
+    private static final String TOKEN = "Bearer token";
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RolePermissionRepository rolePermissionRepository = mock(RolePermissionRepository.class);
+    private final PermissionRepository permissionRepository = mock(PermissionRepository.class);
+    private final JwtValidation jwtValidation = new JwtValidation(jwtService, userRepository,
+            new AuthorizationEngine(rolePermissionRepository, permissionRepository),
+            new TokenRevocationStore("local", 100, 1000, "reject", "user-microservice", null, new SimpleMeterRegistry()));
+
+    private final Role moderator = new Role(2, "MODERATOR");
+    private final AppUser user = new AppUser("Ma123", "mariam@gmail.com", false,
+            LocalDate.now(), LocalDate.now(), null, moderator, null);
+
+    /**
+     * Sets up a request and a valid token for a moderator allowed to read.
+     */
+    @BeforeEach
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        long expiration = System.currentTimeMillis() / 1000 + 3600;
+        Claims claims = Jwts.claims(Map.of("sub", "Ma123", "role", "MODERATOR", "exp", expiration));
+        when(jwtService.getAllClaimsFromToken("token")).thenReturn(claims);
+        when(jwtService.isTokenValid(any(), any())).thenReturn(true);
+        when(userRepository.findByUsername("Ma123")).thenReturn(Optional.of(user));
+        Permission read = new Permission(2, "READ");
+        when(permissionRepository.findAll()).thenReturn(List.of(read, new Permission(5, "ADMIN")));
+        when(rolePermissionRepository.findAllWithRoleAndPermission())
+                .thenReturn(List.of(new RolePermission(moderator, read, "READ permission for moderator")));
+    }
+
+    /**
+     * Clears the request.
+     */
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * Test that the user and the permissions are only loaded once in a request, whatever the number of checks.
+     */
+    @Test
+    public void testValidatePrincipalFromToken_OncePerRequest() {
+        ResolvedPrincipal principal = jwtValidation.validatePrincipalFromToken(TOKEN);
+
+        assertEquals("Ma123", jwtValidation.validateUsernameFromToken(TOKEN));
+        assertSame(user, AuthorizationUtils.validatePermissions("Ma123", TOKEN, "READ", jwtValidation, userRepository));
+        assertThrows(UnauthorizedException.class, () -> AuthorizationUtils.validateAdminPermissions(TOKEN, jwtValidation));
+        assertSame(principal, jwtValidation.validatePrincipalFromToken(TOKEN));
+        assertEquals("MODERATOR", principal.getRole());
+
+        verify(userRepository, times(1)).findByUsername("Ma123");
+        verify(rolePermissionRepository, times(1)).findAllWithRoleAndPermission();
+    }
+
+    /**
+     * Test that a new request resolves the principal again.
+     */
+    @Test
+    public void testValidatePrincipalFromToken_NewRequest() {
+        ResolvedPrincipal principal = jwtValidation.validatePrincipalFromToken(TOKEN);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertNotSame(principal, jwtValidation.validatePrincipalFromToken(TOKEN));
+        verify(userRepository, times(2)).findByUsername("Ma123");
+        verify(rolePermissionRepository, times(1)).findAllWithRoleAndPermission();
+    }
+
+    /**
+     * Test that an invalidated token is rejected in the next requests, but other tokens are not.
+     */
+    @Test
+    public void testInvalidateToken() {
+        jwtValidation.validatePrincipalFromToken(TOKEN);
+        jwtValidation.invalidateToken(TOKEN);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThrows(BadCredentialsException.class, () -> jwtValidation.validatePrincipalFromToken(TOKEN));
+        assertThrows(BadCredentialsException.class, () -> jwtValidation.validateRoleFromToken(TOKEN));
+
+        Claims claims = jwtService.getAllClaimsFromToken("token");
+        when(jwtService.getAllClaimsFromToken("other")).thenReturn(claims);
+        assertEquals("Ma123", jwtValidation.validateUsernameFromToken("Bearer other"));
+    }
+}